@@ -0,0 +1,106 @@
+package com.logai.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.logai.assint.dto.ManualRecordResponse;
+import com.logai.assint.dto.ThemeSegment;
+import com.logai.assint.entity.Theme;
+import com.logai.assint.util.AiResponseCleaner;
+import com.logai.assint.util.ThemePromptRenderer;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录链路中模型调用前后的本地处理：主题表格渲染、模型输出清洗和 JSON 解析
+ * 输入是固定的典型模型输出，themeCount 覆盖新用户到主题较多的用户
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class AiResponseBenchmark {
+
+    private static final String THEME_SEGMENTS_RESPONSE = """
+            ```json
+            [
+              {"theme": "饮食", "prompts": [
+                {"prompt": "早餐吃了两个鸡蛋和一杯牛奶", "eventTime": "2025-03-01 08:10:00"},
+                {"prompt": "午饭吃了一碗牛肉面", "eventTime": "2025-03-01 12:30:00"}
+              ]},
+              {"theme": "运动", "prompts": [
+                {"prompt": "晚上跑步 5 公里，用时 28 分钟", "eventTime": "2025-03-01 20:00:00"}
+              ]},
+              {"theme": "睡眠", "prompts": [
+                {"prompt": "昨晚 23:30 睡，今天 7:00 起", "eventTime": "2025-03-01 07:00:00"}
+              ]}
+            ]
+            ```
+            """;
+
+    private static final String MANUAL_RECORD_RESPONSE = """
+            Here is the extracted result:
+            ```json
+            {
+              "chatId": 1893456712345678901,
+              "themeName": "运动",
+              "records": [
+                {"eventTime": "2025-03-01 20:00:00", "attributes": [
+                  {"attributeName": "运动类型", "value": "跑步", "unit": null, "dataType": "STRING", "groupId": "g1"},
+                  {"attributeName": "距离", "value": "5", "unit": "公里", "dataType": "NUMBER", "groupId": "g1"},
+                  {"attributeName": "时长", "value": "28", "unit": "分钟", "dataType": "NUMBER", "groupId": "g1"},
+                  {"attributeName": "感受", "value": "有点累但状态不错", "unit": null, "dataType": "STRING", "groupId": "g1"}
+                ]},
+                {"eventTime": "2025-03-01 21:00:00", "attributes": [
+                  {"attributeName": "运动类型", "value": "拉伸", "unit": null, "dataType": "STRING", "groupId": "g2"},
+                  {"attributeName": "时长", "value": "15", "unit": "分钟", "dataType": "NUMBER", "groupId": "g2"}
+                ]}
+              ]
+            }
+            ```
+            """;
+
+    @Param({"5", "40"})
+    private int themeCount;
+
+    private List<Theme> themes;
+    private String themeSegmentsJson;
+    private String manualRecordJson;
+
+    @Setup
+    public void setup() {
+        themes = new ArrayList<>(themeCount);
+        for (int i = 0; i < themeCount; i++) {
+            Theme theme = new Theme();
+            theme.setId(1_000_000L + i);
+            theme.setThemeName("主题" + i);
+            theme.setDescription("记录与主题" + i + "相关的日常事件、数值和感受");
+            themes.add(theme);
+        }
+        themeSegmentsJson = AiResponseCleaner.extractJsonString(THEME_SEGMENTS_RESPONSE);
+        manualRecordJson = AiResponseCleaner.extractJsonString(MANUAL_RECORD_RESPONSE);
+    }
+
+    @Benchmark
+    public String renderThemeTable() {
+        return ThemePromptRenderer.renderThemeTable(themes);
+    }
+
+    @Benchmark
+    public String extractJsonString() {
+        return AiResponseCleaner.extractJsonString(MANUAL_RECORD_RESPONSE);
+    }
+
+    @Benchmark
+    public List<ThemeSegment> parseThemeSegments() {
+        return JSON.parseArray(themeSegmentsJson, ThemeSegment.class);
+    }
+
+    @Benchmark
+    public ManualRecordResponse parseManualRecordResponse() {
+        return JSON.parseObject(manualRecordJson, ManualRecordResponse.class);
+    }
+}
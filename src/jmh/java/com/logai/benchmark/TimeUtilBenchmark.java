@@ -0,0 +1,35 @@
+package com.logai.benchmark;
+
+import com.logai.common.utils.TimeUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 灵活时间解析按格式列表逐个尝试，越靠后的格式失败次数越多
+ * 参数覆盖第一个格式、中间格式、最后一个格式和无法解析的输入
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class TimeUtilBenchmark {
+
+    @Param({"2025-03-01T20:00:00", "2025-03-01 20:00:00", "2025/03/01 20:00", "20250301200000", "yesterday evening"})
+    private String value;
+
+    private TimeUtil timeUtil;
+
+    @Setup
+    public void setup() {
+        timeUtil = new TimeUtil();
+    }
+
+    @Benchmark
+    public LocalDateTime tryParseFlexibleDateTime() {
+        return timeUtil.tryParseFlexibleDateTime(value);
+    }
+}
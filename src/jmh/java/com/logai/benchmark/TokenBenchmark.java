@@ -0,0 +1,76 @@
+package com.logai.benchmark;
+
+import com.logai.security.encryption.TokenEncryptionService;
+import com.logai.security.util.JwtUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌热路径：每个请求都会经过 JWT 解析，刷新令牌会经过哈希与加解密
+ * 密钥和令牌均为固定值，保证不同机器、不同次运行的输入一致
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 2, jvmArgsAppend = {"-Xms1g", "-Xmx1g"})
+@State(Scope.Benchmark)
+public class TokenBenchmark {
+    // 64 字节 HS512 密钥 / 32 字节 AES-256 密钥，固定值仅用于基准测试
+    private static final byte[] JWT_SECRET = "logai-benchmark-jwt-secret-0123456789-abcdefghijklmnopqrstuvwxyz".getBytes();
+    private static final byte[] AES_KEY = "logai-benchmark-aes-key-01234567".getBytes();
+
+    private JwtUtils jwtUtils;
+    private TokenEncryptionService encryptionService;
+    private String accessToken;
+    private String refreshToken;
+    private String encryptedToken;
+
+    @Setup
+    public void setup() {
+        jwtUtils = new JwtUtils(Base64.getEncoder().encodeToString(JWT_SECRET));
+        encryptionService = new TokenEncryptionService(Base64.getEncoder().encodeToString(AES_KEY));
+
+        // 与 TokenService 生成的访问令牌结构一致，过期时间足够覆盖整个基准运行
+        long now = System.currentTimeMillis();
+        accessToken = Jwts.builder()
+                .setSubject("1000001")
+                .claim("role", 2)
+                .claim("type", "access")
+                .claim("tokenId", "5f0c7d8e-9a1b-4c2d-8e3f-4a5b6c7d8e9f")
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + TimeUnit.DAYS.toMillis(1)))
+                .signWith(Keys.hmacShaKeyFor(JWT_SECRET), SignatureAlgorithm.HS512)
+                .compact();
+        refreshToken = "rt_3q2+7w==_benchmark_refresh_token_value_0123456789abcdef";
+        encryptedToken = encryptionService.encryptToken(refreshToken);
+    }
+
+    @Benchmark
+    public Optional<Claims> extractClaims() {
+        return jwtUtils.extractClaims(accessToken);
+    }
+
+    @Benchmark
+    public String generateTokenHash() {
+        return encryptionService.generateTokenHash(refreshToken);
+    }
+
+    @Benchmark
+    public String encryptToken() {
+        return encryptionService.encryptToken(refreshToken);
+    }
+
+    @Benchmark
+    public String decryptToken() {
+        return encryptionService.decryptToken(encryptedToken);
+    }
+}
@@ -0,0 +1,23 @@
+package com.logai.loadtest;
+
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * 压测环境配置：用桩模型替代 Gemini（spring.ai.model.chat=none 关闭了 Gemini 自动配置）
+ */
+@Configuration
+@Profile("loadtest")
+@EnableConfigurationProperties(StubChatModelProperties.class)
+public class LoadTestConfiguration {
+
+    @Bean
+    @Primary
+    public ChatModel stubChatModel(StubChatModelProperties properties) {
+        return new StubChatModel(properties);
+    }
+}
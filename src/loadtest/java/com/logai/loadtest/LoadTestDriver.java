@@ -0,0 +1,391 @@
+package com.logai.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.File;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 压测驱动：按权重混合回放 /api/assist/chat、/api/assist/searchUserRecords 和 /api/oauth2/token，
+ * 统计每类请求的 p50 / p90 / p99 延迟和吞吐，并每秒采样 actuator 指标（Hikari 等待、记录线程池队列深度）。
+ * <p>
+ * 系统属性（均有默认值）：
+ * <ul>
+ *     <li>loadtest.base-url：被测服务地址，默认 http://localhost:8080</li>
+ *     <li>loadtest.management-url：被测服务 actuator 地址（management.server.port），默认 http://localhost:8081</li>
+ *     <li>loadtest.credentials：{@link LoadTestProvisioner} 输出的账号文件</li>
+ *     <li>loadtest.concurrency：并发虚拟用户数</li>
+ *     <li>loadtest.warmup-seconds / loadtest.duration-seconds：预热时长（不计入统计）和统计时长</li>
+ *     <li>loadtest.mix：请求权重，如 chat=30,search=60,token=10</li>
+ *     <li>loadtest.seed：随机种子，相同种子回放相同的请求序列</li>
+ *     <li>loadtest.executor：采样队列深度的线程池名（executor.* 指标的 name 标签，Bean 名去掉 TaskExecutor 后缀）</li>
+ *     <li>loadtest.report：JSON 报告输出路径</li>
+ * </ul>
+ */
+public class LoadTestDriver {
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static final List<String> RECORD_MESSAGES = List.of(
+            "早餐吃了两个鸡蛋和一杯牛奶",
+            "晚上跑步5公里，用时28分钟",
+            "今天早上体重62.5公斤",
+            "午饭花了35元吃牛肉面",
+            "昨晚11点半睡，今天7点起床",
+            "下午喝了一杯美式咖啡，有点心慌");
+
+    private static final List<String> ANALYSIS_MESSAGES = List.of(
+            "分析一下我这周的运动情况",
+            "分析我最近一个月的体重变化",
+            "分析昨天我都做了什么");
+
+    private static final List<String> SEARCH_VALUES = List.of("跑步", "咖啡", "体重", "早餐");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String baseUrl = System.getProperty("loadtest.base-url", "http://localhost:8080");
+    private final String managementUrl = System.getProperty("loadtest.management-url", "http://localhost:8081");
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 32);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 15);
+    private final int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 120);
+    private final long seed = Long.getLong("loadtest.seed", 42L);
+    private final String executorName = System.getProperty("loadtest.executor", "recordIntent");
+    private final String reportPath = System.getProperty("loadtest.report", "target/loadtest-report.json");
+
+    private final Map<String, Integer> mix = parseMix(System.getProperty("loadtest.mix", "chat=30,search=60,token=10"));
+    private final Map<String, Recorder> recorders = new ConcurrentHashMap<>();
+    private final Map<String, Gauge> gauges = new ConcurrentHashMap<>();
+
+    private JsonNode credentials;
+    private AtomicReferenceArray<String> oauthRefreshTokens;
+    private volatile boolean measuring;
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestDriver().run();
+    }
+
+    private void run() throws Exception {
+        credentials = objectMapper.readTree(new File(System.getProperty("loadtest.credentials", "target/loadtest-credentials.json")));
+        JsonNode users = credentials.path("users");
+        if (!users.isArray() || users.isEmpty()) {
+            throw new IllegalStateException("No users in credentials file"); // 账号文件中没有用户
+        }
+        oauthRefreshTokens = new AtomicReferenceArray<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            oauthRefreshTokens.set(i, users.get(i).path("oauthRefreshToken").asText());
+        }
+        mix.keySet().forEach(op -> recorders.put(op, new Recorder()));
+
+        System.out.printf("压测开始: %s, 并发 %d, 预热 %ds, 统计 %ds, 权重 %s%n", baseUrl, concurrency, warmupSeconds, durationSeconds, mix);
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        MetricSnapshot acquireStart = new MetricSnapshot();
+        ExecutorService workers = Executors.newFixedThreadPool(concurrency);
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmupSeconds);
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+        for (int worker = 0; worker < concurrency; worker++) {
+            int workerIndex = worker;
+            workers.submit(() -> workerLoop(workerIndex, end));
+        }
+
+        sleepUntil(warmupEnd);
+        acquireStart.capture();
+        measuring = true;
+        sampler.scheduleAtFixedRate(this::sampleMetrics, 0, 1, TimeUnit.SECONDS);
+
+        sleepUntil(end);
+        measuring = false;
+        workers.shutdown();
+        workers.awaitTermination(60, TimeUnit.SECONDS);
+        sampler.shutdownNow();
+
+        MetricSnapshot acquireEnd = new MetricSnapshot();
+        acquireEnd.capture();
+        report(acquireStart, acquireEnd);
+    }
+
+    private void workerLoop(int workerIndex, long end) {
+        Random random = new Random(seed + workerIndex);
+        int totalWeight = mix.values().stream().mapToInt(Integer::intValue).sum();
+        int userCount = credentials.path("users").size();
+        int request = 0;
+        while (System.nanoTime() < end) {
+            int userIndex = (workerIndex + request++ * concurrency) % userCount;
+            String op = pick(random.nextInt(totalWeight));
+            long start = System.nanoTime();
+            boolean ok;
+            try {
+                ok = switch (op) {
+                    case "chat" -> chat(userIndex, random);
+                    case "search" -> search(userIndex, random);
+                    case "token" -> refreshOAuthToken(userIndex);
+                    default -> throw new IllegalArgumentException("Unknown operation: " + op); // 未知的请求类型
+                };
+            } catch (Exception e) {
+                ok = false;
+            }
+            if (measuring) {
+                recorders.get(op).record(System.nanoTime() - start, ok);
+            }
+        }
+    }
+
+    private boolean chat(int userIndex, Random random) throws Exception {
+        // 约四分之一的对话是分析请求，其余为记录
+        List<String> messages = random.nextInt(4) == 0 ? ANALYSIS_MESSAGES : RECORD_MESSAGES;
+        String message = messages.get(random.nextInt(messages.size()));
+        return get("/api/assist/chat?message=" + encode(message), userIndex);
+    }
+
+    private boolean search(int userIndex, Random random) throws Exception {
+        StringBuilder path = new StringBuilder("/api/assist/searchUserRecords?page=")
+                .append(random.nextInt(3)).append("&size=20");
+        int variant = random.nextInt(3);
+        if (variant == 1) {
+            path.append("&searchValue=").append(encode(SEARCH_VALUES.get(random.nextInt(SEARCH_VALUES.size()))));
+        } else if (variant == 2) {
+            LocalDateTime now = LocalDateTime.now();
+            path.append("&startTime=").append(encode(now.minusDays(30).format(TIME_FORMAT)))
+                    .append("&endTime=").append(encode(now.format(TIME_FORMAT)));
+        }
+        return get(path.toString(), userIndex);
+    }
+
+    private boolean refreshOAuthToken(int userIndex) throws Exception {
+        String form = "grant_type=refresh_token"
+                + "&refresh_token=" + encode(oauthRefreshTokens.get(userIndex))
+                + "&client_id=" + encode(credentials.path("clientId").asText())
+                + "&client_secret=" + encode(credentials.path("clientSecret").asText());
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/oauth2/token"))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            return false;
+        }
+        // 服务端轮换刷新令牌时，后续请求使用新令牌
+        JsonNode body = objectMapper.readTree(response.body());
+        String rotated = body.path("refresh_token").asText(body.path("refreshToken").asText(null));
+        if (rotated != null && !rotated.isBlank()) {
+            oauthRefreshTokens.set(userIndex, rotated);
+        }
+        return true;
+    }
+
+    private boolean get(String path, int userIndex) throws Exception {
+        String accessToken = credentials.path("users").get(userIndex).path("accessToken").asText();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Authorization", "Bearer " + accessToken)
+                .header("X-Time-Zone", "Asia/Shanghai")
+                .GET()
+                .build();
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    private void sampleMetrics() {
+        sampleGauge("hikari.pending", "hikaricp.connections.pending", null, "VALUE");
+        sampleGauge("hikari.active", "hikaricp.connections.active", null, "VALUE");
+        sampleGauge("executor.queued", "executor.queued", "name:" + executorName, "VALUE");
+        sampleGauge("executor.active", "executor.active", "name:" + executorName, "VALUE");
+    }
+
+    private void sampleGauge(String key, String metric, String tag, String statistic) {
+        Double value = readMetric(metric, tag, statistic);
+        if (value != null) {
+            gauges.computeIfAbsent(key, k -> new Gauge()).add(value);
+        }
+    }
+
+    private Double readMetric(String metric, String tag, String statistic) {
+        try {
+            String url = managementUrl + "/actuator/metrics/" + metric + (tag == null ? "" : "?tag=" + encode(tag));
+            HttpResponse<String> response = httpClient.send(HttpRequest.newBuilder(URI.create(url))
+                    .timeout(Duration.ofSeconds(5)).GET().build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                return null;
+            }
+            for (JsonNode measurement : objectMapper.readTree(response.body()).path("measurements")) {
+                if (statistic.equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+        } catch (Exception ignored) {
+        }
+        return null;
+    }
+
+    private void report(MetricSnapshot acquireStart, MetricSnapshot acquireEnd) throws Exception {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("baseUrl", baseUrl);
+        report.put("concurrency", concurrency);
+        report.put("durationSeconds", durationSeconds);
+        report.put("mix", mix);
+        report.put("seed", seed);
+
+        Map<String, Object> requests = new LinkedHashMap<>();
+        System.out.printf("%n%-8s %8s %7s %9s %9s %9s %9s %9s%n", "op", "count", "errors", "rps", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)");
+        for (Map.Entry<String, Recorder> entry : recorders.entrySet()) {
+            Map<String, Object> stats = entry.getValue().summarize(durationSeconds);
+            requests.put(entry.getKey(), stats);
+            System.out.printf("%-8s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n", entry.getKey(),
+                    stats.get("count"), stats.get("errors"), stats.get("throughput"),
+                    stats.get("p50Ms"), stats.get("p90Ms"), stats.get("p99Ms"), stats.get("maxMs"));
+        }
+        report.put("requests", requests);
+
+        Map<String, Object> resources = new LinkedHashMap<>();
+        gauges.forEach((key, gauge) -> resources.put(key, gauge.summarize()));
+        double acquireCount = acquireEnd.acquireCount - acquireStart.acquireCount;
+        double acquireTotal = acquireEnd.acquireTotalSeconds - acquireStart.acquireTotalSeconds;
+        Map<String, Object> acquire = new LinkedHashMap<>();
+        acquire.put("count", (long) acquireCount);
+        acquire.put("meanWaitMs", acquireCount > 0 ? acquireTotal / acquireCount * 1000 : 0);
+        acquire.put("maxWaitMs", acquireEnd.acquireMaxSeconds * 1000);
+        acquire.put("timeouts", (long) (acquireEnd.timeouts - acquireStart.timeouts));
+        resources.put("hikari.acquire", acquire);
+        report.put("resources", resources);
+        System.out.println();
+        resources.forEach((key, value) -> System.out.printf("%-18s %s%n", key, value));
+
+        File file = new File(reportPath);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        System.out.printf("%n报告已写入 %s%n", file.getAbsolutePath());
+    }
+
+    private String pick(int roll) {
+        int cumulative = 0;
+        for (Map.Entry<String, Integer> entry : mix.entrySet()) {
+            cumulative += entry.getValue();
+            if (roll < cumulative) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty request mix"); // 请求权重为空
+    }
+
+    private static Map<String, Integer> parseMix(String value) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String part : value.split(",")) {
+            String[] pair = part.trim().split("=");
+            int weight = Integer.parseInt(pair[1].trim());
+            if (weight > 0) {
+                mix.put(pair[0].trim(), weight);
+            }
+        }
+        return mix;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static void sleepUntil(long deadline) throws InterruptedException {
+        long remaining = deadline - System.nanoTime();
+        if (remaining > 0) {
+            TimeUnit.NANOSECONDS.sleep(remaining);
+        }
+    }
+
+    /**
+     * 单类请求的延迟样本
+     */
+    private static final class Recorder {
+        private final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicLong errors = new AtomicLong();
+
+        void record(long nanos, boolean ok) {
+            latencies.add(nanos);
+            if (!ok) {
+                errors.incrementAndGet();
+            }
+        }
+
+        Map<String, Object> summarize(int durationSeconds) {
+            long[] sorted;
+            synchronized (latencies) {
+                sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+            }
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("count", (long) sorted.length);
+            stats.put("errors", errors.get());
+            stats.put("throughput", (double) sorted.length / durationSeconds);
+            stats.put("p50Ms", percentile(sorted, 0.50));
+            stats.put("p90Ms", percentile(sorted, 0.90));
+            stats.put("p99Ms", percentile(sorted, 0.99));
+            stats.put("maxMs", sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6);
+            return stats;
+        }
+
+        private static double percentile(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1e6;
+        }
+    }
+
+    /**
+     * 每秒采样的资源指标
+     */
+    private static final class Gauge {
+        private double max;
+        private double sum;
+        private long samples;
+
+        synchronized void add(double value) {
+            max = Math.max(max, value);
+            sum += value;
+            samples++;
+        }
+
+        synchronized Map<String, Object> summarize() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("max", max);
+            stats.put("mean", samples == 0 ? 0.0 : sum / samples);
+            stats.put("samples", samples);
+            return stats;
+        }
+    }
+
+    /**
+     * Hikari 获取连接的累计计时，开始和结束各取一次求差值
+     */
+    private final class MetricSnapshot {
+        private double acquireCount;
+        private double acquireTotalSeconds;
+        private double acquireMaxSeconds;
+        private double timeouts;
+
+        void capture() {
+            acquireCount = Objects.requireNonNullElse(readMetric("hikaricp.connections.acquire", null, "COUNT"), 0.0);
+            acquireTotalSeconds = Objects.requireNonNullElse(readMetric("hikaricp.connections.acquire", null, "TOTAL_TIME"), 0.0);
+            acquireMaxSeconds = Objects.requireNonNullElse(readMetric("hikaricp.connections.acquire", null, "MAX"), 0.0);
+            timeouts = Objects.requireNonNullElse(readMetric("hikaricp.connections.timeout", null, "COUNT"), 0.0);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.logai.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logai.oauth2.dto.ClientRegistrationRequest;
+import com.logai.oauth2.dto.OauthTokenResponse;
+import com.logai.oauth2.entity.AuthorizationCode;
+import com.logai.oauth2.entity.OAuth2Client;
+import com.logai.oauth2.service.OAuth2ClientService;
+import com.logai.oauth2.service.OAuth2TokenService;
+import com.logai.security.dto.TokenResponse;
+import com.logai.security.service.TokenService;
+import com.logai.user.entity.User;
+import com.logai.user.mapper.UserMapper;
+import com.logai.user.service.UserService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 压测账号准备：启动后创建（或复用）一批试用会员账号，签发站内令牌和 OAuth2 刷新令牌，
+ * 写入 loadtest.provision.output 供 {@link LoadTestDriver} 读取。
+ * 账号邮箱固定为 loadtest+N@logai.local，重复启动只会补签令牌。
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+@RequiredArgsConstructor
+public class LoadTestProvisioner implements ApplicationRunner {
+
+    private final UserMapper userMapper;
+    private final UserService userService;
+    private final TokenService tokenService;
+    private final OAuth2ClientService clientService;
+    private final OAuth2TokenService oauth2TokenService;
+    private final ObjectMapper objectMapper;
+
+    @Value("${loadtest.provision.users:50}")
+    private int users;
+
+    @Value("${loadtest.provision.time-zone:Asia/Shanghai}")
+    private String timeZone;
+
+    @Value("${loadtest.provision.output:target/loadtest-credentials.json}")
+    private String output;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        ClientRegistrationRequest registration = new ClientRegistrationRequest();
+        registration.setClientName("logai-loadtest");
+        registration.setRedirectUris(List.of("http://localhost/loadtest/callback"));
+        OAuth2Client client = clientService.registerClient(registration);
+        // 注册接口返回的是数据库中的记录，重置一次拿到明文密钥
+        client = clientService.resetClientSecret(client.getClientId());
+
+        List<Credentials.UserCredentials> userCredentials = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String email = "loadtest+" + i + "@logai.local";
+            User user = userMapper.findByEmail(email);
+            if (user == null) {
+                // register 会同时开通试用会员
+                user = userService.register(email, timeZone);
+            }
+            TokenResponse tokens = tokenService.generateTokens(user, "loadtest-device-" + i, "127.0.0.1", "logai-loadtest");
+
+            AuthorizationCode code = new AuthorizationCode();
+            code.setClientId(client.getClientId());
+            code.setUserId(user.getId());
+            code.setUserUuid(user.getUuid());
+            code.setScope("read offline_access");
+            OauthTokenResponse oauthTokens = oauth2TokenService.generateTokens(code);
+
+            userCredentials.add(new Credentials.UserCredentials(user.getId(), tokens.getAccessToken(), oauthTokens.getRefreshToken()));
+        }
+
+        File file = new File(output);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.writerWithDefaultPrettyPrinter()
+                .writeValue(file, new Credentials(client.getClientId(), client.getPlainClientSecret(), userCredentials));
+        log.info("压测账号准备完成 - 用户数: {}, 输出: {}", users, file.getAbsolutePath());
+    }
+
+    public record Credentials(String clientId, String clientSecret, List<UserCredentials> users) {
+
+        public record UserCredentials(Long userId, String accessToken, String oauthRefreshToken) {
+        }
+    }
+}
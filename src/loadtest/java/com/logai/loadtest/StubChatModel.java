@@ -0,0 +1,104 @@
+package com.logai.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.messages.AssistantMessage;
+import org.springframework.ai.chat.messages.Message;
+import org.springframework.ai.chat.messages.MessageType;
+import org.springframework.ai.chat.metadata.ChatResponseMetadata;
+import org.springframework.ai.chat.metadata.DefaultUsage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.model.Generation;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 压测用桩模型，替代 GoogleGenAiChatModel
+ * 按 system 提示词识别是哪个 ChatClient 发起的调用，睡眠配置的延迟后返回固定 JSON，
+ * 并按字符数估算 token 用量，保证 TokenCounter / 用量统计链路照常执行
+ */
+@Slf4j
+public class StubChatModel implements ChatModel {
+    private static final Pattern USER_ID = Pattern.compile("user_id\\s*=\\s*(\\d+)");
+
+    private final StubChatModelProperties properties;
+
+    public StubChatModel(StubChatModelProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        String system = textOf(prompt.getInstructions(), MessageType.SYSTEM);
+        String user = textOf(prompt.getInstructions(), MessageType.USER);
+
+        StubChatModelProperties.Rule rule = match(system, user);
+        long latency = rule != null && rule.getLatencyMs() != null ? rule.getLatencyMs() : properties.getLatencyMs();
+        sleep(latency + (properties.getJitterMs() > 0 ? ThreadLocalRandom.current().nextLong(properties.getJitterMs() + 1) : 0));
+
+        String text = rule != null ? render(rule.getResponse(), system) : properties.getDefaultResponse();
+        log.debug("桩模型命中规则: {}", rule != null ? rule.getName() : "default");
+
+        ChatResponseMetadata metadata = ChatResponseMetadata.builder()
+                .model("loadtest-stub")
+                .usage(new DefaultUsage(estimateTokens(system) + estimateTokens(user), estimateTokens(text)))
+                .build();
+        return new ChatResponse(List.of(new Generation(new AssistantMessage(text))), metadata);
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return Mono.fromCallable(() -> call(prompt))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flux();
+    }
+
+    private StubChatModelProperties.Rule match(String system, String user) {
+        for (StubChatModelProperties.Rule rule : properties.getRules()) {
+            boolean systemMatched = rule.getSystemContains() == null || system.contains(rule.getSystemContains());
+            boolean userMatched = rule.getUserContains() == null || user.contains(rule.getUserContains());
+            if (systemMatched && userMatched) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    private String render(String response, String system) {
+        if (response == null || !response.contains("{{userId}}")) {
+            return response;
+        }
+        Matcher matcher = USER_ID.matcher(system);
+        return response.replace("{{userId}}", matcher.find() ? matcher.group(1) : "0");
+    }
+
+    private String textOf(List<Message> messages, MessageType type) {
+        StringBuilder sb = new StringBuilder();
+        for (Message message : messages) {
+            if (message.getMessageType() == type && message.getText() != null) {
+                sb.append(message.getText()).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    private int estimateTokens(String text) {
+        // 粗略按 4 个字符一个 token 估算
+        return text == null ? 0 : Math.max(1, text.length() / 4);
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
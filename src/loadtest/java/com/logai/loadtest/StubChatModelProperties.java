@@ -0,0 +1,48 @@
+package com.logai.loadtest;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 桩模型配置（loadtest.stub）
+ * 按顺序匹配规则：system 提示词包含 systemContains 且（未配置 userContains 或用户消息包含它）即命中
+ */
+@Data
+@ConfigurationProperties(prefix = "loadtest.stub")
+public class StubChatModelProperties {
+
+    /**
+     * 每次调用的基础延迟（毫秒），模拟 Gemini 响应时间
+     */
+    private long latencyMs = 800;
+
+    /**
+     * 在基础延迟上叠加 [0, jitterMs] 的随机延迟
+     */
+    private long jitterMs = 400;
+
+    /**
+     * 没有规则命中时的回复
+     */
+    private String defaultResponse = "好的，我记下了。";
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        private String systemContains;
+        private String userContains;
+        /**
+         * 覆盖全局基础延迟，不配置时使用 latencyMs
+         */
+        private Long latencyMs;
+        /**
+         * 固定回复，支持 {{userId}} 占位符（取 system 提示词中第一个 user_id = N）
+         */
+        private String response;
+    }
+}
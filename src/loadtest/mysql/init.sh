@@ -0,0 +1,11 @@
+#!/bin/bash
+# 由 mysql 镜像的 entrypoint 在首次初始化时 source 执行，按 表结构 -> 迁移脚本 -> 种子数据 的顺序导入
+set -e
+
+for dir in /loadtest/schema /loadtest/migration /loadtest/seed; do
+    for f in "$dir"/*.sql; do
+        [ -e "$f" ] || continue
+        echo "loadtest init: $f"
+        docker_process_sql --database="$MYSQL_DATABASE" < "$f"
+    done
+done
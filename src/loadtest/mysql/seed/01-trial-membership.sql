@@ -0,0 +1,5 @@
+-- 注册时会开通试用会员，依赖名为 trial 的会员套餐
+INSERT INTO memberships (name, description, duration_months, role_name, created_at, updated_at)
+SELECT 'trial', '试用会员', 1, 'ROLE_MEMBER', NOW(), NOW()
+FROM DUAL
+WHERE NOT EXISTS (SELECT 1 FROM memberships WHERE name = 'trial');
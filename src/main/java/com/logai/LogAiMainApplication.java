@@ -3,9 +3,11 @@ package com.logai;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @MapperScan("com.logai.**.mapper")
+@EnableScheduling
 public class LogAiMainApplication {
     public static void main(String[] args) {
         SpringApplication.run(LogAiMainApplication.class, args);
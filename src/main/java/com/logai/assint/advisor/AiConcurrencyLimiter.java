@@ -0,0 +1,271 @@
+package com.logai.assint.advisor;
+
+import com.logai.common.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Gemini 调用的自适应并发控制，所有 ChatClient 共享
+ * <p>
+ * 并发上限按 AIMD 调整：接近上限的成功调用每次把上限加 1/limit（约每轮加 1），
+ * 收到 429 时按比例下调并暂停放行一段时间，连续 429 时暂停时间指数增长。
+ * 排队按优先级放行：交互请求（意图、分析、对话）先于后台记录，后台记录先于批量导入；
+ * 同一优先级内先到先得，排队超过各自的等待时间后放弃。
+ * 指标：
+ * assist.ai.limiter.limit / in_flight / queued：当前上限、在途调用数、各优先级排队数；
+ * assist.ai.limiter.wait：排队耗时，按 priority / outcome(acquired|timeout) 区分；
+ * assist.ai.limiter.throttled：收到的 429 次数。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AiConcurrencyLimiter {
+    private static final String METRIC_PREFIX = "assist.ai.limiter";
+
+    private final MeterRegistry meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<Priority, ArrayDeque<Condition>> queues = new EnumMap<>(Priority.class);
+    private double limit;
+    private int inFlight;
+    private long pausedUntilNanos;
+    private int consecutiveThrottles;
+    private Counter throttledCounter;
+
+    @Value("${assist.ai-limiter.enabled:true}")
+    private boolean enabled;
+
+    @Value("${assist.ai-limiter.initial-limit:8}")
+    private int initialLimit;
+
+    @Value("${assist.ai-limiter.min-limit:1}")
+    private int minLimit;
+
+    @Value("${assist.ai-limiter.max-limit:64}")
+    private int maxLimit;
+
+    @Value("${assist.ai-limiter.decrease-ratio:0.5}")
+    private double decreaseRatio;
+
+    @Value("${assist.ai-limiter.backoff-base-ms:1000}")
+    private long backoffBaseMs;
+
+    @Value("${assist.ai-limiter.backoff-max-ms:30000}")
+    private long backoffMaxMs;
+
+    @Value("${assist.ai-limiter.interactive-queue-timeout-ms:15000}")
+    private long interactiveQueueTimeoutMs;
+
+    @Value("${assist.ai-limiter.background-queue-timeout-ms:120000}")
+    private long backgroundQueueTimeoutMs;
+
+    @PostConstruct
+    void init() {
+        limit = Math.max(minLimit, Math.min(maxLimit, initialLimit));
+        pausedUntilNanos = System.nanoTime();
+        for (Priority priority : Priority.values()) {
+            ArrayDeque<Condition> queue = new ArrayDeque<>();
+            queues.put(priority, queue);
+            Gauge.builder(METRIC_PREFIX + ".queued", this, limiter -> limiter.queuedCount(queue))
+                    .description("等待 Gemini 调用许可的请求数")
+                    .tag("priority", priority.tag())
+                    .register(meterRegistry);
+        }
+        Gauge.builder(METRIC_PREFIX + ".limit", this, limiter -> limiter.locked(() -> limiter.limit))
+                .description("Gemini 调用的当前并发上限")
+                .register(meterRegistry);
+        Gauge.builder(METRIC_PREFIX + ".in_flight", this, limiter -> limiter.locked(() -> limiter.inFlight))
+                .description("正在进行的 Gemini 调用数")
+                .register(meterRegistry);
+        throttledCounter = Counter.builder(METRIC_PREFIX + ".throttled")
+                .description("Gemini 返回 429 的次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 获取调用许可，排队超时抛出超时异常；许可用完后必须调用 {@link #release}
+     */
+    public void acquire(String client, Priority priority) {
+        if (!enabled) {
+            return;
+        }
+        long timeoutMs = priority == Priority.INTERACTIVE ? interactiveQueueTimeoutMs : backgroundQueueTimeoutMs;
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        ArrayDeque<Condition> queue = queues.get(priority);
+        Condition waiter = null;
+        lock.lock();
+        try {
+            while (true) {
+                long now = System.nanoTime();
+                if (canGrant(priority, waiter, now)) {
+                    if (waiter != null) {
+                        queue.remove(waiter);
+                    }
+                    inFlight++;
+                    // 上限刚被调大时可能还能继续放行
+                    signalNext();
+                    recordWait(priority, "acquired", now - start);
+                    return;
+                }
+                if (waiter == null) {
+                    waiter = lock.newCondition();
+                    queue.addLast(waiter);
+                }
+                long remaining = deadline - now;
+                if (remaining <= 0) {
+                    queue.remove(waiter);
+                    signalNext();
+                    recordWait(priority, "timeout", now - start);
+                    log.warn("等待 Gemini 调用许可超时 - client: {}, 优先级: {}, 当前上限: {}, 在途: {}",
+                            client, priority, (int) limit, inFlight);
+                    throw BusinessException.timeout("AiConcurrencyLimiter[" + client + "]", timeoutMs);
+                }
+                long wait = isPaused(now) ? Math.min(remaining, pausedUntilNanos - now) : remaining;
+                waiter.awaitNanos(wait);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queue.remove(waiter);
+            signalNext();
+            throw BusinessException.aiServiceError(client, "interrupted while waiting for a call permit"); // 等待调用许可时被中断
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 归还许可并按结果调整上限：成功时加性增长，429 时乘性下调，其他失败不调整
+     */
+    public void release(Outcome outcome) {
+        if (!enabled) {
+            return;
+        }
+        lock.lock();
+        try {
+            boolean saturated = inFlight >= (int) limit || hasWaiters();
+            inFlight--;
+            long now = System.nanoTime();
+            if (outcome == Outcome.THROTTLED) {
+                throttledCounter.increment();
+                // 同一波 429 只下调一次：暂停期间收到的 429 来自暂停前已发出的请求
+                if (!isPaused(now)) {
+                    consecutiveThrottles++;
+                    limit = Math.max(minLimit, limit * decreaseRatio);
+                    long backoffMs = Math.min(backoffMaxMs, backoffBaseMs << Math.min(consecutiveThrottles - 1, 16));
+                    pausedUntilNanos = now + TimeUnit.MILLISECONDS.toNanos(backoffMs);
+                    log.warn("Gemini 返回 429，并发上限降为 {}，暂停放行 {} ms", (int) limit, backoffMs);
+                }
+            } else if (outcome == Outcome.SUCCESS) {
+                consecutiveThrottles = 0;
+                if (saturated && limit < maxLimit) {
+                    limit = Math.min(maxLimit, limit + 1 / limit);
+                }
+            }
+            signalNext();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean canGrant(Priority priority, Condition waiter, long now) {
+        if (inFlight >= (int) limit || isPaused(now)) {
+            return false;
+        }
+        for (Priority higher : Priority.values()) {
+            if (higher == priority) {
+                break;
+            }
+            if (!queues.get(higher).isEmpty()) {
+                return false;
+            }
+        }
+        // 同一优先级只放行队首，新到达的请求不能插队
+        Condition head = queues.get(priority).peekFirst();
+        return head == null ? waiter == null : head == waiter;
+    }
+
+    private boolean isPaused(long now) {
+        return pausedUntilNanos - now > 0;
+    }
+
+    private void signalNext() {
+        for (Priority priority : Priority.values()) {
+            Condition head = queues.get(priority).peekFirst();
+            if (head != null) {
+                head.signal();
+                return;
+            }
+        }
+    }
+
+    private boolean hasWaiters() {
+        return queues.values().stream().anyMatch(queue -> !queue.isEmpty());
+    }
+
+    private double queuedCount(ArrayDeque<Condition> queue) {
+        return locked(queue::size);
+    }
+
+    private double locked(DoubleSupplier supplier) {
+        lock.lock();
+        try {
+            return supplier.getAsDouble();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void recordWait(Priority priority, String outcome, long nanos) {
+        Timer.builder(METRIC_PREFIX + ".wait")
+                .description("等待 Gemini 调用许可的耗时")
+                .tag("priority", priority.tag())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public enum Outcome {
+        SUCCESS,
+        THROTTLED,
+        ERROR
+    }
+
+    /**
+     * 调用优先级，按声明顺序放行
+     */
+    public enum Priority {
+        /**
+         * 用户在线等待的调用：意图识别、快速路径、分析、对话
+         */
+        INTERACTIVE,
+        /**
+         * 异步记录流程：主题拆分、属性提取
+         */
+        BACKGROUND,
+        /**
+         * 批量导入
+         */
+        BULK;
+
+        String tag() {
+            return name().toLowerCase();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.logai.assint.advisor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.core.Ordered;
+
+/**
+ * ChatClient 调用指标
+ * <p>
+ * 排在模型调用前的最后一个 advisor，计时只包含模型（含工具调用）本身，不含记忆等其他 advisor。
+ * 指标：
+ * assist.ai.call：调用耗时，按 client / intent / profile / outcome 区分；
+ * assist.ai.tokens：单次调用的 token 数，按 client / intent / profile / type(prompt|completion) 区分。
+ * profile 为 ChatClient 选用的模型配置（assist.ai-models），用于对比各配置的耗时和成本。
+ */
+public class ChatClientMetricsAdvisor implements CallAdvisor {
+    private static final String CALL_METRIC = "assist.ai.call";
+    private static final String TOKEN_METRIC = "assist.ai.tokens";
+
+    private final String client;
+    private final MeterRegistry meterRegistry;
+    private final Timer successTimer;
+    private final Timer errorTimer;
+    private final DistributionSummary promptTokens;
+    private final DistributionSummary completionTokens;
+
+    /**
+     * @param client  ChatClient 名称，如 intent / theme / attribute
+     * @param intent  所属流程：classify / record / analyze / chat
+     * @param profile 模型配置名
+     */
+    public ChatClientMetricsAdvisor(String client, String intent, String profile, MeterRegistry meterRegistry) {
+        this.client = client;
+        this.meterRegistry = meterRegistry;
+        this.successTimer = callTimer(client, intent, profile, "success");
+        this.errorTimer = callTimer(client, intent, profile, "error");
+        this.promptTokens = tokenSummary(client, intent, profile, "prompt");
+        this.completionTokens = tokenSummary(client, intent, profile, "completion");
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest chatClientRequest, CallAdvisorChain callAdvisorChain) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ChatClientResponse response;
+        try {
+            response = callAdvisorChain.nextCall(chatClientRequest);
+        } catch (RuntimeException e) {
+            sample.stop(errorTimer);
+            throw e;
+        }
+        sample.stop(successTimer);
+        recordUsage(response);
+        return response;
+    }
+
+    @Override
+    public String getName() {
+        return "ChatClientMetricsAdvisor[" + client + "]";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    private void recordUsage(ChatClientResponse response) {
+        if (response == null || response.chatResponse() == null || response.chatResponse().getMetadata() == null) {
+            return;
+        }
+        Usage usage = response.chatResponse().getMetadata().getUsage();
+        if (usage == null) {
+            return;
+        }
+        if (usage.getPromptTokens() != null) {
+            promptTokens.record(usage.getPromptTokens());
+        }
+        if (usage.getCompletionTokens() != null) {
+            completionTokens.record(usage.getCompletionTokens());
+        }
+    }
+
+    private Timer callTimer(String client, String intent, String profile, String outcome) {
+        return Timer.builder(CALL_METRIC)
+                .description("ChatClient 模型调用耗时")
+                .tag("client", client)
+                .tag("intent", intent)
+                .tag("profile", profile)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary tokenSummary(String client, String intent, String profile, String type) {
+        return DistributionSummary.builder(TOKEN_METRIC)
+                .description("ChatClient 单次调用 token 数")
+                .baseUnit("tokens")
+                .tag("client", client)
+                .tag("intent", intent)
+                .tag("profile", profile)
+                .tag("type", type)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,104 @@
+package com.logai.assint.advisor;
+
+import com.google.genai.errors.ApiException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClientRequest;
+import org.springframework.ai.chat.client.ChatClientResponse;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisor;
+import org.springframework.ai.chat.client.advisor.api.CallAdvisorChain;
+import org.springframework.core.Ordered;
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * ChatClient 调用的并发控制
+ * <p>
+ * 排在 {@link ChatClientMetricsAdvisor} 外层，调用指标不含排队时间。
+ * 模型调用前向 {@link AiConcurrencyLimiter} 申请许可；收到 429 时归还许可并重新排队重试，
+ * 等待限流器的暂停结束后再发出，不直接把请求作废。
+ * 指标：assist.ai.limiter.retries，按 client 区分的 429 重试次数。
+ */
+@Slf4j
+public class ConcurrencyLimitAdvisor implements CallAdvisor {
+    private static final int TOO_MANY_REQUESTS = 429;
+    private static final String RESOURCE_EXHAUSTED = "RESOURCE_EXHAUSTED";
+
+    private final String client;
+    private final AiConcurrencyLimiter.Priority priority;
+    private final AiConcurrencyLimiter limiter;
+    private final int maxAttempts;
+    private final Counter retryCounter;
+
+    /**
+     * @param client      ChatClient 名称，与 {@link ChatClientMetricsAdvisor} 一致
+     * @param priority    排队优先级
+     * @param maxAttempts 收到 429 时的最大尝试次数（含首次）
+     */
+    public ConcurrencyLimitAdvisor(String client, AiConcurrencyLimiter.Priority priority, AiConcurrencyLimiter limiter,
+                                   int maxAttempts, MeterRegistry meterRegistry) {
+        this.client = client;
+        this.priority = priority;
+        this.limiter = limiter;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.retryCounter = Counter.builder("assist.ai.limiter.retries")
+                .description("Gemini 返回 429 后的重试次数")
+                .tag("client", client)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public ChatClientResponse adviseCall(ChatClientRequest chatClientRequest, CallAdvisorChain callAdvisorChain) {
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            limiter.acquire(client, priority);
+            AiConcurrencyLimiter.Outcome outcome = AiConcurrencyLimiter.Outcome.ERROR;
+            try {
+                // 每次尝试复制一份后续链路，重试时后续 advisor 会重新执行
+                ChatClientResponse response = callAdvisorChain.copy(this).nextCall(chatClientRequest);
+                outcome = AiConcurrencyLimiter.Outcome.SUCCESS;
+                return response;
+            } catch (RuntimeException e) {
+                if (!isThrottled(e)) {
+                    throw e;
+                }
+                outcome = AiConcurrencyLimiter.Outcome.THROTTLED;
+                if (attempt >= maxAttempts) {
+                    throw e;
+                }
+                log.warn("Gemini 返回 429，重新排队重试 - client: {}, 第 {} 次", client, attempt);
+                retryCounter.increment();
+            } finally {
+                limiter.release(outcome);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return "ConcurrencyLimitAdvisor[" + client + "]";
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE - 2;
+    }
+
+    /**
+     * 沿异常链按 HTTP 状态码 / RESOURCE_EXHAUSTED 状态识别 429，只看结构化字段，不匹配异常文本
+     */
+    static boolean isThrottled(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause() == cause ? null : cause.getCause()) {
+            if (cause instanceof ApiException apiException
+                    && (apiException.code() == TOO_MANY_REQUESTS || RESOURCE_EXHAUSTED.equals(apiException.status()))) {
+                return true;
+            }
+            if (cause instanceof RestClientResponseException responseException
+                    && responseException.getStatusCode().value() == TOO_MANY_REQUESTS) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,19 +1,33 @@
 package com.logai.assint.config;
 
+import com.logai.assint.advisor.AiConcurrencyLimiter;
+import com.logai.assint.advisor.AiConcurrencyLimiter.Priority;
+import com.logai.assint.advisor.ChatClientMetricsAdvisor;
+import com.logai.assint.advisor.ConcurrencyLimitAdvisor;
 import com.logai.assint.tools.DateTimeTools;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.client.advisor.PromptChatMemoryAdvisor;
 import org.springframework.ai.chat.memory.ChatMemory;
 import org.springframework.ai.chat.memory.MessageWindowChatMemory;
 import org.springframework.ai.chat.memory.repository.jdbc.JdbcChatMemoryRepository;
-import org.springframework.ai.google.genai.GoogleGenAiChatModel;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.google.genai.GoogleGenAiChatOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 @RequiredArgsConstructor
+@EnableConfigurationProperties(AiModelProperties.class)
 public class AiConfiguration {
+    private final AiConcurrencyLimiter aiConcurrencyLimiter;
+    private final AiModelProperties aiModelProperties;
+
+    @Value("${assist.ai-limiter.max-attempts:3}")
+    private int limiterMaxAttempts;
 
     @Bean
     ChatMemory chatMemory(JdbcChatMemoryRepository chatMemoryRepository) {
@@ -25,8 +39,10 @@ public class AiConfiguration {
 
     // 意图分析专用ChatClient
     @Bean
-    public ChatClient intentChatClient(GoogleGenAiChatModel chatModel) {
-        return ChatClient.builder(chatModel)
+    public ChatClient intentChatClient(ChatModel chatModel, MeterRegistry meterRegistry) {
+        return clientBuilder(chatModel, "intent")
+                .defaultAdvisors(limitAdvisor("intent", Priority.INTERACTIVE, meterRegistry),
+                        metricsAdvisor("intent", "classify", meterRegistry))
                 .defaultSystem("""
                         **Role**: You are a highly precise **Intent Classification Engine**. Your sole function is to analyze user messages and classify them into predefined categories with maximum accuracy.
                         
@@ -75,8 +91,10 @@ public class AiConfiguration {
 
     // 通用对话ChatClient
     @Bean
-    public ChatClient generalChatClient(GoogleGenAiChatModel chatModel, ChatMemory chatMemory) {
-        return ChatClient.builder(chatModel)
+    public ChatClient generalChatClient(ChatModel chatModel, ChatMemory chatMemory, MeterRegistry meterRegistry) {
+        return clientBuilder(chatModel, "general")
+                .defaultAdvisors(limitAdvisor("general", Priority.INTERACTIVE, meterRegistry),
+                        metricsAdvisor("general", "chat", meterRegistry))
                 .defaultSystem("""
                         你是一个友好的AI助手，专门帮助用户管理个人记录。
                         
@@ -100,8 +118,10 @@ public class AiConfiguration {
 
     // 主题提取专用ChatClient
     @Bean
-    public ChatClient themeChatClient(GoogleGenAiChatModel chatModel) {
-        return ChatClient.builder(chatModel)
+    public ChatClient themeChatClient(ChatModel chatModel, MeterRegistry meterRegistry) {
+        return clientBuilder(chatModel, "theme")
+                .defaultAdvisors(limitAdvisor("theme", Priority.BACKGROUND, meterRegistry),
+                        metricsAdvisor("theme", "record", meterRegistry))
                 .defaultSystem("""
                         ## Role
                         You are a **highly precise event log analyst**.
@@ -184,8 +204,10 @@ public class AiConfiguration {
 
     // 属性提取专用ChatClient
     @Bean
-    public ChatClient attributeChatClient(GoogleGenAiChatModel chatModel) {
-        return ChatClient.builder(chatModel)
+    public ChatClient attributeChatClient(ChatModel chatModel, MeterRegistry meterRegistry) {
+        return clientBuilder(chatModel, "attribute")
+                .defaultAdvisors(limitAdvisor("attribute", Priority.BACKGROUND, meterRegistry),
+                        metricsAdvisor("attribute", "record", meterRegistry))
                 .defaultSystem("""
                         ### Role Definition
                         You are an **“Intelligent Data Extraction Specialist.”**
@@ -274,10 +296,173 @@ public class AiConfiguration {
                 .build();
     }
 
+    // 属性提取合并调用：一次请求携带多个互不相关的提取条目，见 AttributeBatchServiceImpl
+    @Bean
+    public ChatClient batchAttributeChatClient(ChatModel chatModel, MeterRegistry meterRegistry) {
+        return clientBuilder(chatModel, "attributeBatch")
+                .defaultAdvisors(limitAdvisor("attributeBatch", Priority.BACKGROUND, meterRegistry),
+                        metricsAdvisor("attributeBatch", "record", meterRegistry))
+                .defaultSystem("""
+                        ### Role Definition
+                        You are an **“Intelligent Data Extraction Specialist”** working on a batch of independent items.
+                        ### Input
+                        The user message is a JSON array. Each item has:
+                        * `id`: item identifier, copy it to the output unchanged.
+                        * `theme`: the theme of this item.
+                        * `knownAttributes`: the known attribute table of this theme.
+                        * `text`: the natural language to extract from.
+                        ### Isolation (Most Important)
+                        * Items come from **different users** and are completely unrelated.
+                        * Extract each item **only** from its own `text`, using **only** its own `theme` and `knownAttributes`.
+                        * Never copy values, attribute names, or units from one item to another.
+                        ### Extraction Rules (apply to each item)
+                        1. Process **only** content directly related to the item's theme; ignore everything else.
+                        2. Skip any attribute not mentioned in the text.
+                        3. Always prioritize names from `knownAttributes`. Only create a new name if none fits: concise English, max **6 characters**.
+                        4. Treat each event that is continuous in **time, place, and logic** as one independent `record`.
+                        5. When an event includes multiple independent line items (dishes in a meal, products in a purchase),
+                        give all attributes of the same line item the same numeric `groupId` starting from 1.
+                        Global attributes (total cost, date, location) must **not** have a `groupId`.
+                        ### Units
+                        Temperature in °, distance in km, time in min (convert hours), money in CNY, quantities keep the original count unit.
+                        ### Data Types
+                        * NUMBER: measurable number, value is the number only, unit goes to `unit`.
+                        * DATE: `yyyy-MM-dd`. DATETIME: `yyyy-MM-dd HH:mm`.
+                        * BOOLEAN: `true` or `false`.
+                        * STRING: all other text.
+                        ### Output Format
+                        Return exactly one result per input item, in any order:
+                        ```json
+                        {"items":[
+                        {"id":"1","records":[{"attributes":[
+                        {"attributeName":"Dish","value":"Beef noodles","dataType":"STRING","groupId":1},
+                        {"attributeName":"Quantity","value":"2","unit":"bowl","dataType":"NUMBER","groupId":1},
+                        {"attributeName":"Cost","value":"38","unit":"CNY","dataType":"NUMBER"}
+                        ]}]},
+                        {"id":"2","records":[]}
+                        ]}
+                        ```
+                        * An item with nothing relevant returns `"records": []`.
+                        * **Output JSON only. No explanations.**
+                        """)
+                .build();
+    }
+
+    // 单次调用快速路径：一次完成意图识别、主题拆分和属性提取
+    @Bean
+    public ChatClient fastRecordChatClient(ChatModel chatModel, MeterRegistry meterRegistry) {
+        return clientBuilder(chatModel, "fastRecord")
+                .defaultAdvisors(limitAdvisor("fastRecord", Priority.INTERACTIVE, meterRegistry),
+                        metricsAdvisor("fastRecord", "record", meterRegistry))
+                .defaultSystem("""
+                        ## Role
+                        You are a **personal log parser**. In a single pass you classify the user's intent and,
+                        when the user is logging something, turn the message into structured theme records.
+                        ## Step 1: Intent
+                        Classify the message into one or more of:
+                        * **RECORD**: the user reports a completed personal event or measurement, or asks to save/log/track something.
+                        * **ANALYZE**: the user wants to review, query, or summarize previously stored data.
+                        * **CHAT**: general conversation, questions, future plans, or facts unrelated to a personal event.
+                        * **ILLEGAL**: prohibited, harmful, or restricted content. Overrides every other intent.
+                        Also report `confidence` between 0 and 1: how sure you are about the intents **and**, for RECORD,
+                        that every event was matched to the right theme and fully extracted. Be conservative.
+                        If the intents are anything other than exactly `["RECORD"]`, return `"themes": []` and stop.
+                        ## Step 2: Themes (RECORD only)
+                        Theme catalog (each theme lists its known attributes as `name(dataType)`):
+                        <themesPrompt>
+                        1. Use the `get_current_time` tool (with `timeZone` = `<timeZone>`) to turn relative time expressions
+                           into absolute time, and to obtain the current timestamp when the user gives no precise moment.
+                           `eventTime` must always be `YYYY-MM-DD HH:mm:ss` and never empty.
+                        2. Treat activities at the same time, place, and context as **one** event. Do not split a meal into one event per dish.
+                        3. Match each event to the best catalog theme. Only create a new concise theme name when nothing fits.
+                        4. If one event clearly involves several themes (e.g. "ate noodles and spent 25 yuan"), split it per theme.
+                        5. Each theme appears **once**; merge its events into its `prompts` array, keeping each prompt with its own `eventTime`.
+                        6. `prompt` starts with the normalized `eventTime`, followed by the original event description. Use only the user's information.
+                        ## Step 3: Attributes (RECORD only)
+                        For every prompt, extract the attributes that belong to its theme into `records`:
+                        * Prefer the theme's known attribute names. Only create a new name when none fits: concise English, at most 6 characters.
+                        * `dataType` is one of NUMBER, DATE, DATETIME, BOOLEAN, STRING.
+                        * Units: temperature °, distance km, time min (convert hours to minutes), money CNY, quantities keep their count unit.
+                        * When an event has several independent line items (dishes in a meal, products in a purchase),
+                          give all attributes of one line item the same numeric `groupId` starting from 1.
+                          Global attributes such as total cost or location have no `groupId`.
+                        * Skip attributes that are not mentioned. Ignore content unrelated to the theme.
+                        ## Output Format
+                        Output **pure JSON only**, no markdown and no explanations:
+                        ```json
+                        {
+                          "intents": ["RECORD"],
+                          "confidence": 0.95,
+                          "themes": [
+                            {
+                              "theme": "Diet Log",
+                              "prompts": [
+                                {
+                                  "prompt": "2025-05-13 12:00:00 Had 2 bowls of beef noodles for lunch, cost 38 yuan",
+                                  "eventTime": "2025-05-13 12:00:00",
+                                  "records": [
+                                    {"attributes": [
+                                      {"attributeName": "Dish", "value": "Beef noodles", "dataType": "STRING", "groupId": 1},
+                                      {"attributeName": "Qty", "value": "2", "unit": "bowl", "dataType": "NUMBER", "groupId": 1},
+                                      {"attributeName": "Cost", "value": "38", "unit": "CNY", "dataType": "NUMBER"}
+                                    ]}
+                                  ]
+                                }
+                              ]
+                            }
+                          ]
+                        }
+                        ```
+                        For a non-record message: `{"intents": ["ANALYZE"], "confidence": 0.9, "themes": []}`
+                        """)
+                .defaultTools(new DateTimeTools())
+                .build();
+    }
+
+    // 批量导入名称归一化ChatClient：把导入文件中的主题、属性名映射到已有目录
+    @Bean
+    public ChatClient importNormalizeChatClient(ChatModel chatModel, MeterRegistry meterRegistry) {
+        return clientBuilder(chatModel, "importNormalize")
+                .defaultAdvisors(limitAdvisor("importNormalize", Priority.BULK, meterRegistry),
+                        metricsAdvisor("importNormalize", "import", meterRegistry))
+                .defaultSystem("""
+                        ## Role
+                        You are a **schema mapping assistant** for a personal log importer.
+                        Users import entries exported from other trackers. Theme and attribute names in those files rarely
+                        match the user's existing catalog. Your job is to map every source name onto the catalog.
+                        ## Existing Catalog
+                        Each theme lists its known attributes as `name(dataType)`:
+                        <themesPrompt>
+                        ## Input
+                        A JSON array of source themes, each with the source attribute names found in the file and one sample value:
+                        `[{"source": "diet", "attributes": [{"source": "kcal", "sample": "350"}]}]`
+                        ## Rules
+                        1. **Theme**: map each source theme to the catalog theme with the same meaning.
+                           If none fits, return a concise English theme name in Title Case, e.g. "Sleep Log".
+                        2. **Attribute**: prefer a known attribute of the chosen theme with the same meaning.
+                           If none fits, create a concise English name of at most 6 characters.
+                        3. **dataType**: one of NUMBER, DATE, DATETIME, BOOLEAN, STRING, judged from the sample value.
+                           Reuse the known attribute's dataType when mapping onto it.
+                        4. **unit**: only when the source name or sample implies one (e.g. "distance_km" gives km).
+                           Normalize to: °, km, min, CNY, or keep the original count unit. Otherwise null.
+                        5. Return every source theme and every source attribute exactly once, keeping `source` unchanged.
+                        ## Output Format
+                        Output **pure JSON only**, no markdown and no explanations:
+                        ```json
+                        {"themes": [{"source": "diet", "theme": "Diet Log", "attributes": [
+                          {"source": "kcal", "attributeName": "Cal", "dataType": "NUMBER", "unit": "kcal"}
+                        ]}]}
+                        ```
+                        """)
+                .build();
+    }
+
     // 分析主题ChatClient
     @Bean
-    public ChatClient analysisThemeChatClient(GoogleGenAiChatModel chatModel) {
-        return ChatClient.builder(chatModel)
+    public ChatClient analysisThemeChatClient(ChatModel chatModel, MeterRegistry meterRegistry) {
+        return clientBuilder(chatModel, "analysisTheme")
+                .defaultAdvisors(limitAdvisor("analysisTheme", Priority.INTERACTIVE, meterRegistry),
+                        metricsAdvisor("analysisTheme", "analyze", meterRegistry))
                 .defaultSystem("""
                         ### Role
                         You are a **high-precision classification engine** that categorizes user input into one or more **predefined themes**, or into a special category called **“General History Query.”**
@@ -319,8 +504,10 @@ public class AiConfiguration {
 
     // 数据分析专用ChatClient
     @Bean
-    public ChatClient analysisChatClient(GoogleGenAiChatModel chatModel) {
-        return ChatClient.builder(chatModel)
+    public ChatClient analysisChatClient(ChatModel chatModel, MeterRegistry meterRegistry) {
+        return clientBuilder(chatModel, "analysis")
+                .defaultAdvisors(limitAdvisor("analysis", Priority.INTERACTIVE, meterRegistry),
+                        metricsAdvisor("analysis", "analyze", meterRegistry))
                 .defaultSystem("""
                         # Role Definition
                         You are a **top-tier MySQL data analysis AI** that **strictly follows instructions**.
@@ -375,10 +562,29 @@ public class AiConfiguration {
                                 "number_value(decimal)",
                                 "number_unit(varchar)"
                               ]
+                            },
+                            {
+                              "name": "user_attribute_rollup",
+                              "cols": [
+                                "user_id(bigint)",
+                                "theme_id(bigint)",
+                                "attribute_id(bigint)",
+                                "granularity(varchar: DAY | WEEK | MONTH)",
+                                "period_start(date)",
+                                "value_count(int)",
+                                "value_sum(double)",
+                                "min_value(double)",
+                                "max_value(double)",
+                                "last_value(double)",
+                                "number_unit(varchar)",
+                                "last_event_time(datetime)"
+                              ]
                             }
                           ]
                         }
                         ```
+                        `user_attribute_rollup` is a pre-aggregated table for **number** attributes only, bucketed by event time (`COALESCE(event_date, record_date)`); weeks start on Monday.
+                        See **Pattern D** for when to use it.
                         # Core Task Workflow
                         ### Step 1: Identify User Intent
                         * **Analytical Intent** — open-ended, seeking insights or rankings.
@@ -401,7 +607,7 @@ public class AiConfiguration {
                         1. **Parse date range** — detect the time period and convert it to a precise SQL `WHERE` condition.
                            Default: last 7 days if unspecified.
                         2. **Decompose dimensions** — break down the request into multiple **attribute-based** analytical dimensions.
-                        3. **Select a pattern** — choose from the **[Analytical SQL Pattern Library]** (Pattern A or B).
+                        3. **Select a pattern** — choose from the **[Analytical SQL Pattern Library]** (Pattern A, B, or D for numeric trends).
                         4. **Generate SQL** — produce executable SQL for each dimension.
                         #### **Process B: Direct Query Mode** *(for Direct Query Intent)*
                         1. Parse the date range precisely (e.g., “yesterday,” “last month”).
@@ -510,6 +716,26 @@ public class AiConfiguration {
                           GROUP BY r.id, r.record_date, r.event_date, ri.items
                           ORDER BY COALESCE(r.event_date, r.record_date) DESC;
                         ```
+                        ## **Pattern D: Numeric Trend from Rollups**
+                        **Purpose**: Trends and statistics (average, total, min/max, latest value) of a **number** attribute over time, judged by event time.
+                        Prefer this pattern over scanning `user_record_detail` whenever the question is about how a number changes or aggregates over days, weeks or months.
+                        Choose `granularity` by range: `DAY` for up to ~1 month, `WEEK` for up to ~6 months, `MONTH` beyond that.
+                        Filter on `ro.period_start` instead of `r.event_date`; Mandatory Rule 3 is satisfied by `ro.theme_id` and `ro.user_id`.
+                        **Example SQL (Weekly average weight over the last 3 months):**
+                        ```
+                        SELECT
+                          ro.period_start AS week_start,
+                          ROUND(ro.value_sum / ro.value_count, 2) AS avg_value,
+                          ro.min_value,
+                          ro.max_value,
+                          ro.last_value,
+                          ro.number_unit
+                        FROM user_attribute_rollup ro
+                        WHERE ro.theme_id = 1 AND ro.user_id = {{userId}} AND ro.attribute_id = 3
+                          AND ro.granularity = 'WEEK'
+                          AND ro.period_start >= CURDATE() - INTERVAL 3 MONTH
+                        ORDER BY ro.period_start;
+                        ```
                         # Output Format
                         * Output must be a **pure JSON array string**.
                         * It must **start with `[` and end with `]`**.
@@ -535,8 +761,10 @@ public class AiConfiguration {
 
     // 数据分析专用ChatClient
     @Bean
-    public ChatClient generateDateRangeChatClient(GoogleGenAiChatModel chatModel) {
-        return ChatClient.builder(chatModel)
+    public ChatClient generateDateRangeChatClient(ChatModel chatModel, MeterRegistry meterRegistry) {
+        return clientBuilder(chatModel, "dateRange")
+                .defaultAdvisors(limitAdvisor("dateRange", Priority.INTERACTIVE, meterRegistry),
+                        metricsAdvisor("dateRange", "analyze", meterRegistry))
                 .defaultSystem("""
                         # Role
                         You are a specialized AI assistant for time extraction. Your only function is to identify and extract specific time ranges from the user's text and convert them into a structured JSON object.
@@ -584,4 +812,27 @@ public class AiConfiguration {
                 .defaultTools(new DateTimeTools())
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * 所有 ChatClient 共享同一个并发控制，按优先级排队
+     */
+    private ConcurrencyLimitAdvisor limitAdvisor(String client, Priority priority, MeterRegistry meterRegistry) {
+        return new ConcurrencyLimitAdvisor(client, priority, aiConcurrencyLimiter, limiterMaxAttempts, meterRegistry);
+    }
+
+    private ChatClientMetricsAdvisor metricsAdvisor(String client, String intent, MeterRegistry meterRegistry) {
+        return new ChatClientMetricsAdvisor(client, intent, aiModelProperties.profileName(client), meterRegistry);
+    }
+
+    /**
+     * 按 assist.ai-models 中为该 ChatClient 选择的配置设置模型和调用参数
+     */
+    private ChatClient.Builder clientBuilder(ChatModel chatModel, String client) {
+        ChatClient.Builder builder = ChatClient.builder(chatModel);
+        GoogleGenAiChatOptions options = aiModelProperties.options(client);
+        if (options != null) {
+            builder.defaultOptions(options);
+        }
+        return builder;
+    }
+}
@@ -0,0 +1,66 @@
+package com.logai.assint.config;
+
+import lombok.Data;
+import org.springframework.ai.google.genai.GoogleGenAiChatOptions;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ChatClient 模型配置（assist.ai-models）
+ * 每个 ChatClient 按名称选择一个配置，配置中未填写的项以及未选择配置的 ChatClient
+ * 沿用 spring.ai.google.genai.chat.options 的全局默认
+ */
+@Data
+@ConfigurationProperties(prefix = "assist.ai-models")
+public class AiModelProperties {
+    /**
+     * 未选择配置的 ChatClient 在指标中的配置名
+     */
+    public static final String DEFAULT_PROFILE = "default";
+
+    /**
+     * ChatClient 名称 -> 配置名，名称与 ChatClientMetricsAdvisor 的 client 一致
+     */
+    private Map<String, String> clients = new HashMap<>();
+
+    private Map<String, Profile> profiles = new HashMap<>();
+
+    public String profileName(String client) {
+        String name = clients.get(client);
+        return name != null && profiles.containsKey(name) ? name : DEFAULT_PROFILE;
+    }
+
+    /**
+     * ChatClient 的默认调用参数，未选择配置时返回 null
+     */
+    public GoogleGenAiChatOptions options(String client) {
+        Profile profile = profiles.get(profileName(client));
+        if (profile == null) {
+            return null;
+        }
+        return GoogleGenAiChatOptions.builder()
+                .model(profile.getModel())
+                .temperature(profile.getTemperature())
+                .maxOutputTokens(profile.getMaxOutputTokens())
+                .thinkingBudget(profile.getThinkingBudget())
+                .responseMimeType(profile.getResponseMimeType())
+                .build();
+    }
+
+    @Data
+    public static class Profile {
+        private String model;
+        private Double temperature;
+        private Integer maxOutputTokens;
+        /**
+         * 思考 token 上限，0 为关闭思考
+         */
+        private Integer thinkingBudget;
+        /**
+         * 带工具调用的 ChatClient 只能用 text/plain，Gemini 不支持工具调用与 application/json 同时使用
+         */
+        private String responseMimeType;
+    }
+}
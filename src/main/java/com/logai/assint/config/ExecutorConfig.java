@@ -1,10 +1,14 @@
 package com.logai.assint.config;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.support.ContextPropagatingTaskDecorator;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.util.concurrent.RejectedExecutionHandler;
 import java.util.concurrent.ThreadPoolExecutor;
 
 @Configuration
@@ -15,7 +19,7 @@ public class ExecutorConfig {
      * Bean 名称被指定为 "recordIntentTaskExecutor"
      */
     @Bean(name = "recordIntentTaskExecutor")
-    public TaskExecutor recordIntentTaskExecutor() {
+    public TaskExecutor recordIntentTaskExecutor(MeterRegistry meterRegistry) {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
 
         // 核心线程数：即使空闲，也会保留的线程数
@@ -33,11 +37,97 @@ public class ExecutorConfig {
         // 线程名前缀：方便日志和监控中识别线程来源
         executor.setThreadNamePrefix("Record-Task-");
 
+        // 把提交线程的链路上下文（traceId、MDC 等）带到任务线程
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+
         // 拒绝策略：CallerRunsPolicy 表示任务被拒绝时，由调用者线程（主线程）执行任务
-        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setRejectedExecutionHandler(countingRejections("recordIntent", meterRegistry));
 
         // 初始化线程池
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Creem webhook 收件箱处理线程池
+     * 每个任务串行处理同一客户的一组事件，不同客户之间并行
+     */
+    @Bean(name = "creemWebhookTaskExecutor")
+    public TaskExecutor creemWebhookTaskExecutor(MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(200);
+        executor.setThreadNamePrefix("Creem-Webhook-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setRejectedExecutionHandler(countingRejections("creemWebhook", meterRegistry));
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 记录完成通知线程池
+     * Redis 广播在监听线程上回调，读取结果和查询数据库放到这里，避免慢查询阻塞所有订阅消息的分发
+     */
+    @Bean(name = "recordStatusTaskExecutor")
+    public TaskExecutor recordStatusTaskExecutor(MeterRegistry meterRegistry) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(4);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("Record-Status-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setRejectedExecutionHandler(countingRejections("recordStatus", meterRegistry));
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 批量导入线程池
+     * 导入任务已落库，线程池满时直接拒绝（不占用请求线程），由定时恢复任务稍后接管
+     */
+    @Bean(name = "recordImportTaskExecutor")
+    public TaskExecutor recordImportTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("Record-Import-");
+        executor.setTaskDecorator(new ContextPropagatingTaskDecorator());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 数值汇总全量回填线程池
+     * 回填一次只跑一个（另有 Redis 锁保证集群内唯一），重复提交直接丢弃
+     */
+    @Bean(name = "rollupBackfillTaskExecutor")
+    public TaskExecutor rollupBackfillTaskExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("Rollup-Backfill-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * 在 CallerRunsPolicy 基础上统计拒绝次数
+     * 队列深度、活跃线程由 Spring Boot 自动绑定为 executor.* 指标，name 标签为 Bean 名去掉 TaskExecutor 后缀，这里保持一致
+     */
+    private RejectedExecutionHandler countingRejections(String name, MeterRegistry meterRegistry) {
+        Counter rejected = Counter.builder("executor.rejected")
+                .description("线程池拒绝（由调用线程执行）的任务数")
+                .tag("name", name)
+                .register(meterRegistry);
+        ThreadPoolExecutor.CallerRunsPolicy callerRuns = new ThreadPoolExecutor.CallerRunsPolicy();
+        return (task, pool) -> {
+            rejected.increment();
+            callerRuns.rejectedExecution(task, pool);
+        };
+    }
+}
@@ -1,10 +1,14 @@
 package com.logai.assint.controller;
 
 import com.logai.assint.dto.GlobalAiAssintResponse;
+import com.logai.assint.dto.RecordImportStatus;
 import com.logai.assint.dto.SaveRecordDetailRequest;
 import com.logai.assint.dto.ThemeRecordSummaryDto;
 import com.logai.assint.mapper.ThemeMapper;
 import com.logai.assint.service.AssistService;
+import com.logai.assint.service.RecordImportService;
+import com.logai.assint.service.RecordStatusService;
+import com.logai.assint.service.TokenUsageService;
 import com.logai.assint.service.UserRecordService;
 import com.logai.common.exception.BusinessException;
 import com.logai.common.model.Result;
@@ -16,7 +20,11 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
@@ -30,6 +38,9 @@ public class AssintController {
     private final UserRecordService userRecordService;
     private final ThemeMapper themeRepository;
     private final AssistService assistService;
+    private final RecordStatusService recordStatusService;
+    private final TokenUsageService tokenUsageService;
+    private final RecordImportService recordImportService;
     private final TimeUtil timeUtil;
 
     /**
@@ -102,6 +113,80 @@ public class AssintController {
                 allAttribute, page, size));
     }
 
+    /**
+     * 长轮询等待记录意图完成
+     * 记录处理中时挂起请求，完成后一次性返回与 searchUserRecords?chatId= 相同结构的结果，超时返回 processing 状态
+     */
+    @GetMapping("/waitUserRecords")
+    public DeferredResult<Result> waitUserRecords(@AuthenticationPrincipal User user,
+                                                  @RequestParam String chatId,
+                                                  @RequestParam(required = false) String allAttribute) {
+        Objects.requireNonNull(user, "User information is missing"); // 用户信息缺失
+        return recordStatusService.awaitUserRecord(chatId, user.getId(), allAttribute);
+    }
+
+    /**
+     * 查询当前用户每日 token 用量，按模型和 ChatClient 拆分
+     * 默认最近 30 天（按用户时区），最长查询 366 天
+     */
+    @GetMapping("/tokenUsage")
+    public Result tokenUsage(@AuthenticationPrincipal User user,
+                             @RequestParam(required = false) String startDate,
+                             @RequestParam(required = false) String endDate) {
+        Objects.requireNonNull(user, "User information is missing"); // 用户信息缺失
+        LocalDate end = StringUtils.isBlank(endDate)
+                ? timeUtil.getNowInTimezone(user.getTimeZone()).toLocalDate()
+                : timeUtil.tryParseFlexibleDate(endDate);
+        LocalDate start = StringUtils.isBlank(startDate) && end != null
+                ? end.minusDays(29)
+                : timeUtil.tryParseFlexibleDate(startDate);
+        if (start == null || end == null || start.isAfter(end) || start.plusDays(366).isBefore(end)) {
+            // 日期范围无效
+            throw BusinessException.validationError("startDate", "Invalid date range");
+        }
+        return Result.success(tokenUsageService.queryDaily(user.getId(), start, end));
+    }
+
+    /**
+     * 批量导入记录（CSV 或 JSON Lines），文件落库后异步分批处理，返回导入任务进度
+     * 同一文件重复上传返回已有任务；导入的记录归在返回的 chatId 下
+     */
+    @PostMapping("/import")
+    @MemberOnly
+    public Result importRecords(@AuthenticationPrincipal User user,
+                                @RequestParam("file") MultipartFile file,
+                                @RequestParam(required = false) String format,
+                                @RequestParam(defaultValue = "false") boolean normalize) {
+        Objects.requireNonNull(user, "User information is missing"); // 用户信息缺失
+        String payload;
+        try {
+            payload = new String(file.getBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            // 读取导入文件失败
+            throw BusinessException.validationError("file", "Failed to read import file");
+        }
+        RecordImportStatus status = recordImportService.submit(user, file.getOriginalFilename(), format, normalize, payload);
+        return Result.success(status);
+    }
+
+    @GetMapping("/import/{jobId}")
+    public Result importStatus(@AuthenticationPrincipal User user,
+                               @PathVariable Long jobId) {
+        Objects.requireNonNull(user, "User information is missing"); // 用户信息缺失
+        return Result.success(recordImportService.getStatus(user.getId(), jobId));
+    }
+
+    /**
+     * 续传失败的导入任务，从已提交的进度继续
+     */
+    @PostMapping("/import/{jobId}/resume")
+    @MemberOnly
+    public Result resumeImport(@AuthenticationPrincipal User user,
+                               @PathVariable Long jobId) {
+        Objects.requireNonNull(user, "User information is missing"); // 用户信息缺失
+        return Result.success(recordImportService.resume(user.getId(), jobId));
+    }
+
     @GetMapping("/getTheme")
     public List<ThemeRecordSummaryDto> getTheme(@AuthenticationPrincipal User user) {
         Objects.requireNonNull(user, "User information is missing"); // 用户信息缺失
@@ -0,0 +1,15 @@
+package com.logai.assint.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 单次调用快速路径的模型输出：意图、置信度，以及 RECORD 时按主题拆分好的语句和属性
+ */
+@Data
+public class FastRecordResponse {
+    private List<String> intents;
+    private Double confidence;
+    private List<ThemeSegment> themes;
+}
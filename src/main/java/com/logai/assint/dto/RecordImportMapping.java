@@ -0,0 +1,29 @@
+package com.logai.assint.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 导入时模型给出的名称映射：文件中的主题、属性名 -> 已有目录中的主题、属性
+ * 同时作为归一化模型的输出格式和任务上持久化的映射
+ */
+@Data
+public class RecordImportMapping {
+    private List<ThemeMapping> themes;
+
+    @Data
+    public static class ThemeMapping {
+        private String source;
+        private String theme;
+        private List<AttributeMapping> attributes;
+    }
+
+    @Data
+    public static class AttributeMapping {
+        private String source;
+        private String attributeName;
+        private String dataType;
+        private String unit;
+    }
+}
@@ -0,0 +1,29 @@
+package com.logai.assint.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 批量导入任务进度
+ */
+@Data
+public class RecordImportStatus {
+    private Long jobId;
+    private Long chatId;
+    private String status;
+    private String format;
+    private Boolean normalize;
+    private Integer totalEntries;
+    private Integer processedEntries;
+    private Integer importedRecords;
+    private Integer skippedEntries;
+    /**
+     * 被跳过条目的原因样例，最多保留前 20 条
+     */
+    private List<String> errors;
+    private String lastError;
+    private LocalDateTime createdAt;
+    private LocalDateTime finishedAt;
+}
@@ -0,0 +1,18 @@
+package com.logai.assint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * 受记录变更影响的汇总位置：属性 + 事件时间
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RollupTouch {
+    private Long attributeId; // 属性ID
+    private LocalDateTime eventTime; // COALESCE(event_date, record_date)
+}
@@ -13,5 +13,9 @@ public class ThemeSegment {
     public static class PromptItem {
         private String prompt;
         private String eventTime;
+        /**
+         * 单次调用快速路径中模型一并返回的属性；多阶段流程中为空，由属性提取补齐
+         */
+        private List<ManualRecordResponse.ManualRecordEntry> records;
     }
 }
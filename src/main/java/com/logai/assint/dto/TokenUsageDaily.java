@@ -0,0 +1,23 @@
+package com.logai.assint.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 用户每日 token 用量，按 模型 / ChatClient 拆分
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class TokenUsageDaily {
+    private LocalDate usageDate;
+    private String model;
+    private String client;
+    private Long callCount;
+    private Long promptTokens;
+    private Long completionTokens;
+    private Long totalTokens;
+}
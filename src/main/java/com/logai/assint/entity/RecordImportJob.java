@@ -0,0 +1,90 @@
+package com.logai.assint.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("record_import_job")
+public class RecordImportJob {
+    @TableId("id")
+    private Long id;
+
+    @TableField("user_id")
+    private Long userId;
+
+    @TableField("chat_id")
+    private Long chatId;
+
+    @TableField("format")
+    private Format format;
+
+    @TableField("normalize")
+    private Boolean normalize;
+
+    @TableField("time_zone")
+    private String timeZone;
+
+    @TableField("payload")
+    private String payload;
+
+    @TableField("payload_hash")
+    private String payloadHash;
+
+    @TableField("status")
+    private Status status;
+
+    @TableField("total_entries")
+    private Integer totalEntries;
+
+    @TableField("next_entry")
+    private Integer nextEntry;
+
+    @TableField("imported_records")
+    private Integer importedRecords;
+
+    @TableField("skipped_entries")
+    private Integer skippedEntries;
+
+    @TableField("attribute_mapping")
+    private String attributeMapping;
+
+    @TableField("error_samples")
+    private String errorSamples;
+
+    @TableField("attempts")
+    private Integer attempts;
+
+    @TableField("last_error")
+    private String lastError;
+
+    @TableField("lease_owner")
+    private String leaseOwner;
+
+    @TableField("lease_until")
+    private LocalDateTime leaseUntil;
+
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+
+    @TableField("finished_at")
+    private LocalDateTime finishedAt;
+
+    public enum Format {
+        JSONL, // 每行一个 JSON 对象
+        CSV // 首行表头：theme、eventTime，其余列为属性，"名称 (单位)" 表示带单位
+    }
+
+    public enum Status {
+        RECEIVED, // 已落库，待处理
+        RUNNING, // 处理中，租约过期后可被接管
+        DONE, // 全部条目处理完成
+        FAILED // 处理中断，可调用续传接口从游标继续
+    }
+}
@@ -0,0 +1,48 @@
+package com.logai.assint.entity;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * token 用量流水，每次模型调用一行
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@TableName("token_usage_event")
+public class TokenUsageEvent {
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    @TableField("user_id")
+    private Long userId;
+
+    @TableField("chat_id")
+    private Long chatId;
+
+    @TableField("client")
+    private String client; // ChatClient 名称
+
+    @TableField("model")
+    private String model;
+
+    @TableField("prompt_tokens")
+    private Integer promptTokens;
+
+    @TableField("completion_tokens")
+    private Integer completionTokens;
+
+    @TableField("usage_date")
+    private LocalDate usageDate;
+
+    @TableField("created_at")
+    private LocalDateTime createdAt; // 写入时间
+}
@@ -23,6 +23,13 @@ public class UserRecordDetail {
     @TableField("attribute_id")
     private Long attributeId;
 
+    // 冗余字段：避免按用户/类型过滤时联表 user_record、attributes
+    @TableField("user_id")
+    private Long userId;
+
+    @TableField("data_type")
+    private DataType dataType;
+
     @TableField("string_value")
     private String stringValue;
 
@@ -39,5 +39,6 @@ public interface UserRecordDetailMapperCustom {
                           LocalDate searchDate,
                           LocalDateTime searchDateTime,
                           LocalDateTime startTime,
-                          LocalDateTime endTime);
+                          LocalDateTime endTime,
+                          String allAttribute);
 }
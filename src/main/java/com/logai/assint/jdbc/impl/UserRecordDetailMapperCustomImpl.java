@@ -94,14 +94,13 @@ public class UserRecordDetailMapperCustomImpl implements UserRecordDetailMapperC
                         urd.group_id,
                         COALESCE(urd.string_value, urd.number_value, urd.date_value,
                                  urd.boolean_value, JSON_UNQUOTE(urd.json_value)) AS value
-                    FROM user_chat uc
-                    JOIN user_record ur ON uc.id = ur.chat_id
+                    FROM user_record ur
                     JOIN themes t ON ur.theme_id = t.id
                     JOIN attributes a ON a.theme_id = t.id
                     %s JOIN user_record_detail urd
                         ON ur.id = urd.record_id AND urd.attribute_id = a.id
-                    WHERE uc.user_id=:userId
-                      AND uc.id=:chatId
+                    WHERE ur.user_id=:userId
+                      AND ur.chat_id=:chatId
                     ORDER BY
                         t.theme_name ASC,
                         urd.group_id ASC,
@@ -154,15 +153,13 @@ public class UserRecordDetailMapperCustomImpl implements UserRecordDetailMapperC
 
         FilterContext ctx = buildFilterContext(
                 userId, themeId, searchValue, numericSearchValue,
-                searchDate, searchDateTime, startTime, endTime
+                searchDate, searchDateTime, startTime, endTime, allAttribute
         );
 
         String sql = """
                 WITH filtered_records AS (
                     SELECT ur.id
                     FROM user_record ur
-                    JOIN user_chat uc ON ur.chat_id = uc.id
-                    JOIN themes t ON ur.theme_id = t.id
                     %s
                     ORDER BY COALESCE(ur.event_date, ur.record_date) DESC, ur.id DESC
                     LIMIT :limit OFFSET :offset
@@ -211,18 +208,17 @@ public class UserRecordDetailMapperCustomImpl implements UserRecordDetailMapperC
             LocalDate searchDate,
             LocalDateTime searchDateTime,
             LocalDateTime startTime,
-            LocalDateTime endTime) {
+            LocalDateTime endTime,
+            String allAttribute) {
 
         FilterContext ctx = buildFilterContext(
                 userId, themeId, searchValue, numericSearchValue,
-                searchDate, searchDateTime, startTime, endTime
+                searchDate, searchDateTime, startTime, endTime, allAttribute
         );
 
         String sql = """
-                SELECT COUNT(DISTINCT ur.id) AS total
+                SELECT COUNT(*) AS total
                 FROM user_record ur
-                JOIN user_chat uc ON ur.chat_id = uc.id
-                JOIN themes t ON ur.theme_id = t.id
                 %s
                 """.formatted(ctx.filters);
 
@@ -234,12 +230,23 @@ public class UserRecordDetailMapperCustomImpl implements UserRecordDetailMapperC
             Long userId, Long themeId, String searchValue,
             BigDecimal numericSearchValue, LocalDate searchDate,
             LocalDateTime searchDateTime, LocalDateTime startTime,
-            LocalDateTime endTime) {
+            LocalDateTime endTime, String allAttribute) {
 
-        StringBuilder filters = new StringBuilder("\nWHERE uc.user_id = :userId ");
+        // user_record 自带 user_id，直接过滤，无需联表 user_chat
+        StringBuilder filters = new StringBuilder("\nWHERE ur.user_id = :userId ");
         Map<String, Object> params = new HashMap<>();
         params.put("userId", userId);
 
+        // 与分页查询的 themes / attributes / user_record_detail 联表保持一致，联表后没有结果行的记录不参与分页和计数
+        filters.append("AND EXISTS (SELECT 1 FROM themes t_filter WHERE t_filter.id = ur.theme_id) ");
+        if ("1".equals(allAttribute)) {
+            filters.append("AND EXISTS (SELECT 1 FROM attributes a_filter WHERE a_filter.theme_id = ur.theme_id) ");
+        } else {
+            filters.append("AND EXISTS (SELECT 1 FROM user_record_detail urd_row ")
+                    .append("JOIN attributes a_filter ON a_filter.id = urd_row.attribute_id ")
+                    .append("WHERE urd_row.record_id = ur.id AND a_filter.theme_id = ur.theme_id) ");
+        }
+
         if (themeId != null) {
             filters.append("AND ur.theme_id = :themeId ");
             params.put("themeId", themeId);
@@ -263,9 +270,9 @@ public class UserRecordDetailMapperCustomImpl implements UserRecordDetailMapperC
                 searchDateTime != null ||
                 searchDate != null) {
 
+            // user_record_detail 冗余了 data_type，无需联表 attributes
             filters.append("AND EXISTS (\n")
                     .append("  SELECT 1 FROM user_record_detail urd_filter\n")
-                    .append("  JOIN attributes attr_filter ON urd_filter.attribute_id = attr_filter.id\n")
                     .append("  WHERE urd_filter.record_id = ur.id\n")
                     .append("  AND (\n");
 
@@ -273,27 +280,27 @@ public class UserRecordDetailMapperCustomImpl implements UserRecordDetailMapperC
 
             if (StringUtils.isNotBlank(searchValue)) {
                 params.put("searchValueLike", "%" + searchValue + "%");
-                condList.add("(attr_filter.data_type='STRING' AND urd_filter.string_value LIKE :searchValueLike)");
+                condList.add("(urd_filter.data_type='STRING' AND urd_filter.string_value LIKE :searchValueLike)");
             }
 
             if (numericSearchValue != null) {
                 params.put("searchNumber", numericSearchValue);
-                condList.add("(attr_filter.data_type='NUMBER' AND urd_filter.number_value = :searchNumber)");
+                condList.add("(urd_filter.data_type='NUMBER' AND urd_filter.number_value = :searchNumber)");
             }
 
             if (searchDateTime != null) {
                 params.put("searchDateTime", searchDateTime);
-                condList.add("(attr_filter.data_type='DATETIME' AND urd_filter.date_value = :searchDateTime)");
+                condList.add("(urd_filter.data_type='DATETIME' AND urd_filter.date_value = :searchDateTime)");
             }
 
             if (searchDate != null) {
                 params.put("searchDateStart", searchDate.atStartOfDay());
                 params.put("searchDateEnd", searchDate.plusDays(1).atStartOfDay());
 
-                condList.add("(attr_filter.data_type='DATETIME' AND DATE(urd_filter.date_value)=:searchDate)");
+                condList.add("(urd_filter.data_type='DATETIME' AND DATE(urd_filter.date_value)=:searchDate)");
                 params.put("searchDate", searchDate);
 
-                condList.add("(attr_filter.data_type='DATE' AND urd_filter.date_value>=:searchDateStart AND urd_filter.date_value<:searchDateEnd)");
+                condList.add("(urd_filter.data_type='DATE' AND urd_filter.date_value>=:searchDateStart AND urd_filter.date_value<:searchDateEnd)");
             }
 
             filters.append("    ")
@@ -11,5 +11,10 @@ import java.util.List;
 public interface AttributeMapper extends BaseMapper<Attribute> {
     List<Attribute> findByThemeId(@Param("themeId") Long themeId);
 
+    /**
+     * 批量查询主题下的属性，公共主题下只返回公共属性和该用户的属性
+     */
+    List<Attribute> findByThemeIds(@Param("themeIds") List<Long> themeIds, @Param("userId") Long userId);
+
     Attribute findByThemeIdAndAttributeName(@Param("themeId") Long themeId, @Param("attributeName") String attributeName, @Param("userId") Long userId);
 }
\ No newline at end of file
@@ -0,0 +1,60 @@
+package com.logai.assint.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.logai.assint.entity.RecordImportJob;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface RecordImportJobMapper extends BaseMapper<RecordImportJob> {
+
+    @Select("SELECT * FROM record_import_job WHERE user_id = #{userId} AND payload_hash = #{payloadHash}")
+    RecordImportJob findByUserIdAndPayloadHash(@Param("userId") Long userId, @Param("payloadHash") String payloadHash);
+
+    /**
+     * 待处理或租约已过期（处理实例中断）的任务
+     */
+    @Select("SELECT id FROM record_import_job WHERE status = 'RECEIVED' OR (status = 'RUNNING' AND lease_until < #{now}) " +
+            "ORDER BY id LIMIT #{limit}")
+    List<Long> findRecoverableIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 抢占任务，返回 0 表示已被其他实例处理
+     */
+    @Update("UPDATE record_import_job SET status = 'RUNNING', lease_owner = #{owner}, lease_until = #{leaseUntil}, " +
+            "attempts = attempts + 1, updated_at = #{now} " +
+            "WHERE id = #{id} AND (status = 'RECEIVED' OR (status = 'RUNNING' AND lease_until < #{now}))")
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+
+    /**
+     * 与一批记录在同一事务内推进游标并续租，返回 0 表示租约已被其他实例接管
+     */
+    @Update("UPDATE record_import_job SET next_entry = #{j.nextEntry}, imported_records = #{j.importedRecords}, " +
+            "skipped_entries = #{j.skippedEntries}, attribute_mapping = #{j.attributeMapping}, error_samples = #{j.errorSamples}, " +
+            "lease_until = #{j.leaseUntil}, updated_at = #{j.updatedAt} " +
+            "WHERE id = #{j.id} AND status = 'RUNNING' AND lease_owner = #{j.leaseOwner}")
+    int advance(@Param("j") RecordImportJob job);
+
+    /**
+     * 结束本次处理（DONE / FAILED）并释放租约
+     */
+    @Update("UPDATE record_import_job SET status = #{status}, last_error = #{lastError}, finished_at = #{finishedAt}, " +
+            "lease_owner = NULL, lease_until = NULL, updated_at = #{now} " +
+            "WHERE id = #{id} AND lease_owner = #{owner}")
+    int release(@Param("id") Long id, @Param("owner") String owner, @Param("status") RecordImportJob.Status status,
+                @Param("lastError") String lastError, @Param("finishedAt") LocalDateTime finishedAt,
+                @Param("now") LocalDateTime now);
+
+    /**
+     * 失败的任务重新排队，从游标处继续
+     */
+    @Update("UPDATE record_import_job SET status = 'RECEIVED', last_error = NULL, updated_at = #{now} " +
+            "WHERE id = #{id} AND user_id = #{userId} AND status = 'FAILED'")
+    int requeue(@Param("id") Long id, @Param("userId") Long userId, @Param("now") LocalDateTime now);
+}
@@ -0,0 +1,37 @@
+package com.logai.assint.mapper;
+
+import com.logai.assint.dto.TokenUsageDaily;
+import com.logai.assint.entity.TokenUsageEvent;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface TokenUsageMapper {
+
+    int insertBatch(@Param("events") List<TokenUsageEvent> events);
+
+    Long lockCursor(@Param("name") String name);
+
+    Long findCursor(@Param("name") String name);
+
+    Long findRollupUpperBound(@Param("afterId") Long afterId,
+                              @Param("settledBefore") LocalDateTime settledBefore,
+                              @Param("limit") int limit);
+
+    int rollupRange(@Param("fromId") Long fromId, @Param("toId") Long toId);
+
+    int updateCursor(@Param("name") String name, @Param("lastEventId") Long lastEventId);
+
+    List<TokenUsageDaily> findDaily(@Param("userId") Long userId,
+                                    @Param("startDate") LocalDate startDate,
+                                    @Param("endDate") LocalDate endDate);
+
+    List<TokenUsageDaily> findPendingDaily(@Param("userId") Long userId,
+                                           @Param("afterId") Long afterId,
+                                           @Param("startDate") LocalDate startDate,
+                                           @Param("endDate") LocalDate endDate);
+}
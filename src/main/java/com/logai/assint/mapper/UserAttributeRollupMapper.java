@@ -0,0 +1,33 @@
+package com.logai.assint.mapper;
+
+import com.logai.assint.dto.RollupTouch;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Mapper
+public interface UserAttributeRollupMapper {
+
+    List<RollupTouch> findTouchesByChatId(@Param("userId") Long userId, @Param("chatId") Long chatId);
+
+    List<RollupTouch> findTouchesByRecordIds(@Param("userId") Long userId, @Param("recordIds") List<Long> recordIds);
+
+    int deleteBucket(@Param("userId") Long userId,
+                     @Param("attributeId") Long attributeId,
+                     @Param("granularity") String granularity,
+                     @Param("periodStart") LocalDate periodStart);
+
+    int insertBucket(@Param("userId") Long userId,
+                     @Param("attributeId") Long attributeId,
+                     @Param("granularity") String granularity,
+                     @Param("periodStart") LocalDate periodStart,
+                     @Param("periodEnd") LocalDate periodEnd);
+
+    int deleteByUserId(@Param("userId") Long userId);
+
+    int backfillUser(@Param("userId") Long userId, @Param("granularity") String granularity);
+
+    List<Long> findUserIdsWithNumbers(@Param("afterUserId") Long afterUserId, @Param("limit") int limit);
+}
@@ -14,4 +14,8 @@ public interface UserRecordDetailMapper extends BaseMapper<UserRecordDetail> {
     @Select("SELECT * FROM user_record_detail WHERE record_id = #{recordId}")
     List<UserRecordDetail> findByRecordId(@Param("recordId") Long recordId);
 
-}
\ No newline at end of file
+    /**
+     * 多行插入，id 由调用方预先分配
+     */
+    int insertBatch(@Param("details") List<UserRecordDetail> details);
+}
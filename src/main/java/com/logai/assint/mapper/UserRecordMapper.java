@@ -15,4 +15,9 @@ public interface UserRecordMapper extends BaseMapper<UserRecord> {
 
     @Select("SELECT * FROM user_record WHERE user_id = #{userId}")
     List<UserRecord> findByUserId(@Param("userId") Long userId);
-}
\ No newline at end of file
+
+    /**
+     * 多行插入，id 由调用方预先分配
+     */
+    int insertBatch(@Param("records") List<UserRecord> records);
+}
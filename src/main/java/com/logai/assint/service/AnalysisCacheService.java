@@ -0,0 +1,29 @@
+package com.logai.assint.service;
+
+import com.logai.assint.dto.AnalysisResponse;
+import com.logai.user.entity.User;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+public interface AnalysisCacheService {
+
+    /**
+     * 读取分析结果缓存，未命中时执行 loader 并写入缓存
+     * 缓存键由用户、数据版本、用户当地日期（相对时间窗口）和规范化后的问题指纹组成
+     *
+     * @param user    当前用户
+     * @param message 用户分析需求
+     * @param loader  未命中时的实际分析流程
+     * @return 分析结果
+     */
+    List<AnalysisResponse> getOrCompute(User user, String message, Supplier<List<AnalysisResponse>> loader);
+
+    /**
+     * 用户记录数据发生变化后递增数据版本，使该用户已有的分析缓存全部失效
+     * 处于事务中时在提交后执行
+     *
+     * @param userId 用户ID
+     */
+    void bumpDataVersion(Long userId);
+}
@@ -0,0 +1,23 @@
+package com.logai.assint.service;
+
+import com.logai.assint.dto.ManualRecordResponse;
+import com.logai.assint.util.TokenCounter;
+
+import java.util.function.Supplier;
+
+public interface AttributeBatchService {
+
+    /**
+     * 属性提取：开启合并时与其他用户同一时间窗口内的提取请求合并为一次模型调用，
+     * 未开启、只有一条请求或该条结果校验不通过时执行单独调用
+     *
+     * @param message          待提取的语句
+     * @param themeName        主题名称
+     * @param attributesPrompt 主题已知属性表
+     * @param counter          本次请求的 token 计数，合并调用的用量按条目分摊
+     * @param individualCall   单独调用
+     * @return 提取结果
+     */
+    ManualRecordResponse extract(String message, String themeName, String attributesPrompt, TokenCounter counter,
+                                 Supplier<ManualRecordResponse> individualCall);
+}
@@ -0,0 +1,54 @@
+package com.logai.assint.service;
+
+import com.logai.assint.dto.RollupTouch;
+
+import java.util.List;
+
+public interface AttributeRollupService {
+
+    /**
+     * 记录意图处理完成后，重算该对话产生的数值属性所在的日/周/月汇总
+     *
+     * @param userId 用户ID
+     * @param chatId 对话ID
+     */
+    void refreshChat(Long userId, Long chatId);
+
+    /**
+     * 编辑单条明细后重算对应属性的汇总
+     *
+     * @param userId      用户ID
+     * @param recordId    记录ID
+     * @param attributeId 属性ID
+     */
+    void refreshRecordAttribute(Long userId, Long recordId, Long attributeId);
+
+    /**
+     * 删除记录前收集受影响的汇总位置，删除后交给 {@link #refreshTouches(Long, List)} 重算
+     *
+     * @param userId    用户ID
+     * @param recordIds 记录ID列表
+     * @return 受影响的属性与事件时间
+     */
+    List<RollupTouch> collectTouches(Long userId, List<Long> recordIds);
+
+    /**
+     * 重算给定位置所在的日/周/月汇总
+     *
+     * @param userId  用户ID
+     * @param touches 受影响的属性与事件时间
+     */
+    void refreshTouches(Long userId, List<RollupTouch> touches);
+
+    /**
+     * 按原始明细全量重建单个用户的汇总
+     *
+     * @param userId 用户ID
+     */
+    void backfillUser(Long userId);
+
+    /**
+     * 全量重建所有用户的汇总，多实例下同一时间只有一个实例执行
+     */
+    void backfillAll();
+}
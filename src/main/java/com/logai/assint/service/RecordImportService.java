@@ -0,0 +1,29 @@
+package com.logai.assint.service;
+
+import com.logai.assint.dto.RecordImportStatus;
+import com.logai.user.entity.User;
+
+public interface RecordImportService {
+
+    /**
+     * 校验并落库导入文件，随后异步分批处理；同一用户重复上传同一文件时返回已有任务
+     *
+     * @param user      用户
+     * @param fileName  原始文件名，未指定格式时按扩展名判断
+     * @param format    jsonl / csv，可为空
+     * @param normalize 是否先用模型把主题、属性名映射到已有目录
+     * @param payload   文件内容
+     * @return 导入任务进度
+     */
+    RecordImportStatus submit(User user, String fileName, String format, boolean normalize, String payload);
+
+    /**
+     * 查询导入任务进度
+     */
+    RecordImportStatus getStatus(Long userId, Long jobId);
+
+    /**
+     * 失败的任务从游标处继续
+     */
+    RecordImportStatus resume(Long userId, Long jobId);
+}
@@ -0,0 +1,25 @@
+package com.logai.assint.service;
+
+import com.logai.common.model.Result;
+import org.springframework.web.context.request.async.DeferredResult;
+
+public interface RecordStatusService {
+
+    /**
+     * 长轮询等待记录意图处理完成，完成后一次性返回最终记录
+     *
+     * @param chatId       对话ID
+     * @param userId       用户ID
+     * @param allAttribute 是否返回全部属性（"1" 为全部）
+     * @return 挂起的异步结果，超时返回 processing 状态
+     */
+    DeferredResult<Result> awaitUserRecord(String chatId, Long userId, String allAttribute);
+
+    /**
+     * 记录意图处理结束（成功或失败）后通知所有实例上的等待方
+     *
+     * @param chatId 对话ID
+     * @param userId 用户ID
+     */
+    void publishCompletion(Long chatId, Long userId);
+}
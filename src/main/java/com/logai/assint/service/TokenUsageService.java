@@ -0,0 +1,39 @@
+package com.logai.assint.service;
+
+import com.logai.assint.dto.TokenUsageDaily;
+import com.logai.assint.util.TokenCounter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface TokenUsageService {
+
+    /**
+     * 登记一次对话产生的模型调用用量，只放入内存缓冲，不阻塞调用方
+     *
+     * @param userId   用户ID
+     * @param timeZone 用户时区，用量日期按该时区计算，与查询时的日期范围一致
+     * @param chatId   对话ID，可为空
+     * @param entries  {@link TokenCounter#drainEntries()} 取出的调用明细
+     */
+    void record(Long userId, String timeZone, Long chatId, List<TokenCounter.UsageEntry> entries);
+
+    /**
+     * 将缓冲中的流水批量写入数据库
+     */
+    void flush();
+
+    /**
+     * 把游标之后的流水累加到每日汇总
+     */
+    void rollup();
+
+    /**
+     * 查询用户每日用量（含尚未汇总的流水）
+     *
+     * @param userId    用户ID
+     * @param startDate 起始日期（含）
+     * @param endDate   结束日期（含）
+     */
+    List<TokenUsageDaily> queryDaily(Long userId, LocalDate startDate, LocalDate endDate);
+}
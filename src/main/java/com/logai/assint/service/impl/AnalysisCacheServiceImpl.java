@@ -0,0 +1,123 @@
+package com.logai.assint.service.impl;
+
+import cn.hutool.crypto.digest.DigestUtil;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logai.assint.dto.AnalysisResponse;
+import com.logai.assint.service.AnalysisCacheService;
+import com.logai.common.metrics.CacheMetrics;
+import com.logai.common.utils.TimeUtil;
+import com.logai.user.entity.User;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 分析结果缓存
+ * <p>
+ * 相同问题在数据未变化时直接返回上次的分析结果，跳过主题识别、SQL 生成两次模型调用和数据库查询。
+ * 数据版本写在缓存键里，记录变更只需递增版本号，旧版本的缓存自然过期。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnalysisCacheServiceImpl implements AnalysisCacheService {
+    private static final String VERSION_KEY_PREFIX = "analysis:data_version:";
+    private static final String RESULT_KEY_PREFIX = "analysis:result:";
+    private static final String CACHE_NAME = "analysis";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final TimeUtil timeUtil;
+    private final CacheMetrics cacheMetrics;
+
+    @Value("${assist.analysis-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${assist.analysis-cache.ttl:3600}")
+    private long ttlSeconds;
+
+    @Override
+    public List<AnalysisResponse> getOrCompute(User user, String message, Supplier<List<AnalysisResponse>> loader) {
+        if (!enabled || user == null || user.getId() == null || StringUtils.isBlank(message)) {
+            return loader.get();
+        }
+        String key;
+        try {
+            key = buildResultKey(user, message);
+            String cached = stringRedisTemplate.opsForValue().get(key);
+            if (cached != null) {
+                cacheMetrics.hit(CACHE_NAME);
+                log.info("命中分析结果缓存 - 用户ID: {}", user.getId());
+                return objectMapper.readValue(cached, new TypeReference<>() {
+                });
+            }
+        } catch (Exception e) {
+            // 缓存不可用时退化为直接分析
+            log.warn("读取分析结果缓存失败 - 用户ID: {}, 错误: {}", user.getId(), e.getMessage());
+            return loader.get();
+        }
+
+        cacheMetrics.miss(CACHE_NAME);
+        List<AnalysisResponse> result = loader.get();
+        // 空结果可能来自模型调用失败，不缓存
+        if (result != null && !result.isEmpty()) {
+            try {
+                stringRedisTemplate.opsForValue().set(key, objectMapper.writeValueAsString(result),
+                        ttlSeconds, TimeUnit.SECONDS);
+            } catch (Exception e) {
+                log.warn("写入分析结果缓存失败 - 用户ID: {}, 错误: {}", user.getId(), e.getMessage());
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void bumpDataVersion(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    incrementVersion(userId);
+                }
+            });
+        } else {
+            incrementVersion(userId);
+        }
+    }
+
+    private void incrementVersion(Long userId) {
+        try {
+            stringRedisTemplate.opsForValue().increment(VERSION_KEY_PREFIX + userId);
+        } catch (Exception e) {
+            log.warn("递增分析数据版本失败 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+        }
+    }
+
+    private String buildResultKey(User user, String message) {
+        String version = stringRedisTemplate.opsForValue().get(VERSION_KEY_PREFIX + user.getId());
+        // "本周"、"最近7天"这类相对时间依赖当天日期，按用户时区的日期分桶
+        String localDate = timeUtil.getNowInTimezone(user.getTimeZone()).toLocalDate().toString();
+        String fingerprint = DigestUtil.sha256Hex(StringUtils.defaultString(user.getTimeZone()) + "|" + normalize(message));
+        return RESULT_KEY_PREFIX + user.getId() + ":" + StringUtils.defaultIfEmpty(version, "0")
+                + ":" + localDate + ":" + fingerprint;
+    }
+
+    private String normalize(String message) {
+        String normalized = message.trim().toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+        return normalized.replaceAll("[\\p{Punct}。！？，、；：]+$", "");
+    }
+}
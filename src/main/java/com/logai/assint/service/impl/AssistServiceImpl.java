@@ -9,8 +9,14 @@ import com.logai.assint.enums.DataType;
 import com.logai.assint.enums.IntentType;
 import com.logai.assint.jdbc.UserRecordDetailMapperCustom;
 import com.logai.assint.mapper.*;
+import com.logai.assint.service.AnalysisCacheService;
 import com.logai.assint.service.AssistService;
+import com.logai.assint.service.AttributeBatchService;
+import com.logai.assint.service.AttributeRollupService;
+import com.logai.assint.service.RecordStatusService;
+import com.logai.assint.service.TokenUsageService;
 import com.logai.assint.util.AiResponseCleaner;
+import com.logai.assint.util.ThemePromptRenderer;
 import com.logai.assint.util.TokenCounter;
 import com.logai.common.exception.BusinessException;
 import com.logai.common.utils.TimeUtil;
@@ -18,12 +24,19 @@ import com.logai.creem.entity.MembershipFeature;
 import com.logai.creem.mapper.MembershipFeatureMapper;
 import com.logai.user.entity.User;
 import io.micrometer.common.util.StringUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatResponse;
 import org.springframework.ai.template.st.StTemplateRenderer;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.support.TransactionTemplate;
@@ -33,6 +46,7 @@ import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -43,12 +57,22 @@ public class AssistServiceImpl implements AssistService {
     private static final String STATUS_COMPLETED = "completed";
     private static final String STATUS_ERROR = "error";
     private static final DateTimeFormatter EVENT_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String INTENT_METRIC = "assist.intent";
+    private static final String QUOTA_METRIC = "assist.quota.check";
+    private static final String ANALYSIS_SQL_METRIC = "assist.analysis.sql";
+    private static final String STAGE_OBSERVATION = "assist.stage";
+    private static final String FAST_PATH_METRIC = "assist.fast_path";
+    private static final String RECORD_PIPELINE_METRIC = "assist.record.pipeline";
+    private static final String PATH_FAST = "fast";
+    private static final String PATH_FALLBACK = "fallback";
+    private static final String PATH_STAGED = "staged";
 
     @Qualifier("recordIntentTaskExecutor")
     private final TaskExecutor taskExecutor;
     private final ChatClient intentChatClient;
     private final ChatClient themeChatClient;
     private final ChatClient attributeChatClient;
+    private final ChatClient fastRecordChatClient;
     private final ChatClient analysisChatClient;
     private final ChatClient analysisThemeChatClient;
     private final ChatClient generateDateRangeChatClient;
@@ -61,7 +85,28 @@ public class AssistServiceImpl implements AssistService {
     private final MembershipFeatureMapper membershipFeatureMapper;
     private final TimeUtil timeUtil;
     private final TransactionTemplate transactionTemplate;
+    private final RecordStatusService recordStatusService;
+    private final AnalysisCacheService analysisCacheService;
+    private final AttributeRollupService attributeRollupService;
+    private final MeterRegistry meterRegistry;
+    private final ObservationRegistry observationRegistry;
+    private final TokenUsageService tokenUsageService;
+    private final AttributeBatchService attributeBatchService;
 
+    @Value("${assist.fast-path.enabled:true}")
+    private boolean fastPathEnabled;
+
+    @Value("${assist.fast-path.traffic-percent:50}")
+    private int fastPathTrafficPercent;
+
+    @Value("${assist.fast-path.min-confidence:0.8}")
+    private double fastPathMinConfidence;
+
+    @Value("${assist.fast-path.max-themes:30}")
+    private int fastPathMaxThemes;
+
+    @Value("${assist.fast-path.max-attributes:200}")
+    private int fastPathMaxAttributes;
 
     /**
      * AI全局对话接口 - 增强版
@@ -91,12 +136,24 @@ public class AssistServiceImpl implements AssistService {
 
         // 直接传递响应式业务异常
         List<IntentType> intents;
+        RecordRoute recordRoute = null;
         List<IntentType> providedIntents = parseIntentArray(intentArray);
         if (!providedIntents.isEmpty()) {
             intents = providedIntents;
             log.debug("使用前端提供的意图类型: {} - 用户ID: {}", providedIntents, userId);
         } else {
-            intents = analyzeIntent(message, counter);
+            // 从受理开始计时，快速路径与多阶段流程的端到端耗时可直接对比
+            Timer.Sample pipelineSample = Timer.start(meterRegistry);
+            FastPathResult fast = inFastPathGroup(userId)
+                    ? observeStage("fast_path", () -> tryFastPath(user, message, counter))
+                    : null;
+            if (fast != null && fast.intents() != null) {
+                intents = fast.intents();
+            } else {
+                intents = observeStage("intent", () -> analyzeIntent(message, counter));
+            }
+            recordRoute = new RecordRoute(fast == null ? PATH_STAGED : fast.path(), pipelineSample,
+                    fast == null ? null : fast.segments());
         }
         if (intents.isEmpty()) {
             throw BusinessException.aiServiceError("IntentAnalysis", "Intent analysis failed");
@@ -107,8 +164,8 @@ public class AssistServiceImpl implements AssistService {
             GlobalAiAssintResponse res;
             switch (intentType) {
                 case ANALYZE -> res = handleAnalysisIntent(user, message, counter);
-                case RECORD -> res = handleRecordIntent(user, message, counter);
-                default -> res = handleIllegalIntent(userId, message, counter);
+                case RECORD -> res = handleRecordIntent(user, message, counter, recordRoute);
+                default -> res = handleIllegalIntent(user, message, counter);
             }
             result.add(res);
         }
@@ -122,16 +179,19 @@ public class AssistServiceImpl implements AssistService {
     @Override
     public GlobalAiAssintResponse handleAnalysisIntent(User user, String message, TokenCounter counter) {
         Long userId = user.getId();
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             enforceUsageLimit(user, "text_analysis", IntentType.ANALYZE.getValue());
         } catch (Exception error) {
             log.error("分析意图处理失败（额度校验） - 用户ID: {}, 错误: {}", userId, error.getMessage(), error);
+            stopIntentTimer(sample, IntentType.ANALYZE, "rejected");
             return new GlobalAiAssintResponse(IntentType.ANALYZE, error.getMessage());
         }
         UserChat chat = createUserChat(userId, message, IntentType.ANALYZE.getValue(), STATUS_PROCESSING);
         Long chatId = chat.getId();
         try {
-            List<AnalysisResponse> analysisResponses = processAnalysisIntent(user, message, counter);
+            List<AnalysisResponse> analysisResponses = analysisCacheService.getOrCompute(user, message,
+                    () -> processAnalysisIntent(user, message, counter));
             GlobalAiAssintResponse result;
             if (analysisResponses.isEmpty()) {
                 String emptyMsg = "根据您的请求，我没有找到可以分析的数据。";
@@ -140,34 +200,50 @@ public class AssistServiceImpl implements AssistService {
                 result = new GlobalAiAssintResponse(IntentType.ANALYZE, analysisResponses);
             }
             String response = JSON.toJSONString(result);
-            updateUserChatStatus(chatId, STATUS_COMPLETED, response, null, counter);
+            updateUserChatStatus(user, chatId, STATUS_COMPLETED, response, null, counter);
+            stopIntentTimer(sample, IntentType.ANALYZE, analysisResponses.isEmpty() ? "empty" : "success");
             return result;
         } catch (Exception error) {
-            updateUserChatStatus(chatId, STATUS_ERROR, null, error.getMessage(), counter);
+            updateUserChatStatus(user, chatId, STATUS_ERROR, null, error.getMessage(), counter);
             log.error("分析意图处理失败 - 用户ID: {}, 聊天ID: {}, 错误: {}", userId, chatId, error.getMessage(), error);
+            stopIntentTimer(sample, IntentType.ANALYZE, "error");
             return new GlobalAiAssintResponse(IntentType.ANALYZE, error.getMessage());
         }
     }
 
     @Override
     public GlobalAiAssintResponse handleRecordIntent(User user, String message, TokenCounter counter) {
+        return handleRecordIntent(user, message, counter, null);
+    }
+
+    /**
+     * @param route 由模型判定意图时的路径信息，快速路径已提取的主题语句直接落库；为 null 时走多阶段流程且不记录路径指标
+     */
+    private GlobalAiAssintResponse handleRecordIntent(User user, String message, TokenCounter counter, RecordRoute route) {
         Long userId = user.getId();
+        // 记录意图异步完成，计时从受理到后台处理结束，包含线程池排队时间
+        Timer.Sample sample = Timer.start(meterRegistry);
         try {
             enforceUsageLimit(user, "text_record", "record");
         } catch (Exception error) {
             log.error("记录意图处理失败（额度校验） - 用户ID: {}, 错误: {}", userId, error.getMessage(), error);
+            stopIntentTimer(sample, IntentType.RECORD, "rejected");
+            stopRecordPipeline(route, "rejected", counter);
             return new GlobalAiAssintResponse(IntentType.RECORD, error.getMessage());
         }
         UserChat userChat = createUserChat(userId, message, IntentType.RECORD.getValue(), STATUS_PROCESSING);
         Long chatId = userChat.getId();
-        taskExecutor.execute(() -> {
+        // 任务装饰器会把当前链路上下文带到记录线程，后台处理作为本次请求链路的子 span
+        taskExecutor.execute(() -> observeStage("record_task", () -> {
+            String outcome = "success";
             try {
-                List<ManualRecordResponse> manualResponses = transactionTemplate.execute(status ->
-                        processRecordIntent(user, message, userChat, counter)
-                );
+                List<ManualRecordResponse> manualResponses = route != null && route.segments() != null
+                        ? recordThemeSegments(user, userChat, route.segments(), counter)
+                        : processRecordIntent(user, message, userChat, counter);
 
                 Object data;
                 if (manualResponses == null || manualResponses.isEmpty()) {
+                    outcome = "empty";
                     data = "我没有从您的话中识别出可以记录的内容。";
                 } else {
                     data = manualResponses;
@@ -175,17 +251,25 @@ public class AssistServiceImpl implements AssistService {
 
                 String responseJson = JSON.toJSONString(new GlobalAiAssintResponse(IntentType.RECORD, data));
 
-                updateUserChatStatus(chatId, STATUS_COMPLETED, responseJson, null, counter);
+                updateUserChatStatus(user, chatId, STATUS_COMPLETED, responseJson, null, counter);
 
             } catch (Exception error) {
-                updateUserChatStatus(chatId, STATUS_ERROR, null, error.getMessage(), counter);
+                outcome = "error";
+                updateUserChatStatus(user, chatId, STATUS_ERROR, null, error.getMessage(), counter);
                 log.error("记录意图异步处理失败 - 用户ID: {}, 聊天ID: {}, 错误: {}",
                         userId,
                         chatId,
                         error.getMessage(),
                         error);
             }
-        });
+            // 记录数据可能已变化，重算数值汇总并使分析缓存失效
+            attributeRollupService.refreshChat(userId, chatId);
+            analysisCacheService.bumpDataVersion(userId);
+            // 通知等待中的长轮询请求
+            recordStatusService.publishCompletion(chatId, userId);
+            stopIntentTimer(sample, IntentType.RECORD, outcome);
+            stopRecordPipeline(route, outcome, counter);
+        }));
         return new GlobalAiAssintResponse(IntentType.RECORD, Map.of("chatId", userChat.getId()));
     }
 
@@ -193,9 +277,11 @@ public class AssistServiceImpl implements AssistService {
     /**
      * 处理非法意图
      */
-    private GlobalAiAssintResponse handleIllegalIntent(Long userId, String message, TokenCounter counter) {
+    private GlobalAiAssintResponse handleIllegalIntent(User user, String message, TokenCounter counter) {
         String response = "我不理解你的意思，请重新输入。";
-        UserChat userChat = createUserChat(userId, message, IntentType.ILLEGAL.getValue(), STATUS_ERROR);
+        UserChat userChat = createUserChat(user.getId(), message, IntentType.ILLEGAL.getValue(), STATUS_ERROR);
+        // 意图识别已消耗 token，记到这条对话上
+        tokenUsageService.record(user.getId(), user.getTimeZone(), userChat.getId(), counter.drainEntries());
         return new GlobalAiAssintResponse(IntentType.ILLEGAL, response);
     }
 
@@ -203,6 +289,25 @@ public class AssistServiceImpl implements AssistService {
      * 校验用户在指定功能下的使用次数限制
      */
     private void enforceUsageLimit(User user, String featureKey, String conversationType) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            checkUsageLimit(user, featureKey, conversationType);
+            outcome = "allowed";
+        } catch (BusinessException e) {
+            outcome = "exceeded";
+            throw e;
+        } finally {
+            sample.stop(Timer.builder(QUOTA_METRIC)
+                    .description("会员额度校验耗时")
+                    .tag("feature", featureKey)
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    private void checkUsageLimit(User user, String featureKey, String conversationType) {
         Integer membershipId = user.getRole();
         if (membershipId == null) {
             return;
@@ -258,12 +363,12 @@ public class AssistServiceImpl implements AssistService {
         return userChat;
     }
 
-    private UserChat updateUserChatStatus(Long chatId, String status, String aiResponse, String errorReason, TokenCounter counter) {
-        UserChat userChat = userChatMapper.selectById(chatId);
-        if (userChat == null) {
-            log.warn("未找到需要更新状态的用户对话记录，chatId={}", chatId);
-            return new UserChat();
-        }
+    /**
+     * 按主键一条 UPDATE 更新对话状态（null 字段不更新，与原先查后改的结果一致），并把本次调用明细交给用量流水
+     */
+    private void updateUserChatStatus(User user, Long chatId, String status, String aiResponse, String errorReason, TokenCounter counter) {
+        UserChat userChat = new UserChat();
+        userChat.setId(chatId);
         userChat.setAiResponse(aiResponse);
         userChat.setTotalPromptTokens(counter.getPromptTokens());
         userChat.setTotalCompletionTokens(counter.getCompletionTokens());
@@ -271,8 +376,10 @@ public class AssistServiceImpl implements AssistService {
         userChat.setErrorReason(errorReason);
         userChat.setStatus(status);
         userChat.setUpdatedAt(LocalDateTime.now());
-        userChatMapper.updateById(userChat);
-        return userChat;
+        if (userChatMapper.updateById(userChat) == 0) {
+            log.warn("未找到需要更新状态的用户对话记录，chatId={}", chatId);
+        }
+        tokenUsageService.record(user.getId(), user.getTimeZone(), chatId, counter.drainEntries());
     }
 
     /**
@@ -368,7 +475,7 @@ public class AssistServiceImpl implements AssistService {
                     .call()
                     .chatResponse();
 
-            processTokenUsage(response, counter);
+            processTokenUsage("intent", response, counter);
             content = response.getResult().getOutput().getText();
             log.info("AI返回的意图分析结果: {}", content);
 
@@ -395,21 +502,69 @@ public class AssistServiceImpl implements AssistService {
 
     /**
      * [REFACTORED] 处理记录意图
-     * 整个流程现在被包裹在一个事务中。
      * 调用方需提前创建 user_chat 记录并传入 originalRecord。
-     * 在事务中执行以下步骤：
+     * 模型调用在事务外完成：
      * a. 调用AI提取主题。
-     * b. 查找或创建主题。
-     * c. 调用AI提取属性。
+     * b. 调用AI提取属性。
+     * 之后在一个事务中执行：
+     * c. 查找或创建主题。
      * d. 创建主记录 (UserRecord)。
      * e. 查找或创建属性定义。
      * f. 保存属性值 (UserRecordDetail)。
-     * 若流程中任何一步失败，所有在事务中的数据库操作都会被回滚。
+     * 若落库中任何一步失败，所有在事务中的数据库操作都会被回滚。
      */
     public List<ManualRecordResponse> processRecordIntent(User user, String message, UserChat originalRecord, TokenCounter counter) {
+        List<ThemeSegment> themeSegments = observeStage("theme_extraction",
+                () -> extractThemesWithSegments(message, user, counter));
+        return recordThemeSegments(user, originalRecord, themeSegments, counter);
+    }
+
+    /**
+     * 补齐主题语句的属性后落库
+     * 排队等待模型调用许可可能长达数分钟，模型调用不能放在事务内，否则会一直占用数据库连接
+     */
+    private List<ManualRecordResponse> recordThemeSegments(User user, UserChat originalRecord,
+                                                           List<ThemeSegment> themeSegments, TokenCounter counter) {
+        extractSegmentAttributes(user.getId(), themeSegments, counter);
+        return transactionTemplate.execute(status -> persistThemeSegments(user, originalRecord, themeSegments));
+    }
+
+    /**
+     * 语句已带属性（快速路径）时直接使用，否则逐条调用属性提取；主题尚不存在时按无已有属性提取
+     */
+    private void extractSegmentAttributes(Long userId, List<ThemeSegment> themeSegments, TokenCounter counter) {
+        for (ThemeSegment themeSegment : themeSegments) {
+            List<ThemeSegment.PromptItem> pending = promptItems(themeSegment).stream()
+                    .filter(promptItem -> promptItem.getRecords() == null)
+                    .toList();
+            if (pending.isEmpty()) {
+                continue;
+            }
+            Theme theme = themeMapper.queryByThemeNameAndUserId(themeSegment.getTheme(), userId);
+            String themeName = theme != null ? theme.getThemeName() : themeSegment.getTheme();
+            List<Attribute> attributes = theme != null ? attributeMapper.findByThemeId(theme.getId()) : List.of();
+            for (ThemeSegment.PromptItem promptItem : pending) {
+                promptItem.setRecords(observeStage("attribute_extraction",
+                        () -> extractAttributesManual(promptItem.getPrompt(), themeName, attributes, counter)).getRecords());
+            }
+        }
+    }
+
+    private List<ThemeSegment.PromptItem> promptItems(ThemeSegment themeSegment) {
+        return Optional.ofNullable(themeSegment.getPrompts())
+                .orElse(Collections.emptyList())
+                .stream()
+                .filter(promptItem -> promptItem != null && StringUtils.isNotBlank(promptItem.getPrompt()))
+                .toList();
+    }
+
+    /**
+     * 按主题语句落库，语句的属性已由 {@link #extractSegmentAttributes} 补齐，不调用模型
+     */
+    private List<ManualRecordResponse> persistThemeSegments(User user, UserChat originalRecord,
+                                                            List<ThemeSegment> themeSegments) {
         List<ManualRecordResponse> result = new ArrayList<>();
         Long userId = user.getId();
-        List<ThemeSegment> themeSegments = extractThemesWithSegments(message, user, counter);
         for (ThemeSegment themeSegment : themeSegments) {
             Theme theme = findOrCreateTheme(userId, themeSegment.getTheme());
 
@@ -418,22 +573,19 @@ public class AssistServiceImpl implements AssistService {
             themeResponse.setChatId(originalRecord.getId());
             themeResponse.setRecords(new ArrayList<>());
 
-            List<ThemeSegment.PromptItem> promptItems = Optional.ofNullable(themeSegment.getPrompts())
-                    .orElse(Collections.emptyList())
-                    .stream()
-                    .filter(promptItem -> promptItem != null && StringUtils.isNotBlank(promptItem.getPrompt()))
-                    .toList();
-
-            for (ThemeSegment.PromptItem promptItem : promptItems) {
-                ManualRecordResponse extracted = extractAttributesManual(promptItem.getPrompt(), theme, counter);
+            for (ThemeSegment.PromptItem promptItem : promptItems(themeSegment)) {
+                List<ManualRecordResponse.ManualRecordEntry> records = Optional.ofNullable(promptItem.getRecords())
+                        .orElse(Collections.emptyList());
 
-                for (ManualRecordResponse.ManualRecordEntry record : extracted.getRecords()) {
+                for (ManualRecordResponse.ManualRecordEntry record : records) {
 
                     // 创建记录
-                    UserRecord userRecord = createUserRecord(
-                            user, originalRecord.getId(), theme.getId(), promptItem.getEventTime());
-
-                    saveRecordAttributes(userId, userRecord.getId(), theme.getId(), record.getAttributes());
+                    UserRecord userRecord = observeStage("persistence", () -> {
+                        UserRecord created = createUserRecord(
+                                user, originalRecord.getId(), theme.getId(), promptItem.getEventTime());
+                        saveRecordAttributes(userId, created.getId(), theme.getId(), record.getAttributes());
+                        return created;
+                    });
 
                     // 添加到最终主题响应
                     ManualRecordResponse.ManualRecordEntry newEntry = new ManualRecordResponse.ManualRecordEntry();
@@ -473,6 +625,8 @@ public class AssistServiceImpl implements AssistService {
         Attribute attribute = findOrCreateAttribute(userId, themeId, attr.getAttributeName(), DataType.valueOf(attr.getDataType()));
         UserRecordDetail value = new UserRecordDetail();
         value.setRecordId(recordId);
+        value.setUserId(userId);
+        value.setDataType(attribute.getDataType());
         value.setGroupId(attr.getGroupId());
         value.setAttributeId(attribute.getId());
         value.setNumberUnit(attr.getUnit());
@@ -520,25 +674,173 @@ public class AssistServiceImpl implements AssistService {
 
 
     /**
-     * 提取用户主题并按主题拆分语句
+     * 按用户ID固定分桶，同一用户始终落在同一组，便于对比两条路径
      */
-    private List<ThemeSegment> extractThemesWithSegments(String message, User user, TokenCounter counter) {
+    private boolean inFastPathGroup(Long userId) {
+        return fastPathEnabled && userId != null && Math.floorMod(userId, 100) < fastPathTrafficPercent;
+    }
+
+    /**
+     * 单次调用快速路径：一次模型调用同时完成意图识别、主题拆分和属性提取
+     * <p>
+     * 主题目录过大时不尝试；调用失败或置信度不足时返回的意图为空，由调用方重新走意图识别；
+     * 意图可信但不是单一 RECORD、或主题属性校验不通过时只沿用意图，记录走多阶段流程。
+     * 异常在此消化，只影响路径选择，不影响请求结果。
+     */
+    private FastPathResult tryFastPath(User user, String message, TokenCounter counter) {
         List<Theme> themes = themeMapper.queryByUserIdOrIsPublic(user.getId());
-        String themesPrompt;
-        if (themes.isEmpty()) {
-            themesPrompt = "无现有主题";
-        } else {
-            StringBuilder sb = new StringBuilder();
-            sb.append("| theme_name | theme_id | theme_description |\n");
-            sb.append("| :------- | :------ | :------- |\n");
-            for (Theme theme : themes) {
-                sb.append("| ")
-                        .append(theme.getThemeName()).append(" | ")
-                        .append(theme.getId()).append(" | ")
-                        .append(theme.getDescription()).append(" |\n");
+        Map<Long, List<Attribute>> attributesByTheme = themes.isEmpty()
+                ? Collections.emptyMap()
+                : attributeMapper.findByThemeIds(themes.stream().map(Theme::getId).toList(), user.getId()).stream()
+                .collect(Collectors.groupingBy(Attribute::getThemeId));
+        int attributeCount = attributesByTheme.values().stream().mapToInt(List::size).sum();
+        if (themes.size() > fastPathMaxThemes || attributeCount > fastPathMaxAttributes) {
+            log.debug("主题目录过大，跳过快速路径 - 用户ID: {}, 主题数: {}, 属性数: {}", user.getId(), themes.size(), attributeCount);
+            return fastPathResult("ineligible", PATH_STAGED, null, null);
+        }
+
+        FastRecordResponse fast;
+        try {
+            String catalogPrompt = ThemePromptRenderer.renderThemeCatalog(themes, attributesByTheme);
+            ChatResponse response = fastRecordChatClient.prompt()
+                    .templateRenderer(StTemplateRenderer.builder().startDelimiterToken('<').endDelimiterToken('>').build())
+                    .system(prompt -> {
+                        prompt.param("themesPrompt", catalogPrompt);
+                        prompt.param("timeZone", user.getTimeZone());
+                    })
+                    .user(message)
+                    .call()
+                    .chatResponse();
+            processTokenUsage("fastRecord", response, counter);
+            String content = AiResponseCleaner.extractJsonString(response.getResult().getOutput().getText());
+            log.info("AI返回的快速路径结果: {}", content);
+            fast = JSON.parseObject(content, FastRecordResponse.class);
+        } catch (Exception e) {
+            log.warn("快速路径调用失败，回退到多阶段流程 - 用户ID: {}, 错误: {}", user.getId(), e.getMessage());
+            return fastPathResult("error", PATH_FALLBACK, null, null);
+        }
+
+        List<IntentType> intents = parseFastIntents(fast);
+        if (intents.isEmpty()) {
+            return fastPathResult("invalid", PATH_FALLBACK, null, null);
+        }
+        if (fast.getConfidence() == null || fast.getConfidence() < fastPathMinConfidence) {
+            log.info("快速路径置信度不足，回退到多阶段流程 - 用户ID: {}, 置信度: {}", user.getId(), fast.getConfidence());
+            return fastPathResult("low_confidence", PATH_FALLBACK, null, null);
+        }
+        if (!intents.equals(List.of(IntentType.RECORD))) {
+            return fastPathResult(intents.contains(IntentType.RECORD) ? "multi_intent" : "not_record",
+                    PATH_FALLBACK, intents, null);
+        }
+        if (!isValidFastSegments(fast.getThemes())) {
+            log.info("快速路径主题属性校验未通过，记录走多阶段流程 - 用户ID: {}", user.getId());
+            return fastPathResult("invalid_records", PATH_FALLBACK, intents, null);
+        }
+        return fastPathResult("hit", PATH_FAST, intents, fast.getThemes());
+    }
+
+    /**
+     * 解析快速路径返回的意图，出现无法识别的标签时视为整体无效
+     */
+    private List<IntentType> parseFastIntents(FastRecordResponse fast) {
+        if (fast == null || fast.getIntents() == null || fast.getIntents().isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<IntentType> intents = new ArrayList<>();
+        for (String raw : fast.getIntents()) {
+            try {
+                IntentType intent = IntentType.valueOf(StringUtils.isBlank(raw) ? "" : raw.trim().toUpperCase());
+                if (!intents.contains(intent)) {
+                    intents.add(intent);
+                }
+            } catch (IllegalArgumentException e) {
+                log.warn("无法解析快速路径返回的意图: '{}'", raw);
+                return Collections.emptyList();
+            }
+        }
+        return intents;
+    }
+
+    /**
+     * 快速路径结果要能直接落库：每条语句都有属性，属性名非空、数据类型合法
+     */
+    private boolean isValidFastSegments(List<ThemeSegment> segments) {
+        if (segments == null || segments.isEmpty()) {
+            return false;
+        }
+        for (ThemeSegment segment : segments) {
+            if (StringUtils.isBlank(segment.getTheme()) || segment.getPrompts() == null || segment.getPrompts().isEmpty()) {
+                return false;
             }
-            themesPrompt = sb.toString();
+            for (ThemeSegment.PromptItem item : segment.getPrompts()) {
+                if (item == null || StringUtils.isBlank(item.getPrompt()) || item.getRecords() == null || item.getRecords().isEmpty()) {
+                    return false;
+                }
+                for (ManualRecordResponse.ManualRecordEntry record : item.getRecords()) {
+                    if (record == null || record.getAttributes() == null) {
+                        return false;
+                    }
+                    for (ManualRecordResponse.AttributeValue attribute : record.getAttributes()) {
+                        if (attribute == null || StringUtils.isBlank(attribute.getAttributeName())
+                                || attribute.getValue() == null || !isKnownDataType(attribute.getDataType())) {
+                            return false;
+                        }
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isKnownDataType(String dataType) {
+        if (dataType == null) {
+            return false;
+        }
+        try {
+            DataType.valueOf(dataType);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private FastPathResult fastPathResult(String outcome, String path, List<IntentType> intents, List<ThemeSegment> segments) {
+        Counter.builder(FAST_PATH_METRIC)
+                .description("单次调用快速路径尝试次数")
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+        return new FastPathResult(path, intents, segments);
+    }
+
+    /**
+     * 记录意图从受理到落库完成的耗时和 token 总数，按实际路径区分：fast / fallback（尝试快速路径后回退）/ staged
+     */
+    private void stopRecordPipeline(RecordRoute route, String outcome, TokenCounter counter) {
+        if (route == null) {
+            return;
         }
+        route.sample().stop(Timer.builder(RECORD_PIPELINE_METRIC)
+                .description("记录意图端到端耗时（含意图识别）")
+                .tag("path", route.path())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+        DistributionSummary.builder(RECORD_PIPELINE_METRIC + ".tokens")
+                .description("记录意图单次请求 token 总数")
+                .baseUnit("tokens")
+                .tag("path", route.path())
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(counter.getTotalTokens());
+    }
+
+    /**
+     * 提取用户主题并按主题拆分语句
+     */
+    private List<ThemeSegment> extractThemesWithSegments(String message, User user, TokenCounter counter) {
+        List<Theme> themes = themeMapper.queryByUserIdOrIsPublic(user.getId());
+        String themesPrompt = ThemePromptRenderer.renderThemeTable(themes);
         String content = null;
         try {
             ChatResponse response = themeChatClient.prompt()
@@ -551,7 +853,7 @@ public class AssistServiceImpl implements AssistService {
                     .call()
                     .chatResponse();
 
-            processTokenUsage(response, counter);
+            processTokenUsage("theme", response, counter);
 
 
             if (response != null) {
@@ -580,13 +882,13 @@ public class AssistServiceImpl implements AssistService {
     /**
      * 提取属性（手动拼接模式）
      *
-     * @param message 用户消息内容
-     * @param theme   主题对象
+     * @param message    用户消息内容
+     * @param themeName  主题名称
+     * @param attributes 主题已有的属性
      * @return 返回提取到的属性Mono
      */
-    private ManualRecordResponse extractAttributesManual(String message, Theme theme, TokenCounter counter) {
-        List<Attribute> attributes = attributeMapper.findByThemeId(theme.getId());
-
+    private ManualRecordResponse extractAttributesManual(String message, String themeName, List<Attribute> attributes,
+                                                         TokenCounter counter) {
         String attributesPrompt;
         if (attributes.isEmpty()) {
             attributesPrompt = "无属性";
@@ -603,23 +905,32 @@ public class AssistServiceImpl implements AssistService {
             }
             attributesPrompt = sb.toString();
         }
+        return attributeBatchService.extract(message, themeName, attributesPrompt, counter,
+                () -> extractAttributesIndividually(message, themeName, attributesPrompt, counter));
+    }
+
+    /**
+     * 单独调用属性提取模型
+     */
+    private ManualRecordResponse extractAttributesIndividually(String message, String themeName, String attributesPrompt,
+                                                               TokenCounter counter) {
         String content;
         try {
             ChatResponse response = attributeChatClient.prompt()
                     .templateRenderer(StTemplateRenderer.builder().startDelimiterToken('<').endDelimiterToken('>').build())
                     .system(prompt -> {
-                        prompt.param("theme", theme.getThemeName());
+                        prompt.param("theme", themeName);
                         prompt.param("attributesPrompt", attributesPrompt);
                     })
-                    .user(message + "\n请提取与" + theme.getThemeName() + "主题直接相关的属性")
+                    .user(message + "\n请提取与" + themeName + "主题直接相关的属性")
                     .call()
                     .chatResponse();
 
-            processTokenUsage(response, counter);
+            processTokenUsage("attribute", response, counter);
             content = AiResponseCleaner.extractJsonString(response.getResult().getOutput().getText());
             log.info("AI返回的属性提取结果: {}", content);
             if (content.trim().isEmpty()) {
-                log.warn("属性提取结果为空，主题: {}", theme.getThemeName());
+                log.warn("属性提取结果为空，主题: {}", themeName);
                 throw BusinessException.aiServiceError("AttributeExtraction", "Attribute extraction AI returned empty content"); // 属性提取AI返回内容为空
             }
         } catch (Exception e) {
@@ -630,7 +941,7 @@ public class AssistServiceImpl implements AssistService {
 
         try {
             ManualRecordResponse result = JSON.parseObject(content, ManualRecordResponse.class);
-            result.setThemeName(theme.getThemeName());
+            result.setThemeName(themeName);
             return result;
         } catch (JSONException e) {
             log.error("解析属性JSON失败 - 内容: {}, 错误: {}", content, e.getMessage(), e);
@@ -704,13 +1015,14 @@ public class AssistServiceImpl implements AssistService {
     public List<AnalysisResponse> processAnalysisIntent(User user, String message, TokenCounter counter) {
         List<AnalysisResponse> result = new ArrayList<>();
         Long userId = user.getId();
-        List<String> themes = identifyAnalysisThemes(userId, message, counter);
+        List<String> themes = observeStage("analysis_theme", () -> identifyAnalysisThemes(userId, message, counter));
         if (themes.contains("ALL")) {
-            AnalysisRequest analysisRequest = generateQueryTimeSQL(user, message, counter);
+            AnalysisRequest analysisRequest = observeStage("sql_generation", () -> generateQueryTimeSQL(user, message, counter));
             result = executeAnalysisSQL(Collections.singletonList(analysisRequest));
         } else {
             for (String theme : themes) {
-                List<AnalysisRequest> analysisRequests = generateAnalysisSQL(user, theme, message, counter);
+                List<AnalysisRequest> analysisRequests = observeStage("sql_generation",
+                        () -> generateAnalysisSQL(user, theme, message, counter));
                 result.addAll(executeAnalysisSQL(analysisRequests));
             }
         }
@@ -741,7 +1053,7 @@ public class AssistServiceImpl implements AssistService {
                     .call()
                     .chatResponse();
 
-            processTokenUsage(response, counter);
+            processTokenUsage("analysisTheme", response, counter);
             String content = AiResponseCleaner.extractJsonString(response.getResult().getOutput().getText());
             log.info("AI返回的主题识别结果: {}", content);
             if (StringUtils.isBlank(content)) {
@@ -849,7 +1161,7 @@ public class AssistServiceImpl implements AssistService {
                 .call()
                 .chatResponse();
 
-        processTokenUsage(chatResponse, counter);
+        processTokenUsage("dateRange", chatResponse, counter);
         String text = chatResponse.getResult().getOutput().getText();
         TimeRangeResponse timeRangeResponse;
         try {
@@ -936,7 +1248,7 @@ public class AssistServiceImpl implements AssistService {
                     .call()
                     .chatResponse();
 
-            processTokenUsage(chatResponse, counter);
+            processTokenUsage("analysis", chatResponse, counter);
 
             String text = chatResponse.getResult().getOutput().getText();
             String json = AiResponseCleaner.extractJsonString(text);
@@ -971,7 +1283,7 @@ public class AssistServiceImpl implements AssistService {
     private List<AnalysisResponse> executeAnalysisSQL(List<AnalysisRequest> analysisRequests) {
         List<AnalysisResponse> responses = new ArrayList<>();
         for (AnalysisRequest request : analysisRequests) {
-            List<Map<String, Object>> data = userRecordDetailMapperCustom.executeCustomQuery(request.getSql());
+            List<Map<String, Object>> data = observeStage("sql_execution", () -> executeTimed(request.getSql()));
             AnalysisResponse response = new AnalysisResponse();
             response.setDescription(request.getDescription());
             response.setSchema(request.getSchema());
@@ -982,17 +1294,81 @@ public class AssistServiceImpl implements AssistService {
     }
 
 
+    /**
+     * 执行单条分析SQL并记录耗时和返回行数，用于区分慢在模型还是数据库
+     */
+    private List<Map<String, Object>> executeTimed(String sql) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            List<Map<String, Object>> data = userRecordDetailMapperCustom.executeCustomQuery(sql);
+            outcome = "success";
+            DistributionSummary.builder(ANALYSIS_SQL_METRIC + ".rows")
+                    .description("分析SQL返回行数")
+                    .baseUnit("rows")
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(data == null ? 0 : data.size());
+            return data;
+        } finally {
+            sample.stop(Timer.builder(ANALYSIS_SQL_METRIC)
+                    .description("分析SQL执行耗时")
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 以流程阶段为单位记录链路 span，内部的模型调用、JDBC、Redis span 会挂在其下
+     */
+    private <T> T observeStage(String stage, Supplier<T> action) {
+        return Observation.createNotStarted(STAGE_OBSERVATION, observationRegistry)
+                .contextualName("assist " + stage)
+                .lowCardinalityKeyValue("stage", stage)
+                .observe(action);
+    }
+
+    private void observeStage(String stage, Runnable action) {
+        Observation.createNotStarted(STAGE_OBSERVATION, observationRegistry)
+                .contextualName("assist " + stage)
+                .lowCardinalityKeyValue("stage", stage)
+                .observe(action);
+    }
+
+    private void stopIntentTimer(Timer.Sample sample, IntentType intent, String outcome) {
+        sample.stop(Timer.builder(INTENT_METRIC)
+                .description("意图处理总耗时")
+                .tag("intent", intent.name())
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
     /**
      * 处理AI响应的token使用情况
      */
-    private void processTokenUsage(ChatResponse response, TokenCounter counter) {
+    private void processTokenUsage(String client, ChatResponse response, TokenCounter counter) {
         if (response != null && response.getMetadata().getUsage() != null) {
             var usage = response.getMetadata().getUsage();
-            counter.addPromptTokens(usage.getPromptTokens());
-            counter.addCompletionTokens(usage.getCompletionTokens());
+            counter.addUsage(client, response.getMetadata().getModel(),
+                    Optional.ofNullable(usage.getPromptTokens()).orElse(0),
+                    Optional.ofNullable(usage.getCompletionTokens()).orElse(0));
         }
     }
 
+    /**
+     * 快速路径的结论：intents 为空表示需要重新识别意图，segments 非空表示可直接落库
+     */
+    private record FastPathResult(String path, List<IntentType> intents, List<ThemeSegment> segments) {
+    }
+
+    /**
+     * 记录意图的执行路径和端到端计时
+     */
+    private record RecordRoute(String path, Timer.Sample sample, List<ThemeSegment> segments) {
+    }
+
 //    /**
 //     * 保存用户输入记录
 //     */
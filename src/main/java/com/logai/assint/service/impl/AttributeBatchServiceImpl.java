@@ -0,0 +1,270 @@
+package com.logai.assint.service.impl;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.logai.assint.dto.ManualRecordResponse;
+import com.logai.assint.enums.DataType;
+import com.logai.assint.service.AttributeBatchService;
+import com.logai.assint.util.AiResponseCleaner;
+import com.logai.assint.util.TokenCounter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 属性提取请求合并
+ * <p>
+ * 吞吐上限是 Gemini 的请求频率限制而不是 CPU：高峰期各用户的属性提取都是共用同一提示词的小请求，
+ * 合并后一次调用携带多条互不相关的条目，再按 id 把结果分发回各自等待的线程。
+ * 窗口内第一个到达的线程负责发起：等到窗口结束或凑满条目后调用模型，其余线程只等待结果。
+ * 单条结果校验不通过或整批调用失败时，对应条目回退为原来的单独调用。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttributeBatchServiceImpl implements AttributeBatchService {
+    private static final String BATCH_METRIC = "assist.attribute_batch";
+    private static final String CLIENT = "attributeBatch";
+
+    private final ChatClient batchAttributeChatClient;
+    private final MeterRegistry meterRegistry;
+
+    private final Object lock = new Object();
+    /**
+     * 正在收集条目的批次，受 lock 保护；批次关闭后置空，之后到达的请求开启新批次
+     */
+    private Batch collecting;
+
+    @Value("${assist.attribute-batch.enabled:false}")
+    private boolean enabled;
+
+    @Value("${assist.attribute-batch.window-ms:50}")
+    private long windowMs;
+
+    @Value("${assist.attribute-batch.max-items:8}")
+    private int maxItems;
+
+    @Override
+    public ManualRecordResponse extract(String message, String themeName, String attributesPrompt, TokenCounter counter,
+                                        Supplier<ManualRecordResponse> individualCall) {
+        if (!enabled || maxItems < 2) {
+            return individualCall.get();
+        }
+        Item item = new Item(message, themeName, attributesPrompt, counter);
+        Batch batch;
+        boolean leader;
+        synchronized (lock) {
+            leader = collecting == null;
+            if (leader) {
+                collecting = new Batch();
+            }
+            batch = collecting;
+            batch.items.add(item);
+            if (batch.items.size() >= maxItems) {
+                // 凑满后立即关闭，唤醒发起线程
+                collecting = null;
+                lock.notifyAll();
+            }
+        }
+        if (leader) {
+            awaitWindow(batch);
+            dispatch(batch);
+        }
+        ManualRecordResponse result = item.result.join();
+        return result != null ? result : individualCall.get();
+    }
+
+    private void awaitWindow(Batch batch) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+        synchronized (lock) {
+            try {
+                long remaining;
+                while (collecting == batch && (remaining = deadline - System.nanoTime()) > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                if (collecting == batch) {
+                    collecting = null;
+                }
+            }
+        }
+    }
+
+    /**
+     * 发起合并调用并分发结果；未拿到有效结果的条目以 null 完成，由各自线程回退为单独调用
+     */
+    private void dispatch(Batch batch) {
+        List<Item> items = batch.items;
+        DistributionSummary.builder(BATCH_METRIC + ".size")
+                .description("属性提取合并批次的条目数")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(items.size());
+        int batched = 0;
+        try {
+            // 只有一条时直接走单独调用，保持原提示词的效果
+            if (items.size() > 1) {
+                batched = callBatch(items);
+            }
+        } catch (Exception e) {
+            log.warn("属性提取合并调用失败，{} 条回退为单独调用 - 错误: {}", items.size(), e.getMessage());
+        } finally {
+            for (Item item : items) {
+                item.result.complete(null);
+            }
+            itemCounter("batched").increment(batched);
+            itemCounter("individual").increment(items.size() - batched);
+        }
+    }
+
+    private int callBatch(List<Item> items) {
+        List<Map<String, String>> request = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            request.add(Map.of(
+                    "id", String.valueOf(i + 1),
+                    "theme", item.themeName,
+                    "knownAttributes", item.attributesPrompt,
+                    "text", item.message + "\n请提取与" + item.themeName + "主题直接相关的属性"));
+        }
+        ChatResponse response = batchAttributeChatClient.prompt()
+                .user(JSON.toJSONString(request))
+                .call()
+                .chatResponse();
+        shareUsage(response, items);
+
+        String content = AiResponseCleaner.extractJsonString(response.getResult().getOutput().getText());
+        log.info("AI返回的合并属性提取结果 - 条目数: {}, 内容: {}", items.size(), content);
+        JSONArray results = JSON.parseObject(content).getJSONArray("items");
+        Map<String, ManualRecordResponse> byId = new HashMap<>();
+        if (results != null) {
+            for (int i = 0; i < results.size(); i++) {
+                JSONObject result = results.getJSONObject(i);
+                if (result == null) {
+                    continue;
+                }
+                try {
+                    byId.putIfAbsent(result.getString("id"), result.toJavaObject(ManualRecordResponse.class));
+                } catch (Exception e) {
+                    log.warn("合并属性提取结果解析失败 - id: {}, 错误: {}", result.getString("id"), e.getMessage());
+                }
+            }
+        }
+
+        int batched = 0;
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            ManualRecordResponse result = byId.get(String.valueOf(i + 1));
+            if (isValid(result)) {
+                result.setThemeName(item.themeName);
+                item.result.complete(result);
+                batched++;
+            } else {
+                log.info("合并属性提取结果校验未通过，回退为单独调用 - 主题: {}", item.themeName);
+            }
+        }
+        return batched;
+    }
+
+    /**
+     * 合并调用的用量按各条目输入长度分摊到各自请求的计数器，尾差记到最后一条
+     */
+    private void shareUsage(ChatResponse response, List<Item> items) {
+        if (response == null || response.getMetadata().getUsage() == null) {
+            return;
+        }
+        var usage = response.getMetadata().getUsage();
+        int promptTokens = Optional.ofNullable(usage.getPromptTokens()).orElse(0);
+        int completionTokens = Optional.ofNullable(usage.getCompletionTokens()).orElse(0);
+        long totalWeight = items.stream().mapToLong(Item::weight).sum();
+        int promptLeft = promptTokens;
+        int completionLeft = completionTokens;
+        for (int i = 0; i < items.size(); i++) {
+            Item item = items.get(i);
+            boolean last = i == items.size() - 1;
+            int prompt = last ? promptLeft : (int) (promptTokens * item.weight() / Math.max(1, totalWeight));
+            int completion = last ? completionLeft : (int) (completionTokens * item.weight() / Math.max(1, totalWeight));
+            promptLeft -= prompt;
+            completionLeft -= completion;
+            item.counter.addUsage(CLIENT, response.getMetadata().getModel(), prompt, completion);
+        }
+    }
+
+    /**
+     * 与单独调用的解析结果要求一致，且属性名非空、数据类型合法，保证后续落库不会失败
+     */
+    private boolean isValid(ManualRecordResponse result) {
+        if (result == null || result.getRecords() == null) {
+            return false;
+        }
+        for (ManualRecordResponse.ManualRecordEntry record : result.getRecords()) {
+            if (record == null || record.getAttributes() == null) {
+                return false;
+            }
+            for (ManualRecordResponse.AttributeValue attribute : record.getAttributes()) {
+                if (attribute == null || StringUtils.isBlank(attribute.getAttributeName())
+                        || attribute.getValue() == null || !isKnownDataType(attribute.getDataType())) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isKnownDataType(String dataType) {
+        if (dataType == null) {
+            return false;
+        }
+        try {
+            DataType.valueOf(dataType);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private Counter itemCounter(String outcome) {
+        return Counter.builder(BATCH_METRIC + ".items")
+                .description("属性提取条目数，按合并调用 / 单独调用区分")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static final class Batch {
+        private final List<Item> items = new ArrayList<>();
+    }
+
+    private static final class Item {
+        private final String message;
+        private final String themeName;
+        private final String attributesPrompt;
+        private final TokenCounter counter;
+        private final CompletableFuture<ManualRecordResponse> result = new CompletableFuture<>();
+
+        private Item(String message, String themeName, String attributesPrompt, TokenCounter counter) {
+            this.message = message;
+            this.themeName = themeName;
+            this.attributesPrompt = attributesPrompt;
+            this.counter = counter;
+        }
+
+        private long weight() {
+            return (long) message.length() + attributesPrompt.length();
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.logai.assint.service.impl;
+
+import cn.hutool.core.util.IdUtil;
+import com.logai.assint.dto.RollupTouch;
+import com.logai.assint.entity.UserRecord;
+import com.logai.assint.mapper.UserAttributeRollupMapper;
+import com.logai.assint.mapper.UserRecordMapper;
+import com.logai.assint.service.AttributeRollupService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+
+/**
+ * 数值属性日/周/月汇总维护
+ * <p>
+ * 记录、编辑、删除后只重算受影响的周期（按周期从明细重新聚合，min/max/last 在删除后依然准确），
+ * 全量回填用于首次上线或数据修复。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AttributeRollupServiceImpl implements AttributeRollupService {
+    private static final String BACKFILL_LOCK_KEY = "rollup:backfill:lock";
+    private static final int BACKFILL_PAGE_SIZE = 200;
+
+    private final UserAttributeRollupMapper rollupMapper;
+    private final UserRecordMapper userRecordMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    @Qualifier("rollupBackfillTaskExecutor")
+    private final TaskExecutor backfillTaskExecutor;
+
+    @Value("${assist.rollup.enabled:true}")
+    private boolean enabled;
+
+    @Value("${assist.rollup.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+
+    @Override
+    public void refreshChat(Long userId, Long chatId) {
+        if (!enabled || userId == null || chatId == null) {
+            return;
+        }
+        try {
+            refreshTouches(userId, rollupMapper.findTouchesByChatId(userId, chatId));
+        } catch (Exception e) {
+            // 汇总失败不影响记录结果，可通过回填修复
+            log.warn("刷新对话数值汇总失败 - 用户ID: {}, 聊天ID: {}, 错误: {}", userId, chatId, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void refreshRecordAttribute(Long userId, Long recordId, Long attributeId) {
+        if (!enabled || userId == null || recordId == null || attributeId == null) {
+            return;
+        }
+        try {
+            UserRecord record = userRecordMapper.selectById(recordId);
+            if (record == null) {
+                return;
+            }
+            LocalDateTime eventTime = record.getEventDate() != null ? record.getEventDate() : record.getRecordDate();
+            // 不按数据类型过滤：明细从 NUMBER 改为其他类型时也需要重算
+            refreshTouches(userId, Collections.singletonList(new RollupTouch(attributeId, eventTime)));
+        } catch (Exception e) {
+            log.warn("刷新记录数值汇总失败 - 用户ID: {}, 记录ID: {}, 错误: {}", userId, recordId, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<RollupTouch> collectTouches(Long userId, List<Long> recordIds) {
+        if (!enabled || userId == null || recordIds == null || recordIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return rollupMapper.findTouchesByRecordIds(userId, recordIds);
+    }
+
+    @Override
+    public void refreshTouches(Long userId, List<RollupTouch> touches) {
+        if (!enabled || userId == null || touches == null || touches.isEmpty()) {
+            return;
+        }
+        Set<Bucket> buckets = new LinkedHashSet<>();
+        for (RollupTouch touch : touches) {
+            if (touch.getAttributeId() == null || touch.getEventTime() == null) {
+                continue;
+            }
+            LocalDate date = touch.getEventTime().toLocalDate();
+            for (Granularity granularity : Granularity.values()) {
+                buckets.add(new Bucket(touch.getAttributeId(), granularity, granularity.periodStart(date)));
+            }
+        }
+        for (Bucket bucket : buckets) {
+            try {
+                rollupMapper.deleteBucket(userId, bucket.attributeId(), bucket.granularity().name(), bucket.periodStart());
+                rollupMapper.insertBucket(userId, bucket.attributeId(), bucket.granularity().name(),
+                        bucket.periodStart(), bucket.granularity().periodEnd(bucket.periodStart()));
+            } catch (Exception e) {
+                log.warn("重算数值汇总失败 - 用户ID: {}, 属性ID: {}, 周期: {} {}, 错误: {}",
+                        userId, bucket.attributeId(), bucket.granularity(), bucket.periodStart(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public void backfillUser(Long userId) {
+        Objects.requireNonNull(userId, "User information is missing"); // 用户信息缺失
+        transactionTemplate.executeWithoutResult(status -> {
+            rollupMapper.deleteByUserId(userId);
+            for (Granularity granularity : Granularity.values()) {
+                rollupMapper.backfillUser(userId, granularity.name());
+            }
+        });
+    }
+
+    @Override
+    public void backfillAll() {
+        String token = IdUtil.fastSimpleUUID();
+        Boolean locked = stringRedisTemplate.opsForValue()
+                .setIfAbsent(BACKFILL_LOCK_KEY, token, Duration.ofHours(2));
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("数值汇总回填已在其他实例执行，跳过");
+            return;
+        }
+        long started = System.currentTimeMillis();
+        int users = 0;
+        try {
+            Long afterUserId = 0L;
+            List<Long> userIds;
+            do {
+                userIds = rollupMapper.findUserIdsWithNumbers(afterUserId, BACKFILL_PAGE_SIZE);
+                for (Long userId : userIds) {
+                    try {
+                        backfillUser(userId);
+                        users++;
+                    } catch (Exception e) {
+                        log.error("回填用户数值汇总失败 - 用户ID: {}, 错误: {}", userId, e.getMessage(), e);
+                    }
+                    afterUserId = userId;
+                }
+            } while (userIds.size() == BACKFILL_PAGE_SIZE);
+            log.info("数值汇总回填完成 - 用户数: {}, 耗时: {}ms", users, System.currentTimeMillis() - started);
+        } finally {
+            releaseLock(token);
+        }
+    }
+
+    private void releaseLock(String token) {
+        try {
+            // 锁已过期并被其他实例获取时不能误删
+            if (Objects.equals(token, stringRedisTemplate.opsForValue().get(BACKFILL_LOCK_KEY))) {
+                stringRedisTemplate.delete(BACKFILL_LOCK_KEY);
+            }
+        } catch (Exception e) {
+            log.warn("释放数值汇总回填锁失败 - 错误: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!enabled || !backfillOnStartup) {
+            return;
+        }
+        backfillTaskExecutor.execute(this::backfillAll);
+    }
+
+    private enum Granularity {
+        DAY {
+            @Override
+            LocalDate periodStart(LocalDate date) {
+                return date;
+            }
+
+            @Override
+            LocalDate periodEnd(LocalDate start) {
+                return start.plusDays(1);
+            }
+        },
+        WEEK {
+            @Override
+            LocalDate periodStart(LocalDate date) {
+                return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            }
+
+            @Override
+            LocalDate periodEnd(LocalDate start) {
+                return start.plusWeeks(1);
+            }
+        },
+        MONTH {
+            @Override
+            LocalDate periodStart(LocalDate date) {
+                return date.withDayOfMonth(1);
+            }
+
+            @Override
+            LocalDate periodEnd(LocalDate start) {
+                return start.plusMonths(1);
+            }
+        };
+
+        abstract LocalDate periodStart(LocalDate date);
+
+        abstract LocalDate periodEnd(LocalDate start);
+    }
+
+    private record Bucket(Long attributeId, Granularity granularity, LocalDate periodStart) {
+    }
+}
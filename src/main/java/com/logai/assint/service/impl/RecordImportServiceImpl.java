@@ -0,0 +1,879 @@
+package com.logai.assint.service.impl;
+
+import cn.hutool.core.text.csv.CsvData;
+import cn.hutool.core.text.csv.CsvRow;
+import cn.hutool.core.text.csv.CsvUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.logai.assint.dto.ManualRecordResponse;
+import com.logai.assint.dto.RecordImportMapping;
+import com.logai.assint.dto.RecordImportStatus;
+import com.logai.assint.entity.*;
+import com.logai.assint.enums.DataType;
+import com.logai.assint.mapper.*;
+import com.logai.assint.service.AnalysisCacheService;
+import com.logai.assint.service.AttributeRollupService;
+import com.logai.assint.service.RecordImportService;
+import com.logai.assint.service.TokenUsageService;
+import com.logai.assint.util.AiResponseCleaner;
+import com.logai.assint.util.ThemePromptRenderer;
+import com.logai.assint.util.TokenCounter;
+import com.logai.common.exception.BusinessException;
+import com.logai.common.utils.TimeUtil;
+import com.logai.user.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.template.st.StTemplateRenderer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * 批量导入记录
+ * <p>
+ * 上传只做解析校验和落库（同一用户同一文件只建一个任务）后立即返回进度，处理在导入线程池中异步进行。
+ * 条目按批处理：可选的模型归一化只对本批新出现的主题、属性名调用一次，主题和属性按批解析，
+ * 记录和明细用多行 INSERT 写入，任务游标在同一事务内推进。
+ * 实例中断后租约过期由定时任务接管；失败的任务可续传，从游标继续，已提交的批次不会重复写入。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecordImportServiceImpl implements RecordImportService {
+    private static final String CONVERSATION_TYPE = "import";
+    private static final String STATUS_PROCESSING = "processing";
+    private static final String STATUS_COMPLETED = "completed";
+    private static final String STATUS_ERROR = "error";
+    private static final String ENTRY_METRIC = "assist.import.entries";
+    private static final int MAX_ERROR_SAMPLES = 20;
+    private static final int RECOVER_BATCH_SIZE = 20;
+    private static final Pattern HEADER_UNIT = Pattern.compile("^(.+?)\\s*[(（](.+)[)）]$");
+    private static final Pattern NUMBER_VALUE = Pattern.compile("^-?\\d+(\\.\\d+)?$");
+
+    private final RecordImportJobMapper importJobMapper;
+    private final UserChatMapper userChatMapper;
+    private final ThemeMapper themeMapper;
+    private final AttributeMapper attributeMapper;
+    private final UserRecordMapper userRecordMapper;
+    private final UserRecordDetailMapper recordDetailMapper;
+    private final ChatClient importNormalizeChatClient;
+    private final TransactionTemplate transactionTemplate;
+    private final AttributeRollupService attributeRollupService;
+    private final AnalysisCacheService analysisCacheService;
+    private final TokenUsageService tokenUsageService;
+    private final TimeUtil timeUtil;
+    private final MeterRegistry meterRegistry;
+    @Qualifier("recordImportTaskExecutor")
+    private final TaskExecutor importTaskExecutor;
+
+    @Value("${assist.import.max-entries:20000}")
+    private int maxEntries;
+
+    @Value("${assist.import.batch-size:200}")
+    private int batchSize;
+
+    @Value("${assist.import.lease-seconds:300}")
+    private long leaseSeconds;
+
+    @Override
+    public RecordImportStatus submit(User user, String fileName, String format, boolean normalize, String payload) {
+        Objects.requireNonNull(user, "User information is missing"); // 用户信息缺失
+        if (StringUtils.isBlank(payload)) {
+            throw BusinessException.validationError("file", "Import file is empty"); // 导入文件为空
+        }
+        RecordImportJob.Format resolvedFormat = resolveFormat(fileName, format);
+        // 文件级错误（如 CSV 缺少 theme 列）直接拒绝；单条错误在处理时跳过并记录原因
+        int total = parse(resolvedFormat, payload).size();
+        if (total == 0) {
+            throw BusinessException.validationError("file", "Import file contains no entries"); // 导入文件没有可导入的条目
+        }
+        if (total > maxEntries) {
+            throw BusinessException.validationError("file",
+                    String.format("Import file exceeds the limit of %d entries", maxEntries)); // 超过单次导入条数上限
+        }
+
+        String payloadHash = DigestUtil.sha256Hex(resolvedFormat.name() + ":" + payload);
+        RecordImportJob existing = importJobMapper.findByUserIdAndPayloadHash(user.getId(), payloadHash);
+        if (existing != null) {
+            log.info("重复上传的导入文件，返回已有任务 - 用户ID: {}, 任务ID: {}", user.getId(), existing.getId());
+            return toStatus(existing);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        RecordImportJob job = new RecordImportJob();
+        job.setId(IdWorker.getId());
+        job.setUserId(user.getId());
+        job.setFormat(resolvedFormat);
+        job.setNormalize(normalize);
+        job.setTimeZone(user.getTimeZone());
+        job.setPayload(payload);
+        job.setPayloadHash(payloadHash);
+        job.setStatus(RecordImportJob.Status.RECEIVED);
+        job.setTotalEntries(total);
+        job.setNextEntry(0);
+        job.setImportedRecords(0);
+        job.setSkippedEntries(0);
+        job.setAttempts(0);
+        job.setCreatedAt(now);
+        job.setUpdatedAt(now);
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                UserChat chat = new UserChat();
+                chat.setUserId(user.getId());
+                chat.setOriginalContent(String.format("导入 %s（%d 条）", StringUtils.defaultIfBlank(fileName, resolvedFormat.name()), total));
+                chat.setConversationType(CONVERSATION_TYPE);
+                chat.setStatus(STATUS_PROCESSING);
+                chat.setRecordDate(LocalDate.now());
+                chat.setCreatedAt(now);
+                chat.setUpdatedAt(now);
+                userChatMapper.insert(chat);
+                job.setChatId(chat.getId());
+                importJobMapper.insert(job);
+            });
+        } catch (DuplicateKeyException e) {
+            // 并发重复上传同一文件
+            RecordImportJob raced = importJobMapper.findByUserIdAndPayloadHash(user.getId(), payloadHash);
+            if (raced != null) {
+                return toStatus(raced);
+            }
+            throw e;
+        }
+        log.info("导入任务已创建 - 用户ID: {}, 任务ID: {}, 格式: {}, 条目数: {}, 归一化: {}",
+                user.getId(), job.getId(), resolvedFormat, total, normalize);
+        dispatch(job.getId());
+        return toStatus(job);
+    }
+
+    @Override
+    public RecordImportStatus getStatus(Long userId, Long jobId) {
+        return toStatus(findOwnedJob(userId, jobId));
+    }
+
+    @Override
+    public RecordImportStatus resume(Long userId, Long jobId) {
+        RecordImportJob job = findOwnedJob(userId, jobId);
+        if (job.getStatus() == RecordImportJob.Status.DONE) {
+            return toStatus(job);
+        }
+        if (job.getStatus() == RecordImportJob.Status.FAILED) {
+            importJobMapper.requeue(jobId, userId, LocalDateTime.now());
+            log.info("导入任务重新排队 - 用户ID: {}, 任务ID: {}, 进度: {}/{}",
+                    userId, jobId, job.getNextEntry(), job.getTotalEntries());
+        }
+        // 处理中的任务由抢占条件保证不会被重复执行
+        dispatch(jobId);
+        return toStatus(importJobMapper.selectById(jobId));
+    }
+
+    /**
+     * 接管待处理和租约过期的任务（线程池已满未能提交、或处理实例中断）
+     */
+    @Scheduled(fixedDelayString = "${assist.import.recover-interval-ms:30000}")
+    public void recover() {
+        try {
+            for (Long jobId : importJobMapper.findRecoverableIds(LocalDateTime.now(), RECOVER_BATCH_SIZE)) {
+                dispatch(jobId);
+            }
+        } catch (Exception e) {
+            log.error("导入任务恢复失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void dispatch(Long jobId) {
+        try {
+            importTaskExecutor.execute(() -> runQuietly(jobId));
+        } catch (TaskRejectedException e) {
+            // 任务保持原状态，由定时任务稍后接管
+            log.warn("导入线程池已满，稍后处理 - 任务ID: {}", jobId);
+        }
+    }
+
+    private void runQuietly(Long jobId) {
+        try {
+            run(jobId);
+        } catch (Exception e) {
+            log.error("导入任务处理异常 - 任务ID: {}, 错误: {}", jobId, e.getMessage(), e);
+        }
+    }
+
+    private void run(Long jobId) {
+        String owner = IdUtil.fastSimpleUUID();
+        LocalDateTime now = LocalDateTime.now();
+        if (importJobMapper.claim(jobId, owner, now.plusSeconds(leaseSeconds), now) == 0) {
+            return;
+        }
+        RecordImportJob job = importJobMapper.selectById(jobId);
+        job.setLeaseOwner(owner);
+        log.info("开始处理导入任务 - 任务ID: {}, 用户ID: {}, 进度: {}/{}",
+                jobId, job.getUserId(), job.getNextEntry(), job.getTotalEntries());
+        try {
+            if (!process(job)) {
+                log.warn("导入任务租约已被其他实例接管，停止处理 - 任务ID: {}", jobId);
+                return;
+            }
+        } catch (Exception e) {
+            log.error("导入任务处理失败，可续传 - 任务ID: {}, 进度: {}/{}, 错误: {}",
+                    jobId, job.getNextEntry(), job.getTotalEntries(), e.getMessage(), e);
+            importJobMapper.release(jobId, owner, RecordImportJob.Status.FAILED,
+                    StringUtils.abbreviate(e.getMessage(), 1000), null, LocalDateTime.now());
+            updateChat(job, STATUS_ERROR, null, e.getMessage());
+            // 失败前已提交的批次同样需要刷新汇总、使分析缓存失效
+            refreshImportedData(job);
+            return;
+        }
+
+        LocalDateTime finishedAt = LocalDateTime.now();
+        importJobMapper.release(jobId, owner, RecordImportJob.Status.DONE, null, finishedAt, finishedAt);
+        job.setStatus(RecordImportJob.Status.DONE);
+        job.setFinishedAt(finishedAt);
+        updateChat(job, STATUS_COMPLETED, JSON.toJSONString(Map.of(
+                "jobId", job.getId(),
+                "importedRecords", job.getImportedRecords(),
+                "skippedEntries", job.getSkippedEntries())), null);
+        refreshImportedData(job);
+        log.info("导入任务完成 - 任务ID: {}, 导入记录: {}, 跳过条目: {}",
+                jobId, job.getImportedRecords(), job.getSkippedEntries());
+    }
+
+    /**
+     * 已有记录写入时刷新该会话的属性汇总并使分析缓存失效，重复刷新无副作用
+     */
+    private void refreshImportedData(RecordImportJob job) {
+        if (job.getImportedRecords() == null || job.getImportedRecords() <= 0) {
+            return;
+        }
+        try {
+            attributeRollupService.refreshChat(job.getUserId(), job.getChatId());
+            analysisCacheService.bumpDataVersion(job.getUserId());
+        } catch (Exception e) {
+            log.error("导入后刷新属性汇总失败 - 任务ID: {}, 错误: {}", job.getId(), e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 从游标处分批处理到结束
+     *
+     * @return false 表示租约已被其他实例接管
+     */
+    private boolean process(RecordImportJob job) {
+        List<ImportEntry> entries = parse(job.getFormat(), job.getPayload());
+        ImportRun run = new ImportRun(job);
+        int cursor = job.getNextEntry();
+        while (cursor < entries.size()) {
+            List<ImportEntry> batch = entries.subList(cursor, Math.min(cursor + batchSize, entries.size()));
+            TokenCounter counter = new TokenCounter();
+            try {
+                if (Boolean.TRUE.equals(job.getNormalize())) {
+                    normalizeBatch(run, batch, counter);
+                }
+            } finally {
+                tokenUsageService.record(job.getUserId(), job.getTimeZone(), job.getChatId(), counter.drainEntries());
+            }
+
+            int nextEntry = cursor + batch.size();
+            Boolean advanced = transactionTemplate.execute(status -> {
+                writeBatch(run, batch);
+                LocalDateTime now = LocalDateTime.now();
+                job.setNextEntry(nextEntry);
+                job.setAttributeMapping(run.mappingJson());
+                job.setErrorSamples(JSON.toJSONString(run.errors));
+                job.setLeaseUntil(now.plusSeconds(leaseSeconds));
+                job.setUpdatedAt(now);
+                if (importJobMapper.advance(job) == 0) {
+                    status.setRollbackOnly();
+                    return false;
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(advanced)) {
+                return false;
+            }
+            cursor = nextEntry;
+        }
+        return true;
+    }
+
+    /**
+     * 写入一批条目：先校验，再按批解析主题和属性，记录和明细各一条多行 INSERT
+     */
+    private void writeBatch(ImportRun run, List<ImportEntry> batch) {
+        RecordImportJob job = run.job;
+        List<PreparedEntry> prepared = new ArrayList<>(batch.size());
+        int skipped = 0;
+        for (ImportEntry entry : batch) {
+            String error = entry.error();
+            LocalDateTime eventDate = null;
+            List<ManualRecordResponse.AttributeValue> attributes = Collections.emptyList();
+            if (error == null) {
+                eventDate = parseEventTime(entry.eventTime());
+                attributes = run.mapAttributes(entry);
+                if (eventDate == null) {
+                    error = "无法解析 eventTime: " + StringUtils.defaultString(entry.eventTime());
+                } else if (attributes.isEmpty()) {
+                    error = "没有可导入的属性";
+                }
+            }
+            if (error != null) {
+                skipped++;
+                run.addError(entry.lineNo(), error);
+            } else {
+                prepared.add(new PreparedEntry(run.themeName(entry.theme()), eventDate, attributes));
+            }
+        }
+
+        resolveThemes(run, prepared);
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime recordDate = timeUtil.getNowInTimezone(job.getTimeZone());
+        List<UserRecord> records = new ArrayList<>(prepared.size());
+        List<UserRecordDetail> details = new ArrayList<>();
+        for (PreparedEntry entry : prepared) {
+            Theme theme = run.themes.get(themeKey(entry.themeName()));
+            UserRecord record = new UserRecord();
+            record.setId(IdWorker.getId());
+            record.setChatId(job.getChatId());
+            record.setThemeId(theme.getId());
+            record.setUserId(job.getUserId());
+            record.setRecordDate(recordDate);
+            record.setEventDate(entry.eventDate());
+            record.setCreatedAt(now);
+            record.setUpdatedAt(now);
+            records.add(record);
+
+            for (ManualRecordResponse.AttributeValue value : entry.attributes()) {
+                Attribute attribute = resolveAttribute(run, theme, value);
+                UserRecordDetail detail = new UserRecordDetail();
+                detail.setId(IdWorker.getId());
+                detail.setRecordId(record.getId());
+                detail.setUserId(job.getUserId());
+                detail.setAttributeId(attribute.getId());
+                detail.setDataType(attribute.getDataType());
+                detail.setGroupId(value.getGroupId());
+                detail.setNumberUnit(value.getUnit());
+                detail.setCreatedAt(now);
+                detail.setUpdatedAt(now);
+                setValueByType(detail, value.getValue(), attribute.getDataType());
+                details.add(detail);
+            }
+        }
+
+        if (!records.isEmpty()) {
+            userRecordMapper.insertBatch(records);
+        }
+        if (!details.isEmpty()) {
+            recordDetailMapper.insertBatch(details);
+        }
+        job.setImportedRecords(job.getImportedRecords() + records.size());
+        job.setSkippedEntries(job.getSkippedEntries() + skipped);
+        entryCounter("imported").increment(records.size());
+        entryCounter("skipped").increment(skipped);
+    }
+
+    /**
+     * 解析本批用到的主题，并一次性加载这些主题下的属性
+     */
+    private void resolveThemes(ImportRun run, List<PreparedEntry> entries) {
+        List<Long> unloadedThemeIds = new ArrayList<>();
+        for (PreparedEntry entry : entries) {
+            String themeName = entry.themeName();
+            String key = themeKey(themeName);
+            if (run.themes.containsKey(key)) {
+                continue;
+            }
+            Theme theme = themeMapper.queryByThemeNameAndUserId(themeName, run.job.getUserId());
+            if (theme == null) {
+                theme = new Theme();
+                theme.setThemeName(themeName);
+                theme.setDescription("用户自定义主题：" + themeName);
+                theme.setUserId(run.job.getUserId());
+                theme.setIsPublic(0);
+                theme.setStatus(0);
+                theme.setCreatedAt(LocalDateTime.now());
+                theme.setUpdatedAt(LocalDateTime.now());
+                themeMapper.insert(theme);
+            }
+            run.themes.put(key, theme);
+            if (!run.attributes.containsKey(theme.getId())) {
+                run.attributes.put(theme.getId(), new HashMap<>());
+                unloadedThemeIds.add(theme.getId());
+            }
+        }
+        if (unloadedThemeIds.isEmpty()) {
+            return;
+        }
+        for (Attribute attribute : attributeMapper.findByThemeIds(unloadedThemeIds, run.job.getUserId())) {
+            run.attributes.get(attribute.getThemeId()).putIfAbsent(themeKey(attribute.getAttributeName()), attribute);
+        }
+    }
+
+    private Attribute resolveAttribute(ImportRun run, Theme theme, ManualRecordResponse.AttributeValue value) {
+        Map<String, Attribute> themeAttributes = run.attributes.get(theme.getId());
+        String key = themeKey(value.getAttributeName());
+        Attribute attribute = themeAttributes.get(key);
+        if (attribute != null) {
+            return attribute;
+        }
+        attribute = new Attribute();
+        attribute.setThemeId(theme.getId());
+        attribute.setUserId(run.job.getUserId());
+        attribute.setAttributeName(value.getAttributeName());
+        attribute.setDataType(isKnownDataType(value.getDataType())
+                ? DataType.valueOf(value.getDataType())
+                : inferDataType(value.getValue()));
+        attribute.setDescription("用户自定义属性：" + value.getAttributeName());
+        attribute.setDisplayOrder(0);
+        attribute.setStatus(0);
+        attribute.setCreatedAt(LocalDateTime.now());
+        attribute.setUpdatedAt(LocalDateTime.now());
+        attributeMapper.insert(attribute);
+        themeAttributes.put(key, attribute);
+        return attribute;
+    }
+
+    /**
+     * 归一化本批中尚未映射过的主题、属性名：每个名称在整个任务中只交给模型一次，映射随游标一起持久化
+     */
+    private void normalizeBatch(ImportRun run, List<ImportEntry> batch, TokenCounter counter) {
+        Map<String, Map<String, String>> pending = new LinkedHashMap<>();
+        for (ImportEntry entry : batch) {
+            if (entry.error() != null) {
+                continue;
+            }
+            RecordImportMapping.ThemeMapping themeMapping = run.mapping.get(entry.theme());
+            for (ManualRecordResponse.AttributeValue value : entry.attributes()) {
+                if (themeMapping == null || themeMapping.getAttributes().stream()
+                        .noneMatch(mapped -> value.getAttributeName().equals(mapped.getSource()))) {
+                    pending.computeIfAbsent(entry.theme(), key -> new LinkedHashMap<>())
+                            .putIfAbsent(value.getAttributeName(), StringUtils.abbreviate(value.getValue(), 64));
+                }
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<Theme> themes = themeMapper.queryByUserIdOrIsPublic(run.job.getUserId());
+        Map<Long, List<Attribute>> attributesByTheme = themes.isEmpty()
+                ? Collections.emptyMap()
+                : attributeMapper.findByThemeIds(themes.stream().map(Theme::getId).toList(), run.job.getUserId()).stream()
+                .collect(Collectors.groupingBy(Attribute::getThemeId));
+        String catalogPrompt = ThemePromptRenderer.renderThemeCatalog(themes, attributesByTheme);
+
+        List<Map<String, Object>> request = new ArrayList<>();
+        pending.forEach((source, attributes) -> request.add(Map.of(
+                "source", source,
+                "attributes", attributes.entrySet().stream()
+                        .map(attribute -> Map.of("source", attribute.getKey(), "sample", StringUtils.defaultString(attribute.getValue())))
+                        .toList())));
+
+        RecordImportMapping response;
+        String content = null;
+        try {
+            ChatResponse chatResponse = importNormalizeChatClient.prompt()
+                    .templateRenderer(StTemplateRenderer.builder().startDelimiterToken('<').endDelimiterToken('>').build())
+                    .system(prompt -> prompt.param("themesPrompt", catalogPrompt))
+                    .user(JSON.toJSONString(request))
+                    .call()
+                    .chatResponse();
+            if (chatResponse != null && chatResponse.getMetadata().getUsage() != null) {
+                var usage = chatResponse.getMetadata().getUsage();
+                counter.addUsage("importNormalize", chatResponse.getMetadata().getModel(),
+                        Optional.ofNullable(usage.getPromptTokens()).orElse(0),
+                        Optional.ofNullable(usage.getCompletionTokens()).orElse(0));
+            }
+            content = AiResponseCleaner.extractJsonString(chatResponse.getResult().getOutput().getText());
+            log.info("AI返回的导入归一化结果: {}", content);
+            response = JSON.parseObject(content, RecordImportMapping.class);
+        } catch (Exception e) {
+            log.error("导入归一化失败 - 任务ID: {}, 内容: {}, 错误: {}", run.job.getId(), content, e.getMessage(), e);
+            throw BusinessException.aiServiceError("ImportNormalization",
+                    String.format("Import normalization failed: %s", e.getMessage())); // 导入归一化失败
+        }
+        run.merge(pending, response);
+    }
+
+    private RecordImportJob.Format resolveFormat(String fileName, String format) {
+        String value = StringUtils.isNotBlank(format) ? format : StringUtils.substringAfterLast(StringUtils.defaultString(fileName), ".");
+        switch (StringUtils.lowerCase(StringUtils.trimToEmpty(value), Locale.ROOT)) {
+            case "csv":
+                return RecordImportJob.Format.CSV;
+            case "jsonl":
+            case "ndjson":
+            case "json":
+                return RecordImportJob.Format.JSONL;
+            default:
+                throw BusinessException.validationError("format", "Unsupported import format, use csv or jsonl"); // 不支持的导入格式
+        }
+    }
+
+    private List<ImportEntry> parse(RecordImportJob.Format format, String payload) {
+        String content = StringUtils.removeStart(payload, "\uFEFF");
+        return format == RecordImportJob.Format.CSV ? parseCsv(content) : parseJsonLines(content);
+    }
+
+    /**
+     * 每行一个对象：{"theme": "...", "eventTime": "...", "attributes": [{"attributeName", "value", "unit", "dataType", "groupId"}]}，
+     * attributes 也可以写成 {"属性名": 值} 的简写
+     */
+    private List<ImportEntry> parseJsonLines(String content) {
+        String[] lines = content.split("\\r?\\n");
+        List<ImportEntry> entries = new ArrayList<>();
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i].trim();
+            if (line.isEmpty()) {
+                continue;
+            }
+            int lineNo = i + 1;
+            try {
+                JSONObject object = JSON.parseObject(line);
+                List<ManualRecordResponse.AttributeValue> attributes = new ArrayList<>();
+                Object raw = object.get("attributes");
+                if (raw instanceof JSONArray array) {
+                    attributes.addAll(array.toJavaList(ManualRecordResponse.AttributeValue.class));
+                } else if (raw instanceof JSONObject map) {
+                    map.forEach((name, value) -> attributes.add(attributeValue(name, value == null ? null : String.valueOf(value), null)));
+                }
+                entries.add(entry(lineNo, object.getString("theme"), object.getString("eventTime"), attributes));
+            } catch (Exception e) {
+                entries.add(new ImportEntry(lineNo, null, null, Collections.emptyList(), "无法解析 JSON"));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * 首行为表头：theme、eventTime 两列，其余列都是属性，"名称 (单位)" 表示带单位
+     */
+    private List<ImportEntry> parseCsv(String content) {
+        List<CsvRow> rows;
+        try {
+            CsvData data = CsvUtil.getReader().readFromStr(content);
+            rows = data.getRows();
+        } catch (RuntimeException e) {
+            throw BusinessException.validationError("file", "Invalid CSV file: " + e.getMessage()); // CSV 文件格式错误
+        }
+        if (rows.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> header = rows.get(0).getRawList();
+        int themeColumn = -1;
+        int eventTimeColumn = -1;
+        Map<Integer, String[]> attributeColumns = new LinkedHashMap<>();
+        for (int i = 0; i < header.size(); i++) {
+            String name = StringUtils.trimToEmpty(header.get(i));
+            if ("theme".equalsIgnoreCase(name)) {
+                themeColumn = i;
+            } else if ("eventTime".equalsIgnoreCase(name) || "event_time".equalsIgnoreCase(name)) {
+                eventTimeColumn = i;
+            } else if (!name.isEmpty()) {
+                Matcher matcher = HEADER_UNIT.matcher(name);
+                attributeColumns.put(i, matcher.matches()
+                        ? new String[]{matcher.group(1).trim(), matcher.group(2).trim()}
+                        : new String[]{name, null});
+            }
+        }
+        if (themeColumn < 0 || eventTimeColumn < 0) {
+            throw BusinessException.validationError("file", "CSV header must contain theme and eventTime columns"); // CSV 表头缺少 theme 或 eventTime 列
+        }
+
+        List<ImportEntry> entries = new ArrayList<>();
+        for (int r = 1; r < rows.size(); r++) {
+            List<String> cells = rows.get(r).getRawList();
+            if (cells.stream().allMatch(StringUtils::isBlank)) {
+                continue;
+            }
+            List<ManualRecordResponse.AttributeValue> attributes = new ArrayList<>();
+            for (Map.Entry<Integer, String[]> column : attributeColumns.entrySet()) {
+                String value = cell(cells, column.getKey());
+                if (StringUtils.isNotBlank(value)) {
+                    attributes.add(attributeValue(column.getValue()[0], value, column.getValue()[1]));
+                }
+            }
+            entries.add(entry(r + 1, cell(cells, themeColumn), cell(cells, eventTimeColumn), attributes));
+        }
+        return entries;
+    }
+
+    private ImportEntry entry(int lineNo, String theme, String eventTime, List<ManualRecordResponse.AttributeValue> attributes) {
+        if (StringUtils.isBlank(theme)) {
+            return new ImportEntry(lineNo, null, eventTime, Collections.emptyList(), "缺少 theme");
+        }
+        List<ManualRecordResponse.AttributeValue> valid = new ArrayList<>(attributes.size());
+        for (ManualRecordResponse.AttributeValue value : attributes) {
+            if (value != null && StringUtils.isNotBlank(value.getAttributeName()) && StringUtils.isNotBlank(value.getValue())) {
+                value.setAttributeName(value.getAttributeName().trim());
+                valid.add(value);
+            }
+        }
+        return new ImportEntry(lineNo, theme.trim(), StringUtils.trimToNull(eventTime), valid, null);
+    }
+
+    private ManualRecordResponse.AttributeValue attributeValue(String name, String value, String unit) {
+        ManualRecordResponse.AttributeValue attributeValue = new ManualRecordResponse.AttributeValue();
+        attributeValue.setAttributeName(name);
+        attributeValue.setValue(value);
+        attributeValue.setUnit(unit);
+        return attributeValue;
+    }
+
+    private String cell(List<String> cells, int index) {
+        return index < cells.size() ? StringUtils.trimToNull(cells.get(index)) : null;
+    }
+
+    private LocalDateTime parseEventTime(String eventTime) {
+        LocalDateTime parsed = timeUtil.tryParseFlexibleDateTime(eventTime);
+        if (parsed != null) {
+            return parsed;
+        }
+        LocalDate date = timeUtil.tryParseFlexibleDate(eventTime);
+        return date == null ? null : date.atStartOfDay();
+    }
+
+    private DataType inferDataType(String value) {
+        String trimmed = StringUtils.trimToEmpty(value);
+        if ("true".equalsIgnoreCase(trimmed) || "false".equalsIgnoreCase(trimmed)) {
+            return DataType.BOOLEAN;
+        }
+        if (NUMBER_VALUE.matcher(trimmed).matches()) {
+            return DataType.NUMBER;
+        }
+        if (timeUtil.tryParseFlexibleDateTime(trimmed) != null) {
+            return DataType.DATETIME;
+        }
+        if (timeUtil.tryParseFlexibleDate(trimmed) != null) {
+            return DataType.DATE;
+        }
+        return DataType.STRING;
+    }
+
+    private boolean isKnownDataType(String dataType) {
+        if (StringUtils.isBlank(dataType)) {
+            return false;
+        }
+        try {
+            DataType.valueOf(dataType.trim().toUpperCase(Locale.ROOT));
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 按属性的数据类型写入明细值，解析失败时保留原文
+     */
+    private void setValueByType(UserRecordDetail detail, String value, DataType dataType) {
+        switch (dataType) {
+            case NUMBER -> {
+                try {
+                    detail.setNumberValue(Double.parseDouble(value.trim()));
+                } catch (NumberFormatException e) {
+                    detail.setStringValue(value);
+                }
+            }
+            case BOOLEAN -> detail.setBooleanValue(Boolean.parseBoolean(value.trim()));
+            case DATE, DATETIME -> {
+                LocalDateTime parsed = parseEventTime(value.trim());
+                if (parsed != null) {
+                    detail.setDateValue(parsed);
+                } else {
+                    detail.setStringValue(value);
+                }
+            }
+            default -> detail.setStringValue(value);
+        }
+    }
+
+    private void updateChat(RecordImportJob job, String status, String aiResponse, String errorReason) {
+        UserChat chat = new UserChat();
+        chat.setId(job.getChatId());
+        chat.setStatus(status);
+        chat.setAiResponse(aiResponse);
+        chat.setErrorReason(errorReason);
+        chat.setUpdatedAt(LocalDateTime.now());
+        userChatMapper.updateById(chat);
+    }
+
+    private RecordImportJob findOwnedJob(Long userId, Long jobId) {
+        RecordImportJob job = jobId == null ? null : importJobMapper.selectById(jobId);
+        if (job == null || !job.getUserId().equals(userId)) {
+            throw BusinessException.notFound("RecordImportJob", jobId);
+        }
+        return job;
+    }
+
+    private RecordImportStatus toStatus(RecordImportJob job) {
+        RecordImportStatus status = new RecordImportStatus();
+        status.setJobId(job.getId());
+        status.setChatId(job.getChatId());
+        status.setStatus(job.getStatus().name());
+        status.setFormat(job.getFormat().name());
+        status.setNormalize(job.getNormalize());
+        status.setTotalEntries(job.getTotalEntries());
+        status.setProcessedEntries(job.getNextEntry());
+        status.setImportedRecords(job.getImportedRecords());
+        status.setSkippedEntries(job.getSkippedEntries());
+        status.setErrors(StringUtils.isBlank(job.getErrorSamples())
+                ? Collections.emptyList()
+                : JSON.parseArray(job.getErrorSamples(), String.class));
+        status.setLastError(job.getLastError());
+        status.setCreatedAt(job.getCreatedAt());
+        status.setFinishedAt(job.getFinishedAt());
+        return status;
+    }
+
+    private Counter entryCounter(String result) {
+        return Counter.builder(ENTRY_METRIC)
+                .description("批量导入处理的条目数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static String themeKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 文件中的一条记录；error 非空表示该条无法导入，处理时计入跳过
+     */
+    private record ImportEntry(int lineNo, String theme, String eventTime,
+                               List<ManualRecordResponse.AttributeValue> attributes, String error) {
+    }
+
+    /**
+     * 校验通过、已完成名称映射的条目
+     */
+    private record PreparedEntry(String themeName, LocalDateTime eventDate,
+                                 List<ManualRecordResponse.AttributeValue> attributes) {
+    }
+
+    /**
+     * 单次处理过程中的状态：名称映射、跳过原因样例，以及已解析的主题和属性
+     */
+    private static final class ImportRun {
+        private final RecordImportJob job;
+        private final Map<String, RecordImportMapping.ThemeMapping> mapping = new LinkedHashMap<>();
+        private final List<String> errors;
+        private final Map<String, Theme> themes = new HashMap<>();
+        private final Map<Long, Map<String, Attribute>> attributes = new HashMap<>();
+
+        private ImportRun(RecordImportJob job) {
+            this.job = job;
+            if (StringUtils.isNotBlank(job.getAttributeMapping())) {
+                RecordImportMapping saved = JSON.parseObject(job.getAttributeMapping(), RecordImportMapping.class);
+                if (saved != null && saved.getThemes() != null) {
+                    saved.getThemes().forEach(themeMapping -> mapping.put(themeMapping.getSource(), themeMapping));
+                }
+            }
+            this.errors = StringUtils.isBlank(job.getErrorSamples())
+                    ? new ArrayList<>()
+                    : new ArrayList<>(JSON.parseArray(job.getErrorSamples(), String.class));
+        }
+
+        private String themeName(String source) {
+            RecordImportMapping.ThemeMapping themeMapping = mapping.get(source);
+            return themeMapping != null && StringUtils.isNotBlank(themeMapping.getTheme()) ? themeMapping.getTheme() : source;
+        }
+
+        /**
+         * 按映射改写属性名；文件中显式给出的数据类型、单位优先于映射
+         */
+        private List<ManualRecordResponse.AttributeValue> mapAttributes(ImportEntry entry) {
+            RecordImportMapping.ThemeMapping themeMapping = mapping.get(entry.theme());
+            List<ManualRecordResponse.AttributeValue> mapped = new ArrayList<>(entry.attributes().size());
+            for (ManualRecordResponse.AttributeValue value : entry.attributes()) {
+                RecordImportMapping.AttributeMapping attributeMapping = themeMapping == null ? null : themeMapping.getAttributes().stream()
+                        .filter(candidate -> value.getAttributeName().equals(candidate.getSource()))
+                        .findFirst()
+                        .orElse(null);
+                ManualRecordResponse.AttributeValue target = new ManualRecordResponse.AttributeValue();
+                target.setAttributeName(attributeMapping != null && StringUtils.isNotBlank(attributeMapping.getAttributeName())
+                        ? attributeMapping.getAttributeName().trim()
+                        : value.getAttributeName());
+                target.setValue(value.getValue());
+                target.setGroupId(value.getGroupId());
+                target.setDataType(StringUtils.isNotBlank(value.getDataType()) || attributeMapping == null
+                        ? StringUtils.upperCase(StringUtils.trimToNull(value.getDataType()), Locale.ROOT)
+                        : StringUtils.upperCase(StringUtils.trimToNull(attributeMapping.getDataType()), Locale.ROOT));
+                target.setUnit(StringUtils.isNotBlank(value.getUnit()) || attributeMapping == null
+                        ? value.getUnit()
+                        : attributeMapping.getUnit());
+                mapped.add(target);
+            }
+            return mapped;
+        }
+
+        /**
+         * 合并模型返回的映射；模型遗漏的名称按原名记入，避免下一批重复归一化
+         */
+        private void merge(Map<String, Map<String, String>> pending, RecordImportMapping response) {
+            Map<String, RecordImportMapping.ThemeMapping> returned = new HashMap<>();
+            if (response != null && response.getThemes() != null) {
+                response.getThemes().stream()
+                        .filter(themeMapping -> themeMapping != null && themeMapping.getSource() != null)
+                        .forEach(themeMapping -> returned.putIfAbsent(themeMapping.getSource(), themeMapping));
+            }
+            pending.forEach((source, attributeSamples) -> {
+                RecordImportMapping.ThemeMapping themeMapping = mapping.computeIfAbsent(source, key -> {
+                    RecordImportMapping.ThemeMapping created = new RecordImportMapping.ThemeMapping();
+                    created.setSource(key);
+                    RecordImportMapping.ThemeMapping fromModel = returned.get(key);
+                    created.setTheme(fromModel != null && StringUtils.isNotBlank(fromModel.getTheme())
+                            ? StringUtils.abbreviate(fromModel.getTheme().trim(), 100)
+                            : key);
+                    created.setAttributes(new ArrayList<>());
+                    return created;
+                });
+                RecordImportMapping.ThemeMapping fromModel = returned.get(source);
+                for (String attributeSource : attributeSamples.keySet()) {
+                    RecordImportMapping.AttributeMapping attributeMapping = fromModel == null || fromModel.getAttributes() == null
+                            ? null
+                            : fromModel.getAttributes().stream()
+                            .filter(candidate -> candidate != null && attributeSource.equals(candidate.getSource()))
+                            .findFirst()
+                            .orElse(null);
+                    if (attributeMapping == null) {
+                        attributeMapping = new RecordImportMapping.AttributeMapping();
+                        attributeMapping.setSource(attributeSource);
+                        attributeMapping.setAttributeName(attributeSource);
+                    }
+                    themeMapping.getAttributes().add(attributeMapping);
+                }
+            });
+        }
+
+        private String mappingJson() {
+            if (mapping.isEmpty()) {
+                return null;
+            }
+            RecordImportMapping saved = new RecordImportMapping();
+            saved.setThemes(new ArrayList<>(mapping.values()));
+            return JSON.toJSONString(saved);
+        }
+
+        private void addError(int lineNo, String error) {
+            if (errors.size() < MAX_ERROR_SAMPLES) {
+                errors.add(String.format("第 %d 行：%s", lineNo, error));
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.logai.assint.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logai.assint.mapper.UserChatMapper;
+import com.logai.assint.service.RecordStatusService;
+import com.logai.assint.service.UserRecordService;
+import com.logai.common.model.Result;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 记录意图完成通知
+ * <p>
+ * 记录任务结束后由工作线程把最终结果写入 Redis 并通过 pub/sub 广播 chatId，
+ * 任意实例上挂起的长轮询请求收到广播后直接返回结果，无需客户端反复轮询 searchUserRecords。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RecordStatusServiceImpl implements RecordStatusService, MessageListener {
+    private static final String STATUS_PROCESSING = "processing";
+    private static final String CHANNEL = "record_status:channel";
+    private static final String RESULT_KEY_PREFIX = "record_status:result:";
+
+    private final UserRecordService userRecordService;
+    private final UserChatMapper userChatMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer redisMessageListenerContainer;
+    private final ObjectMapper objectMapper;
+    @Qualifier("recordStatusTaskExecutor")
+    private final TaskExecutor recordStatusTaskExecutor;
+
+    /**
+     * 本实例上挂起的等待方，按 chatId 分组
+     */
+    private final Map<String, List<Waiter>> waiters = new ConcurrentHashMap<>();
+
+    @Value("${assist.record-status.wait-timeout:25000}")
+    private long waitTimeoutMs;
+
+    @Value("${assist.record-status.result-ttl:300}")
+    private long resultTtlSeconds;
+
+    @PostConstruct
+    public void subscribe() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public DeferredResult<Result> awaitUserRecord(String chatId, Long userId, String allAttribute) {
+        Objects.requireNonNull(userId, "User information is missing"); // 用户信息缺失
+        DeferredResult<Result> deferred = new DeferredResult<>(waitTimeoutMs,
+                () -> Result.success(processingPayload()));
+
+        String status = userChatMapper.findStatusByChatIdAndUserId(chatId, userId);
+        if (StringUtils.isEmpty(status)) {
+            throw new RuntimeException("ChatId not found");
+        }
+        if (!STATUS_PROCESSING.equals(status)) {
+            deferred.setResult(Result.success(
+                    userRecordService.getUserRecordByChatIdAndUserId(chatId, userId, allAttribute)));
+            return deferred;
+        }
+
+        Waiter waiter = new Waiter(userId, allAttribute, deferred);
+        waiters.computeIfAbsent(chatId, key -> new CopyOnWriteArrayList<>()).add(waiter);
+        deferred.onCompletion(() -> removeWaiter(chatId, waiter));
+
+        // 注册后再检查一次结果缓存，避免查询状态与注册之间错过广播
+        String cached = stringRedisTemplate.opsForValue().get(RESULT_KEY_PREFIX + chatId);
+        if (cached != null) {
+            completeWaiters(chatId, cached);
+        }
+        return deferred;
+    }
+
+    @Override
+    public void publishCompletion(Long chatId, Long userId) {
+        try {
+            Map<String, Object> payload = userRecordService
+                    .getUserRecordByChatIdAndUserId(String.valueOf(chatId), userId, null);
+            Map<String, Object> message = new HashMap<>();
+            message.put("userId", userId);
+            message.put("payload", payload);
+            stringRedisTemplate.opsForValue().set(RESULT_KEY_PREFIX + chatId,
+                    objectMapper.writeValueAsString(message), resultTtlSeconds, TimeUnit.SECONDS);
+            stringRedisTemplate.convertAndSend(CHANNEL, String.valueOf(chatId));
+        } catch (Exception e) {
+            // 通知失败不影响记录结果，客户端仍可通过 searchUserRecords 查询
+            log.warn("记录完成通知发送失败 - 聊天ID: {}, 错误: {}", chatId, e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String chatId = new String(message.getBody(), StandardCharsets.UTF_8);
+        if (!waiters.containsKey(chatId)) {
+            return;
+        }
+        // 监听线程只负责分发，读取结果和数据库查询在线程池中执行
+        recordStatusTaskExecutor.execute(() -> completeFromCache(chatId));
+    }
+
+    private void completeFromCache(String chatId) {
+        try {
+            String cached = stringRedisTemplate.opsForValue().get(RESULT_KEY_PREFIX + chatId);
+            if (cached == null) {
+                log.warn("收到记录完成广播但结果缓存已失效 - 聊天ID: {}", chatId);
+                return;
+            }
+            completeWaiters(chatId, cached);
+        } catch (Exception e) {
+            log.error("处理记录完成广播失败 - 聊天ID: {}, 错误: {}", chatId, e.getMessage(), e);
+        }
+    }
+
+    private void completeWaiters(String chatId, String cached) {
+        List<Waiter> pending = waiters.remove(chatId);
+        if (pending == null || pending.isEmpty()) {
+            return;
+        }
+        Map<String, Object> message;
+        try {
+            message = objectMapper.readValue(cached, new TypeReference<>() {
+            });
+        } catch (Exception e) {
+            log.error("解析记录完成结果失败 - 聊天ID: {}, 错误: {}", chatId, e.getMessage(), e);
+            pending.forEach(waiter -> waiter.deferred().setErrorResult(e));
+            return;
+        }
+        Long ownerId = message.get("userId") == null ? null : Long.valueOf(message.get("userId").toString());
+        for (Waiter waiter : pending) {
+            if (!Objects.equals(ownerId, waiter.userId())) {
+                // 等待方已从列表移除，必须在这里结束，否则会一直挂到超时
+                waiter.deferred().setErrorResult(new RuntimeException("ChatId not found"));
+                continue;
+            }
+            try {
+                // 缓存结果按默认属性范围生成，请求全部属性时单独查询一次
+                Object payload = "1".equals(waiter.allAttribute())
+                        ? userRecordService.getUserRecordByChatIdAndUserId(chatId, waiter.userId(), waiter.allAttribute())
+                        : message.get("payload");
+                waiter.deferred().setResult(Result.success(payload));
+            } catch (Exception e) {
+                waiter.deferred().setErrorResult(e);
+            }
+        }
+    }
+
+    private void removeWaiter(String chatId, Waiter waiter) {
+        waiters.computeIfPresent(chatId, (key, list) -> {
+            list.remove(waiter);
+            return list.isEmpty() ? null : list;
+        });
+    }
+
+    private Map<String, Object> processingPayload() {
+        Map<String, Object> payload = new HashMap<>();
+        payload.put("records", Collections.emptyList());
+        payload.put("total", 0L);
+        payload.put("status", STATUS_PROCESSING);
+        return payload;
+    }
+
+    private record Waiter(Long userId, String allAttribute, DeferredResult<Result> deferred) {
+    }
+}
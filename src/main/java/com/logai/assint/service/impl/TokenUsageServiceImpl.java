@@ -0,0 +1,180 @@
+package com.logai.assint.service.impl;
+
+import com.logai.assint.dto.TokenUsageDaily;
+import com.logai.assint.entity.TokenUsageEvent;
+import com.logai.assint.mapper.TokenUsageMapper;
+import com.logai.assint.service.TokenUsageService;
+import com.logai.assint.util.TokenCounter;
+import com.logai.common.utils.TimeUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * token 用量流水
+ * <p>
+ * 调用方只把用量放入有界内存队列，定时批量 INSERT 到 token_usage_event；
+ * 另一个定时任务按游标把新流水累加进 token_usage_daily（用户 / 日 / 模型 / ChatClient），
+ * 游标行 FOR UPDATE 加锁，多实例同时执行时串行，不会重复累加。
+ * 队列满或写库失败时丢弃并计数，用量统计不影响对话主流程。
+ */
+@Slf4j
+@Service
+public class TokenUsageServiceImpl implements TokenUsageService {
+    private static final String CURSOR_NAME = "daily";
+    private static final String UNKNOWN_MODEL = "unknown";
+
+    private final TokenUsageMapper tokenUsageMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TimeUtil timeUtil;
+    private final BlockingQueue<TokenUsageEvent> buffer;
+    private final Counter droppedCounter;
+    private final Counter writtenCounter;
+
+    @Value("${assist.token-usage.batch-size:500}")
+    private int batchSize;
+
+    @Value("${assist.token-usage.rollup-batch-size:5000}")
+    private int rollupBatchSize;
+
+    @Value("${assist.token-usage.settle-seconds:30}")
+    private long settleSeconds;
+
+    public TokenUsageServiceImpl(TokenUsageMapper tokenUsageMapper,
+                                 TransactionTemplate transactionTemplate,
+                                 TimeUtil timeUtil,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${assist.token-usage.buffer-capacity:10000}") int bufferCapacity) {
+        this.tokenUsageMapper = tokenUsageMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.timeUtil = timeUtil;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+        this.droppedCounter = Counter.builder("assist.token_usage.dropped")
+                .description("因缓冲已满或写库失败而丢弃的用量流水")
+                .register(meterRegistry);
+        this.writtenCounter = Counter.builder("assist.token_usage.written")
+                .description("已写入的用量流水")
+                .register(meterRegistry);
+        meterRegistry.gauge("assist.token_usage.buffered", buffer, BlockingQueue::size);
+    }
+
+    @Override
+    public void record(Long userId, String timeZone, Long chatId, List<TokenCounter.UsageEntry> entries) {
+        if (userId == null || entries == null || entries.isEmpty()) {
+            return;
+        }
+        LocalDate today = timeUtil.getNowInTimezone(timeZone).toLocalDate();
+        for (TokenCounter.UsageEntry entry : entries) {
+            TokenUsageEvent event = new TokenUsageEvent();
+            event.setUserId(userId);
+            event.setChatId(chatId);
+            event.setClient(entry.client());
+            event.setModel(StringUtils.defaultIfBlank(entry.model(), UNKNOWN_MODEL));
+            event.setPromptTokens(entry.promptTokens());
+            event.setCompletionTokens(entry.completionTokens());
+            event.setUsageDate(today);
+            if (!buffer.offer(event)) {
+                droppedCounter.increment();
+            }
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${assist.token-usage.flush-interval-ms:2000}")
+    public void flush() {
+        List<TokenUsageEvent> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            // created_at 取写入时间，汇总据此判断流水是否已稳定提交
+            LocalDateTime now = LocalDateTime.now();
+            batch.forEach(event -> event.setCreatedAt(now));
+            try {
+                tokenUsageMapper.insertBatch(batch);
+                writtenCounter.increment(batch.size());
+            } catch (Exception e) {
+                droppedCounter.increment(batch.size());
+                log.warn("写入用量流水失败，丢弃 {} 条 - 错误: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${assist.token-usage.rollup-interval-ms:60000}")
+    public void rollup() {
+        try {
+            Integer rolled;
+            do {
+                rolled = transactionTemplate.execute(status -> rollupOnce());
+            } while (rolled != null && rolled > 0);
+        } catch (Exception e) {
+            log.warn("用量汇总失败 - 错误: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 处理游标之后的一段流水，返回推进的流水区间是否非空（1 / 0）
+     */
+    private int rollupOnce() {
+        Long cursor = tokenUsageMapper.lockCursor(CURSOR_NAME);
+        if (cursor == null) {
+            log.warn("用量汇总游标不存在: {}", CURSOR_NAME);
+            return 0;
+        }
+        Long upperBound = tokenUsageMapper.findRollupUpperBound(cursor,
+                LocalDateTime.now().minusSeconds(settleSeconds), rollupBatchSize);
+        if (upperBound == null || upperBound <= cursor) {
+            return 0;
+        }
+        tokenUsageMapper.rollupRange(cursor, upperBound);
+        tokenUsageMapper.updateCursor(CURSOR_NAME, upperBound);
+        log.debug("用量汇总推进 - 流水区间: ({}, {}]", cursor, upperBound);
+        return 1;
+    }
+
+    @Override
+    public List<TokenUsageDaily> queryDaily(Long userId, LocalDate startDate, LocalDate endDate) {
+        Objects.requireNonNull(userId, "User information is missing"); // 用户信息缺失
+        List<TokenUsageDaily> rolledUp = tokenUsageMapper.findDaily(userId, startDate, endDate);
+        Long cursor = tokenUsageMapper.findCursor(CURSOR_NAME);
+        List<TokenUsageDaily> pending = tokenUsageMapper.findPendingDaily(userId, cursor == null ? 0L : cursor,
+                startDate, endDate);
+        if (pending.isEmpty()) {
+            return rolledUp;
+        }
+        Map<String, TokenUsageDaily> merged = new TreeMap<>();
+        for (TokenUsageDaily row : rolledUp) {
+            merged.put(keyOf(row), row);
+        }
+        for (TokenUsageDaily row : pending) {
+            merged.merge(keyOf(row), row, (existing, extra) -> {
+                existing.setCallCount(existing.getCallCount() + extra.getCallCount());
+                existing.setPromptTokens(existing.getPromptTokens() + extra.getPromptTokens());
+                existing.setCompletionTokens(existing.getCompletionTokens() + extra.getCompletionTokens());
+                existing.setTotalTokens(existing.getTotalTokens() + extra.getTotalTokens());
+                return existing;
+            });
+        }
+        return new ArrayList<>(merged.values());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private String keyOf(TokenUsageDaily row) {
+        return row.getUsageDate() + "|" + row.getModel() + "|" + row.getClient();
+    }
+}
@@ -1,7 +1,10 @@
 package com.logai.assint.service.impl;
 
+import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.convert.Convert;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.logai.assint.dto.RecordDetailDto;
+import com.logai.assint.dto.RollupTouch;
 import com.logai.assint.dto.SaveRecordDetailRequest;
 import com.logai.assint.entity.UserRecord;
 import com.logai.assint.entity.UserRecordDetail;
@@ -9,12 +12,15 @@ import com.logai.assint.jdbc.UserRecordDetailMapperCustom;
 import com.logai.assint.mapper.UserChatMapper;
 import com.logai.assint.mapper.UserRecordDetailMapper;
 import com.logai.assint.mapper.UserRecordMapper;
+import com.logai.assint.service.AnalysisCacheService;
+import com.logai.assint.service.AttributeRollupService;
 import com.logai.assint.service.UserRecordService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 
 import java.math.BigDecimal;
@@ -22,6 +28,8 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -31,6 +39,8 @@ import java.util.Objects;
 @Service
 @RequiredArgsConstructor
 public class UserRecordServiceImpl implements UserRecordService {
+    private static final String STATUS_PROCESSING = "processing";
+    private static final int DELETE_CHUNK_SIZE = 500;
     private static final List<DateTimeFormatter> SUPPORTED_DATE_TIME_FORMATTERS = List.of(
             DateTimeFormatter.ISO_DATE_TIME,
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss"),
@@ -49,16 +59,19 @@ public class UserRecordServiceImpl implements UserRecordService {
     private final UserRecordDetailMapperCustom userRecordDetailMapperCustom;
     private final UserRecordMapper userRecordMapper;
     private final UserChatMapper userChatMapper;
+    private final AnalysisCacheService analysisCacheService;
+    private final AttributeRollupService attributeRollupService;
 
     @Override
     public Map<String, Object> getUserRecordByChatIdAndUserId(String chatId, Long userId, String allAttribute) {
-        List<RecordDetailDto> records = userRecordDetailMapperCustom
-                .getUserRecordByChatIdAndUserId(chatId, userId, allAttribute);
-
         String status = userChatMapper.findStatusByChatIdAndUserId(chatId, userId);
         if (StringUtils.isEmpty(status)) {
             throw new RuntimeException("ChatId not found");
         }
+        // 处理中的记录在事务提交前不可见，无需执行明细联表查询
+        List<RecordDetailDto> records = STATUS_PROCESSING.equals(status)
+                ? Collections.emptyList()
+                : userRecordDetailMapperCustom.getUserRecordByChatIdAndUserId(chatId, userId, allAttribute);
         long total = records.stream()
                 .map(RecordDetailDto::getRecordId)
                 .filter(Objects::nonNull)
@@ -92,7 +105,7 @@ public class UserRecordServiceImpl implements UserRecordService {
 
         Long total = userRecordDetailMapperCustom
                 .countUserRecords(userId, themeId, trimmedSearch, numericSearchValue,
-                        searchDate, searchDateTime, startTime, endTime);
+                        searchDate, searchDateTime, startTime, endTime, allAttribute);
         Map<String, Object> payload = new HashMap<>();
         payload.put("records", records);
         payload.put("total", total);
@@ -111,6 +124,7 @@ public class UserRecordServiceImpl implements UserRecordService {
             UserRecordDetail newDetail = new UserRecordDetail();
             newDetail.setRecordId(req.getRecordId());
             newDetail.setAttributeId(req.getAttributeId());
+            newDetail.setUserId(userId);
             newDetail.setCreatedAt(LocalDateTime.now());
             newDetail.setUpdatedAt(LocalDateTime.now());
             applyNewValue(newDetail, req);
@@ -126,9 +140,12 @@ public class UserRecordServiceImpl implements UserRecordService {
                 throw new IllegalArgumentException("Record ID does not match the detail"); // 记录ID与明细不匹配
             }
             applyNewValue(userRecordDetail, req);
+            userRecordDetail.setUserId(userId);
             userRecordDetail.setUpdatedAt(LocalDateTime.now());
             userRecordDetailMapper.insert(userRecordDetail);
         }
+        attributeRollupService.refreshRecordAttribute(userId, req.getRecordId(), req.getAttributeId());
+        analysisCacheService.bumpDataVersion(userId);
     }
 
     @Override
@@ -138,14 +155,20 @@ public class UserRecordServiceImpl implements UserRecordService {
         // recordId不能为空
         Objects.requireNonNull(recordId, "recordId must not be null");
         verifyRecordOwnership(recordId, userId);
-        List<UserRecordDetail> userRecordDetails = userRecordDetailMapper.findByRecordId(recordId);
-        for (UserRecordDetail userRecordDetail : userRecordDetails) {
-            userRecordDetailMapper.deleteById(userRecordDetail.getId());
-        }
+        List<RollupTouch> touches = attributeRollupService.collectTouches(userId, Collections.singletonList(recordId));
+        userRecordDetailMapper.delete(new LambdaQueryWrapper<UserRecordDetail>()
+                .eq(UserRecordDetail::getRecordId, recordId));
         userRecordMapper.deleteById(recordId);
+        attributeRollupService.refreshTouches(userId, touches);
+        analysisCacheService.bumpDataVersion(userId);
     }
 
+    /**
+     * 批量删除记录
+     * 先按块校验归属（WHERE id IN (...) AND user_id = ?），全部通过后再按块删除明细与主记录，整体处于同一事务
+     */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public void deleteUserRecords(Long userId, List<Long> recordIds) {
         Objects.requireNonNull(userId, "User information is missing"); // 用户信息缺失
         if (recordIds == null || recordIds.isEmpty()) {
@@ -158,12 +181,31 @@ public class UserRecordServiceImpl implements UserRecordService {
         if (distinctIds.isEmpty()) {
             throw new IllegalArgumentException("recordIds must not be empty");// recordIds不能为空
         }
-        distinctIds.forEach(recordId -> {
-            deleteUserRecord(userId, recordId);
-        });
+        List<List<Long>> chunks = CollUtil.split(distinctIds, DELETE_CHUNK_SIZE);
+        for (List<Long> chunk : chunks) {
+            Long owned = userRecordMapper.selectCount(new LambdaQueryWrapper<UserRecord>()
+                    .in(UserRecord::getId, chunk)
+                    .eq(UserRecord::getUserId, userId));
+            if (owned == null || owned != chunk.size()) {
+                // 未找到对应的记录或无权操作他人的记录
+                throw new IllegalArgumentException("Record not found or not authorized to operate on another user's record");
+            }
+        }
+        List<RollupTouch> touches = new ArrayList<>();
+        for (List<Long> chunk : chunks) {
+            touches.addAll(attributeRollupService.collectTouches(userId, chunk));
+            userRecordDetailMapper.delete(new LambdaQueryWrapper<UserRecordDetail>()
+                    .in(UserRecordDetail::getRecordId, chunk));
+            userRecordMapper.delete(new LambdaQueryWrapper<UserRecord>()
+                    .in(UserRecord::getId, chunk)
+                    .eq(UserRecord::getUserId, userId));
+        }
+        attributeRollupService.refreshTouches(userId, touches);
+        analysisCacheService.bumpDataVersion(userId);
     }
 
     private void applyNewValue(UserRecordDetail detail, SaveRecordDetailRequest req) {
+        detail.setDataType(req.getDataType());
         detail.setStringValue(null);
         detail.setNumberValue(null);
         detail.setDateValue(null);
@@ -0,0 +1,68 @@
+package com.logai.assint.util;
+
+import com.logai.assint.entity.Attribute;
+import com.logai.assint.entity.Theme;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+public class ThemePromptRenderer {
+
+    private static final String EMPTY_THEMES = "无现有主题";
+    private static final String TABLE_HEADER = "| theme_name | theme_id | theme_description |\n| :------- | :------ | :------- |\n";
+    private static final String CATALOG_HEADER = "| theme_name | theme_id | theme_description | known_attributes |\n| :------- | :------ | :------- | :------- |\n";
+
+    /**
+     * 把主题列表渲染成主题提取提示词中的 Markdown 表格。
+     *
+     * @param themes 用户可见的主题
+     * @return Markdown 表格；没有主题时返回 "无现有主题"
+     */
+    public static String renderThemeTable(List<Theme> themes) {
+        if (themes == null || themes.isEmpty()) {
+            return EMPTY_THEMES;
+        }
+        // 预估每行长度，避免 StringBuilder 多次扩容
+        StringBuilder sb = new StringBuilder(TABLE_HEADER.length() + themes.size() * 64);
+        sb.append(TABLE_HEADER);
+        for (Theme theme : themes) {
+            sb.append("| ")
+                    .append(theme.getThemeName()).append(" | ")
+                    .append(theme.getId()).append(" | ")
+                    .append(theme.getDescription()).append(" |\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 把主题及其已知属性渲染成一张表，供单次调用快速路径同时做主题匹配和属性提取。
+     *
+     * @param themes             用户可见的主题
+     * @param attributesByTheme 按主题ID分组的属性
+     * @return Markdown 表格，属性列为 "名称(类型)" 逗号分隔；没有主题时返回 "无现有主题"
+     */
+    public static String renderThemeCatalog(List<Theme> themes, Map<Long, List<Attribute>> attributesByTheme) {
+        if (themes == null || themes.isEmpty()) {
+            return EMPTY_THEMES;
+        }
+        StringBuilder sb = new StringBuilder(CATALOG_HEADER.length() + themes.size() * 128);
+        sb.append(CATALOG_HEADER);
+        for (Theme theme : themes) {
+            sb.append("| ")
+                    .append(theme.getThemeName()).append(" | ")
+                    .append(theme.getId()).append(" | ")
+                    .append(theme.getDescription()).append(" | ");
+            List<Attribute> attributes = attributesByTheme.getOrDefault(theme.getId(), Collections.emptyList());
+            for (int i = 0; i < attributes.size(); i++) {
+                Attribute attribute = attributes.get(i);
+                if (i > 0) {
+                    sb.append(", ");
+                }
+                sb.append(attribute.getAttributeName()).append('(').append(attribute.getDataType()).append(')');
+            }
+            sb.append(" |\n");
+        }
+        return sb.toString();
+    }
+}
@@ -1,29 +1,49 @@
 package com.logai.assint.util;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  * Token计数器类，用于统计AI请求的token使用情况
+ * <p>
+ * 除累计总数外，按调用保留明细（ChatClient、模型），写入 user_chat 时一并交给用量流水。
+ * 同一个计数器会在请求线程和记录线程间共享，方法均加锁。
  */
 public class TokenCounter {
     private int promptTokens = 0;
     private int completionTokens = 0;
+    private final List<UsageEntry> entries = new ArrayList<>();
 
-    public void addPromptTokens(int tokens) {
-        this.promptTokens += tokens;
+    /**
+     * 记录一次模型调用的用量
+     */
+    public synchronized void addUsage(String client, String model, int promptTokens, int completionTokens) {
+        this.promptTokens += promptTokens;
+        this.completionTokens += completionTokens;
+        entries.add(new UsageEntry(client, model, promptTokens, completionTokens));
     }
 
-    public void addCompletionTokens(int tokens) {
-        this.completionTokens += tokens;
+    /**
+     * 取出尚未写入流水的调用明细
+     */
+    public synchronized List<UsageEntry> drainEntries() {
+        List<UsageEntry> drained = new ArrayList<>(entries);
+        entries.clear();
+        return drained;
     }
 
-    public int getTotalTokens() {
+    public synchronized int getTotalTokens() {
         return promptTokens + completionTokens;
     }
 
-    public int getPromptTokens() {
+    public synchronized int getPromptTokens() {
         return promptTokens;
     }
 
-    public int getCompletionTokens() {
+    public synchronized int getCompletionTokens() {
         return completionTokens;
     }
-}
\ No newline at end of file
+
+    public record UsageEntry(String client, String model, int promptTokens, int completionTokens) {
+    }
+}
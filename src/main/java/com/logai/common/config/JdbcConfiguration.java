@@ -5,11 +5,16 @@ import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
 
 import javax.sql.DataSource;
 import java.util.Properties;
 
+/**
+ * Cloud SQL 数据源；压测环境（loadtest）改用 spring.datasource.url 指向本地 MySQL
+ */
 @Configuration
+@Profile("!loadtest")
 public class JdbcConfiguration {
 
     @Value("${spring.datasource.cloud-sql-connection-name}")
@@ -116,6 +116,14 @@ public class BusinessException extends RuntimeException {
                 String.format("Operation [%s] timed out, timeout: %d ms", operation, timeoutMs)); // 操作[%s]超时，超时时间: %d毫秒
     }
 
+    /**
+     * 创建外部服务调用异常
+     */
+    public static BusinessException externalServiceError(String downstream, String message, Throwable cause) {
+        return new BusinessException("EXTERNAL_SERVICE_ERROR",
+                String.format("External service [%s] error: %s", downstream, message), cause); // 外部服务[%s]调用异常: %s
+    }
+
     public static BusinessException OAuth2Exception(String errorCode, String message) {
         return new BusinessException(errorCode, message);
     }
@@ -0,0 +1,24 @@
+package com.logai.common.http;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 出站 HTTP 调用结果
+ *
+ * @param status  HTTP 状态码
+ * @param body    响应体
+ * @param headers 响应头（键不区分大小写）
+ */
+public record HttpResult(int status, String body, Map<String, List<String>> headers) {
+
+    public boolean isOk() {
+        return status >= 200 && status < 300;
+    }
+
+    public Optional<String> header(String name) {
+        List<String> values = headers.get(name);
+        return values == null || values.isEmpty() ? Optional.empty() : Optional.of(values.get(0));
+    }
+}
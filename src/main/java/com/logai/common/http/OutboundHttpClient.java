@@ -0,0 +1,283 @@
+package com.logai.common.http;
+
+import com.logai.common.exception.BusinessException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpConnectTimeoutException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 统一的出站 HTTP 客户端
+ * <p>
+ * 全局共享一个 JDK HttpClient（自带 keep-alive 连接池，同一主机复用连接，避免重复 TLS 握手）。
+ * 每个下游（creem、google 等）独立维护：并发上限、熔断状态和指标。
+ * GET 对 IO 异常、429 和 5xx 按指数退避 + 随机抖动重试；POST 只在连接未建立时重试，避免重复提交。
+ */
+@Slf4j
+@Component
+public class OutboundHttpClient {
+    private static final String METRIC_NAME = "http.client.outbound";
+
+    private final HttpClient httpClient;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Downstream> downstreams = new ConcurrentHashMap<>();
+
+    @Value("${http-client.request-timeout-ms:10000}")
+    private long requestTimeoutMs;
+
+    @Value("${http-client.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${http-client.backoff-base-ms:200}")
+    private long backoffBaseMs;
+
+    @Value("${http-client.max-concurrent-per-downstream:20}")
+    private int maxConcurrentPerDownstream;
+
+    @Value("${http-client.acquire-timeout-ms:2000}")
+    private long acquireTimeoutMs;
+
+    @Value("${http-client.circuit.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${http-client.circuit.open-ms:30000}")
+    private long circuitOpenMs;
+
+    public OutboundHttpClient(MeterRegistry meterRegistry,
+                              @Value("${http-client.connect-timeout-ms:3000}") long connectTimeoutMs) {
+        this.meterRegistry = meterRegistry;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    public HttpResult get(String downstream, String url, Map<String, String> headers) {
+        return execute(downstream, "GET", url, headers, null);
+    }
+
+    public HttpResult post(String downstream, String url, Map<String, String> headers, String body) {
+        return execute(downstream, "POST", url, headers, body);
+    }
+
+    private HttpResult execute(String downstreamName, String method, String url, Map<String, String> headers, String body) {
+        Downstream downstream = downstreams.computeIfAbsent(downstreamName, this::newDownstream);
+        boolean probe = downstream.checkCircuit();
+
+        HttpRequest request = buildRequest(method, url, headers, body);
+        boolean idempotent = "GET".equals(method);
+        int attempt = 0;
+        while (true) {
+            attempt++;
+            acquirePermit(downstream, probe);
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String outcome = "IO_ERROR";
+            try {
+                HttpResult result = send(request);
+                outcome = outcomeOf(result.status());
+                boolean retryable = result.status() == 429 || result.status() >= 500;
+                if (retryable) {
+                    downstream.onFailure();
+                } else {
+                    downstream.onSuccess();
+                }
+                if (!retryable || !idempotent || attempt >= maxAttempts) {
+                    return result;
+                }
+                log.warn("出站请求返回 {}，准备重试 - 下游: {}, 第 {} 次", result.status(), downstreamName, attempt);
+            } catch (IOException e) {
+                downstream.onFailure();
+                boolean connectFailure = e instanceof ConnectException || e instanceof HttpConnectTimeoutException;
+                if ((!idempotent && !connectFailure) || attempt >= maxAttempts) {
+                    throw BusinessException.externalServiceError(downstreamName, e.getMessage(), e);
+                }
+                log.warn("出站请求异常，准备重试 - 下游: {}, 第 {} 次, 错误: {}", downstreamName, attempt, e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (probe) {
+                    downstream.abortProbe();
+                }
+                throw BusinessException.externalServiceError(downstreamName, "interrupted", e);
+            } finally {
+                downstream.permits.release();
+                sample.stop(Timer.builder(METRIC_NAME)
+                        .tag("downstream", downstreamName)
+                        .tag("method", method)
+                        .tag("outcome", outcome)
+                        .register(meterRegistry));
+            }
+            downstream.retries.increment();
+            sleepBackoff(attempt);
+            probe = downstream.checkCircuit();
+        }
+    }
+
+    /**
+     * 获取下游并发许可。本地并发已满不代表下游异常：不计入熔断失败，也不重试，避免加剧拥塞
+     */
+    private void acquirePermit(Downstream downstream, boolean probe) {
+        boolean acquired;
+        try {
+            acquired = downstream.permits.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            if (probe) {
+                downstream.abortProbe();
+            }
+            downstream.rejected.increment();
+            throw BusinessException.externalServiceError(downstream.name, "bulkhead full", null); // 下游并发已满
+        }
+    }
+
+    private HttpResult send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        return new HttpResult(response.statusCode(), response.body(), response.headers().map());
+    }
+
+    private HttpRequest buildRequest(String method, String url, Map<String, String> headers, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(url))
+                .timeout(Duration.ofMillis(requestTimeoutMs));
+        (headers == null ? Collections.<String, String>emptyMap() : headers).forEach(builder::header);
+        if ("POST".equals(method)) {
+            builder.POST(body == null ? HttpRequest.BodyPublishers.noBody() : HttpRequest.BodyPublishers.ofString(body));
+        } else {
+            builder.GET();
+        }
+        return builder.build();
+    }
+
+    private void sleepBackoff(int attempt) {
+        long ceiling = backoffBaseMs * (1L << Math.min(attempt - 1, 6));
+        // equal jitter：在 [ceiling/2, ceiling] 之间随机，避免多个请求同时重试
+        long delay = ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling / 2 + 1);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String outcomeOf(int status) {
+        if (status >= 500) {
+            return "SERVER_ERROR";
+        }
+        if (status >= 400) {
+            return "CLIENT_ERROR";
+        }
+        return "SUCCESS";
+    }
+
+    private Downstream newDownstream(String name) {
+        Downstream downstream = new Downstream(name, new Semaphore(maxConcurrentPerDownstream),
+                Counter.builder(METRIC_NAME + ".retries").tag("downstream", name).register(meterRegistry),
+                Counter.builder(METRIC_NAME + ".circuit_open").tag("downstream", name).register(meterRegistry),
+                Counter.builder(METRIC_NAME + ".rejected").tag("downstream", name).register(meterRegistry));
+        meterRegistry.gauge(METRIC_NAME + ".in_flight", Tags.of("downstream", name), downstream.permits,
+                permits -> maxConcurrentPerDownstream - permits.availablePermits());
+        return downstream;
+    }
+
+    /**
+     * 单个下游的并发与熔断状态
+     * 连续失败达到阈值后熔断 open-ms；到期后进入半开，只放行一个请求试探，成功即恢复，失败重新熔断
+     */
+    private final class Downstream {
+        private final String name;
+        private final Semaphore permits;
+        private final Counter retries;
+        private final Counter circuitOpen;
+        private final Counter rejected;
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private final AtomicReference<CircuitState> state = new AtomicReference<>(CircuitState.CLOSED);
+        private final AtomicLong openUntil = new AtomicLong();
+
+        private Downstream(String name, Semaphore permits, Counter retries, Counter circuitOpen, Counter rejected) {
+            this.name = name;
+            this.permits = permits;
+            this.retries = retries;
+            this.circuitOpen = circuitOpen;
+            this.rejected = rejected;
+        }
+
+        /**
+         * 熔断中直接拒绝
+         *
+         * @return 本次请求是否为半开状态下的试探请求
+         */
+        private boolean checkCircuit() {
+            CircuitState current = state.get();
+            if (current == CircuitState.CLOSED) {
+                return false;
+            }
+            if (current == CircuitState.OPEN && System.currentTimeMillis() >= openUntil.get()
+                    && state.compareAndSet(CircuitState.OPEN, CircuitState.HALF_OPEN)) {
+                log.info("下游 {} 熔断到期，放行试探请求", name);
+                return true;
+            }
+            circuitOpen.increment();
+            throw BusinessException.externalServiceError(name, "circuit open", null);
+        }
+
+        private void onSuccess() {
+            consecutiveFailures.set(0);
+            if (state.compareAndSet(CircuitState.HALF_OPEN, CircuitState.CLOSED)) {
+                log.info("下游 {} 试探请求成功，熔断恢复", name);
+            }
+        }
+
+        private void onFailure() {
+            if (state.get() == CircuitState.HALF_OPEN) {
+                open();
+                log.error("下游 {} 试探请求失败，重新熔断 {}ms", name, circuitOpenMs);
+                return;
+            }
+            if (consecutiveFailures.incrementAndGet() >= failureThreshold) {
+                open();
+                log.error("下游 {} 连续失败 {} 次，熔断 {}ms", name, failureThreshold, circuitOpenMs);
+            }
+        }
+
+        /**
+         * 试探请求未真正发出（并发已满、被中断），退回熔断状态，由下一个请求重新试探
+         */
+        private void abortProbe() {
+            state.compareAndSet(CircuitState.HALF_OPEN, CircuitState.OPEN);
+        }
+
+        private void open() {
+            openUntil.set(System.currentTimeMillis() + circuitOpenMs);
+            consecutiveFailures.set(0);
+            state.set(CircuitState.OPEN);
+        }
+    }
+
+    private enum CircuitState {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+}
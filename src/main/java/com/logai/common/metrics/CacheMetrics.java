@@ -0,0 +1,42 @@
+package com.logai.common.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 业务缓存命中统计
+ * <p>
+ * 沿用 Micrometer 缓存指标的命名：cache.gets{cache, result=hit|miss}，
+ * 命中率 = rate(cache_gets_total{result="hit"}) / rate(cache_gets_total)。
+ */
+@Component
+public class CacheMetrics {
+    private static final String METRIC_NAME = "cache.gets";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+
+    public CacheMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void hit(String cache) {
+        counter(cache, "hit").increment();
+    }
+
+    public void miss(String cache) {
+        counter(cache, "miss").increment();
+    }
+
+    private Counter counter(String cache, String result) {
+        return counters.computeIfAbsent(cache + ":" + result, key -> Counter.builder(METRIC_NAME)
+                .description("业务缓存读取次数")
+                .tag("cache", cache)
+                .tag("result", result)
+                .register(meterRegistry));
+    }
+}
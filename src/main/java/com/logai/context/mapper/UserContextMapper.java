@@ -3,13 +3,26 @@ package com.logai.context.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.logai.context.entity.UserContext;
 import com.logai.context.enums.ContextType;
+import org.apache.ibatis.annotations.Delete;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 @Mapper
 public interface UserContextMapper extends BaseMapper<UserContext> {
 
     @Select("SELECT COUNT(*) FROM user_context WHERE user_id = #{userId} AND theme_id = #{themeId} AND context_type = #{contextType}")
     int existsByUserIdAndThemeIdAndContextType(@Param("userId") Long userId, @Param("themeId") Long themeId, @Param("contextType") ContextType contextType);
+
+    List<Long> findThemeIdsByUserIdAndContextType(@Param("userId") Long userId, @Param("themeIds") List<Long> themeIds, @Param("contextType") ContextType contextType);
+
+    int insertBatch(@Param("contexts") List<UserContext> contexts);
+
+    int upsertBatch(@Param("contexts") List<UserContext> contexts);
+
+    @Delete("DELETE FROM user_context WHERE expire_time < #{before} ORDER BY expire_time LIMIT #{limit}")
+    int deleteExpiredBefore(@Param("before") LocalDateTime before, @Param("limit") int limit);
 }
@@ -0,0 +1,29 @@
+package com.logai.context.service;
+
+import com.logai.context.entity.OnboardContext;
+import com.logai.context.entity.WorkflowInit;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * onboard_context / workflow_init 只读目录
+ * 两张表由运营维护、极少变化，启动时整体加载到内存，按 themeId 直接查找
+ */
+public interface ContextCatalogService {
+
+    /**
+     * 按主题查询 onboard 上下文，themeIds 为空时返回全部，结果按 id 排序
+     */
+    List<OnboardContext> getOnboardContexts(Collection<Long> themeIds);
+
+    /**
+     * 按主题查询 workflow 初始化模板
+     */
+    List<WorkflowInit> getWorkflowInits(Collection<Long> themeIds);
+
+    /**
+     * 重新从数据库加载目录，并递增 Redis 中的目录版本通知其他实例
+     */
+    void refresh();
+}
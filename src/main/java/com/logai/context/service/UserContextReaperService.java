@@ -0,0 +1,11 @@
+package com.logai.context.service;
+
+public interface UserContextReaperService {
+
+    /**
+     * 分块删除已过期的用户上下文，多实例下同一时间只有一个实例执行
+     *
+     * @return 本次删除的行数，未拿到锁时返回 0
+     */
+    int reapExpiredContexts();
+}
@@ -0,0 +1,159 @@
+package com.logai.context.service.impl;
+
+import com.logai.context.entity.OnboardContext;
+import com.logai.context.entity.WorkflowInit;
+import com.logai.context.mapper.OnboardContextMapper;
+import com.logai.context.mapper.WorkflowInitMapper;
+import com.logai.context.service.ContextCatalogService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * onboard_context / workflow_init 内存目录
+ * <p>
+ * 目录整体是不可变快照，刷新时构建新快照后整体替换引用，读路径无锁。
+ * 运营修改两张表后执行 {@code INCR context:catalog:version}（或调用 {@link #refresh()}），
+ * 各实例在下一次版本检查时重新加载；另有兜底的定时全量刷新。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContextCatalogServiceImpl implements ContextCatalogService {
+    private static final String VERSION_KEY = "context:catalog:version";
+
+    private final OnboardContextMapper onboardContextMapper;
+    private final WorkflowInitMapper workflowInitMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${user-context.catalog.max-age-ms:21600000}")
+    private long maxAgeMs;
+
+    private volatile Catalog catalog = Catalog.EMPTY;
+
+    @PostConstruct
+    public void load() {
+        reload(readVersion());
+    }
+
+    @Override
+    public List<OnboardContext> getOnboardContexts(Collection<Long> themeIds) {
+        Catalog current = catalog;
+        if (themeIds == null || themeIds.isEmpty()) {
+            return current.allOnboardContexts();
+        }
+        List<OnboardContext> result = new ArrayList<>();
+        for (Long themeId : new LinkedHashSet<>(themeIds)) {
+            result.addAll(current.onboardByTheme().getOrDefault(themeId, Collections.emptyList()));
+        }
+        result.sort(Comparator.comparing(OnboardContext::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+        return result;
+    }
+
+    @Override
+    public List<WorkflowInit> getWorkflowInits(Collection<Long> themeIds) {
+        if (themeIds == null || themeIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Catalog current = catalog;
+        List<WorkflowInit> result = new ArrayList<>();
+        for (Long themeId : themeIds) {
+            result.addAll(current.workflowByTheme().getOrDefault(themeId, Collections.emptyList()));
+        }
+        return result;
+    }
+
+    @Override
+    public void refresh() {
+        String version = null;
+        try {
+            Long next = stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+            version = next == null ? null : String.valueOf(next);
+        } catch (Exception e) {
+            log.warn("递增上下文目录版本失败，仅刷新本实例 - 错误: {}", e.getMessage());
+        }
+        reload(version);
+    }
+
+    @Scheduled(fixedDelayString = "${user-context.catalog.check-interval-ms:60000}",
+            initialDelayString = "${user-context.catalog.check-interval-ms:60000}")
+    public void checkVersion() {
+        String version = readVersion();
+        Catalog current = catalog;
+        boolean versionChanged = !Objects.equals(version, current.version());
+        boolean expired = System.currentTimeMillis() - current.loadedAt() > maxAgeMs;
+        if (versionChanged || expired) {
+            reload(version);
+        }
+    }
+
+    private synchronized void reload(String version) {
+        try {
+            List<OnboardContext> onboardContexts = onboardContextMapper.selectByThemeIds(null);
+            List<WorkflowInit> workflowInits = workflowInitMapper.selectList(null);
+
+            Map<Long, List<OnboardContext>> onboardByTheme = new HashMap<>();
+            for (OnboardContext context : onboardContexts) {
+                if (context.getThemeId() != null) {
+                    onboardByTheme.computeIfAbsent(context.getThemeId(), key -> new ArrayList<>()).add(context);
+                }
+            }
+            Map<Long, List<WorkflowInit>> workflowByTheme = new HashMap<>();
+            for (WorkflowInit init : workflowInits) {
+                Long themeId = parseThemeId(init.getThemeId());
+                if (themeId != null) {
+                    workflowByTheme.computeIfAbsent(themeId, key -> new ArrayList<>()).add(init);
+                }
+            }
+
+            catalog = new Catalog(version, System.currentTimeMillis(),
+                    List.copyOf(onboardContexts), freeze(onboardByTheme), freeze(workflowByTheme));
+            log.info("上下文目录加载完成 - 版本: {}, onboard: {}, workflow_init: {}",
+                    version, onboardContexts.size(), workflowInits.size());
+        } catch (Exception e) {
+            // 加载失败保留旧目录，下次检查时重试
+            log.error("上下文目录加载失败 - 错误: {}", e.getMessage(), e);
+        }
+    }
+
+    private String readVersion() {
+        try {
+            return stringRedisTemplate.opsForValue().get(VERSION_KEY);
+        } catch (Exception e) {
+            log.warn("读取上下文目录版本失败 - 错误: {}", e.getMessage());
+            return catalog.version();
+        }
+    }
+
+    private static <T> Map<Long, List<T>> freeze(Map<Long, List<T>> source) {
+        Map<Long, List<T>> frozen = new HashMap<>(source.size() * 2);
+        source.forEach((key, value) -> frozen.put(key, List.copyOf(value)));
+        return Map.copyOf(frozen);
+    }
+
+    private Long parseThemeId(String themeId) {
+        if (themeId == null || themeId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(themeId.trim());
+        } catch (NumberFormatException ex) {
+            log.warn("workflow_init 中无法解析的主题ID: {}", themeId);
+            return null;
+        }
+    }
+
+    private record Catalog(String version,
+                           long loadedAt,
+                           List<OnboardContext> allOnboardContexts,
+                           Map<Long, List<OnboardContext>> onboardByTheme,
+                           Map<Long, List<WorkflowInit>> workflowByTheme) {
+        static final Catalog EMPTY = new Catalog(null, 0L, List.of(), Map.of(), Map.of());
+    }
+}
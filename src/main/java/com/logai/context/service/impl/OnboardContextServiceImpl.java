@@ -1,7 +1,7 @@
 package com.logai.context.service.impl;
 
 import com.logai.context.entity.OnboardContext;
-import com.logai.context.mapper.OnboardContextMapper;
+import com.logai.context.service.ContextCatalogService;
 import com.logai.context.service.OnboardContextService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -11,16 +11,11 @@ import java.util.List;
 @Service
 @RequiredArgsConstructor
 public class OnboardContextServiceImpl implements OnboardContextService {
-    private final OnboardContextMapper onboardContextMapper;
+    private final ContextCatalogService contextCatalogService;
 
     @Override
     public List<OnboardContext> getOnboardContexts(List<Long> themeIds) {
-
-        // 过滤重复
-        if (themeIds != null && !themeIds.isEmpty()) {
-            themeIds = themeIds.stream().distinct().toList();
-        }
-
-        return onboardContextMapper.selectByThemeIds(themeIds);
+        // 内存目录中按主题查找，重复的主题ID在目录内去重
+        return contextCatalogService.getOnboardContexts(themeIds);
     }
 }
@@ -0,0 +1,122 @@
+package com.logai.context.service.impl;
+
+import cn.hutool.core.util.IdUtil;
+import com.logai.context.mapper.UserContextMapper;
+import com.logai.context.service.UserContextReaperService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Objects;
+
+/**
+ * 过期用户上下文清理
+ * <p>
+ * expire_time 保存的是用户当地时间，读取时按用户时区判断是否过期。
+ * 全局清理无法逐个用户换算时区，因此以 UTC 当前时间减去最大时区偏移（12 小时）为界，
+ * 早于该时间的行对任何时区的用户都已过期。
+ */
+@Slf4j
+@Service
+public class UserContextReaperServiceImpl implements UserContextReaperService {
+    private static final String LOCK_KEY = "context:reaper:lock";
+    private static final Duration MAX_ZONE_BEHIND_UTC = Duration.ofHours(12);
+
+    private final UserContextMapper userContextMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Counter deletedCounter;
+    private final Counter skippedCounter;
+    private final Timer runTimer;
+
+    @Value("${user-context.reaper.enabled:true}")
+    private boolean enabled;
+
+    @Value("${user-context.reaper.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${user-context.reaper.max-chunks:50}")
+    private int maxChunks;
+
+    @Value("${user-context.reaper.lock-ttl:300}")
+    private long lockTtlSeconds;
+
+    public UserContextReaperServiceImpl(UserContextMapper userContextMapper,
+                                        StringRedisTemplate stringRedisTemplate,
+                                        MeterRegistry meterRegistry) {
+        this.userContextMapper = userContextMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.deletedCounter = Counter.builder("user_context.reaper.deleted")
+                .description("已删除的过期用户上下文行数")
+                .register(meterRegistry);
+        this.skippedCounter = Counter.builder("user_context.reaper.skipped")
+                .description("因其他实例持有锁而跳过的清理次数")
+                .register(meterRegistry);
+        this.runTimer = Timer.builder("user_context.reaper.run")
+                .description("单次过期上下文清理耗时")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${user-context.reaper.interval-ms:600000}",
+            initialDelayString = "${user-context.reaper.initial-delay-ms:60000}")
+    public void scheduledReap() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            reapExpiredContexts();
+        } catch (Exception e) {
+            log.error("过期上下文清理失败 - 错误: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int reapExpiredContexts() {
+        String token = IdUtil.fastSimpleUUID();
+        Boolean locked = stringRedisTemplate.opsForValue()
+                .setIfAbsent(LOCK_KEY, token, Duration.ofSeconds(lockTtlSeconds));
+        if (!Boolean.TRUE.equals(locked)) {
+            skippedCounter.increment();
+            log.debug("过期上下文清理已在其他实例执行，跳过");
+            return 0;
+        }
+        Timer.Sample sample = Timer.start();
+        int total = 0;
+        try {
+            LocalDateTime before = LocalDateTime.now(ZoneOffset.UTC).minus(MAX_ZONE_BEHIND_UTC);
+            for (int i = 0; i < maxChunks; i++) {
+                int deleted = userContextMapper.deleteExpiredBefore(before, chunkSize);
+                total += deleted;
+                deletedCounter.increment(deleted);
+                if (deleted < chunkSize) {
+                    break;
+                }
+            }
+            if (total > 0) {
+                log.info("过期上下文清理完成 - 删除行数: {}, 截止时间: {}", total, before);
+            }
+            return total;
+        } finally {
+            sample.stop(runTimer);
+            releaseLock(token);
+        }
+    }
+
+    private void releaseLock(String token) {
+        try {
+            // 锁已过期并被其他实例获取时不能误删
+            if (Objects.equals(token, stringRedisTemplate.opsForValue().get(LOCK_KEY))) {
+                stringRedisTemplate.delete(LOCK_KEY);
+            }
+        } catch (Exception e) {
+            log.warn("释放过期上下文清理锁失败 - 错误: {}", e.getMessage());
+        }
+    }
+}
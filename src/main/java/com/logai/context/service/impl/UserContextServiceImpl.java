@@ -1,6 +1,10 @@
 package com.logai.context.service.impl;
 
+import cn.hutool.crypto.digest.DigestUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logai.common.metrics.CacheMetrics;
 import com.logai.common.utils.TimeUtil;
 import com.logai.context.dto.EditContextRequest;
 import com.logai.context.dto.UserContextDto;
@@ -8,13 +12,16 @@ import com.logai.context.entity.UserContext;
 import com.logai.context.entity.WorkflowInit;
 import com.logai.context.enums.ContextType;
 import com.logai.context.mapper.UserContextMapper;
-import com.logai.context.mapper.WorkflowInitMapper;
+import com.logai.context.service.ContextCatalogService;
 import com.logai.context.service.UserContextService;
 import com.logai.user.entity.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -26,7 +33,19 @@ import java.util.stream.Collectors;
 public class UserContextServiceImpl implements UserContextService {
     private final UserContextMapper userContextMapper;
     private final TimeUtil timeUtil;
-    private final WorkflowInitMapper workflowInitMapper;
+    private final ContextCatalogService contextCatalogService;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final ObjectMapper objectMapper;
+    private final CacheMetrics cacheMetrics;
+
+    private static final String WORKFLOW_INITIALIZED_KEY_PREFIX = "context:workflow_initialized:";
+    private static final Duration WORKFLOW_INITIALIZED_TTL = Duration.ofDays(7);
+    private static final String CONTEXT_VERSION_KEY_PREFIX = "context:version:";
+    private static final String CONTEXT_SNAPSHOT_KEY_PREFIX = "context:snapshot:";
+    private static final String SNAPSHOT_CACHE_NAME = "context_snapshot";
+
+    @Value("${user-context.snapshot-max-ttl:3600}")
+    private long snapshotMaxTtlSeconds;
 
 
     @Override
@@ -45,25 +64,53 @@ public class UserContextServiceImpl implements UserContextService {
                 .distinct()
                 .collect(Collectors.toList());
 
-        // ① 逐条处理 EditContextRequest
-        for (EditContextRequest request : safeContexts) {
-
-            // a. 查询或创建 UserContext
-            UserContext context = fetchOrCreateUserContext(request);
-
-            // b. 应用请求参数（user, now）
-            UserContext updated = applyRequestToContext(context, request, user, now);
+        // ① 一次查询：引用到的 infoId + 本次返回范围内仍有效的上下文
+        List<Long> infoIds = safeContexts.stream()
+                .map(EditContextRequest::getInfoId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+        LocalDateTime currentTime = timeUtil.getNowInTimezone(user.getTimeZone());
+        List<UserContext> loaded = findForEdit(user.getId(), themeIdsFilter, infoIds, currentTime);
+        Map<Long, UserContext> byId = new LinkedHashMap<>();
+        loaded.forEach(context -> byId.put(context.getId(), context));
 
-            // c. 保存更新记录
-            userContextMapper.insert(updated);
-            log.info("✅ 保存用户上下文成功: {}", updated);
+        // ② 在内存中应用修改，同一 infoId 多次出现时以最后一次为准
+        Map<Long, UserContext> changed = new LinkedHashMap<>();
+        for (EditContextRequest request : safeContexts) {
+            UserContext context = request.getInfoId() == null ? null : changed.get(request.getInfoId());
+            if (context == null) {
+                context = request.getInfoId() == null ? null : byId.get(request.getInfoId());
+            }
+            UserContext updated = applyRequestToContext(context == null ? new UserContext() : context, request, user, now);
+            if (updated.getId() == null) {
+                updated.setId(IdWorker.getId());
+            }
+            changed.put(updated.getId(), updated);
         }
 
-        // ② 初始化 workflow（同步版）
-        initializeWorkflowContexts(user, themeIdsFilter);
+        // ③ 一次批量写入
+        if (!changed.isEmpty()) {
+            userContextMapper.upsertBatch(new ArrayList<>(changed.values()));
+            log.info("✅ 保存用户上下文成功 - 用户ID: {}, 条数: {}", user.getId(), changed.size());
+        }
 
-        // ③ 加载并返回 UserContextDto
-        return loadUserContextDto(user, themeIdsFilter);
+        // ④ 初始化 workflow（同步版）
+        List<UserContext> workflowContexts = initializeWorkflowContexts(user, themeIdsFilter);
+        bumpContextVersion(user.getId());
+
+        // ⑤ 合并内存中的结果返回，不再回查数据库
+        Map<Long, UserContext> merged = new LinkedHashMap<>();
+        changed.values().forEach(context -> merged.put(context.getId(), context));
+        workflowContexts.forEach(context -> merged.put(context.getId(), context));
+        loaded.forEach(context -> merged.putIfAbsent(context.getId(), context));
+        List<UserContext> visible = merged.values().stream()
+                .filter(context -> isVisible(context, themeIdsFilter, currentTime))
+                .sorted(Comparator.comparing(UserContext::getUpdatedAt,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                .toList();
+        // 内存中的合并结果可能缺少并发编辑的修改，不写入快照，由下一次读取回查数据库后写入
+        return attachUserTime(buildUserContextDto(visible), user);
     }
 
     @Override
@@ -74,21 +121,116 @@ public class UserContextServiceImpl implements UserContextService {
         return loadUserContextDto(user, safeThemeIds);
     }
 
+    /**
+     * 加载上下文快照
+     * 快照按 (用户, 上下文版本, 主题集合) 缓存，editContext 递增版本使其失效，最近一条到期的上下文决定缓存时长
+     */
     private UserContextDto loadUserContextDto(User user, List<Long> themeIds) {
-        List<UserContext> allByUserId = findAllByUserId(user.getId(), themeIds, user.getTimeZone());
-        UserContextDto userContextDto = buildUserContextDto(allByUserId);
+        String snapshotKey = buildSnapshotKey(user.getId(), themeIds);
+        UserContextDto userContextDto = readSnapshot(snapshotKey);
+        if (userContextDto != null) {
+            cacheMetrics.hit(SNAPSHOT_CACHE_NAME);
+        } else {
+            cacheMetrics.miss(SNAPSHOT_CACHE_NAME);
+            List<UserContext> allByUserId = findAllByUserId(user.getId(), themeIds, user.getTimeZone());
+            userContextDto = buildUserContextDto(allByUserId);
+            writeSnapshot(snapshotKey, userContextDto, snapshotTtl(allByUserId, user.getTimeZone()));
+        }
         return attachUserTime(userContextDto, user);
     }
 
-    private UserContext fetchOrCreateUserContext(EditContextRequest request) {
-        if (request.getInfoId() == null) {
-            return new UserContext();
+    private String buildSnapshotKey(Long userId, List<Long> themeIds) {
+        try {
+            String version = stringRedisTemplate.opsForValue().get(CONTEXT_VERSION_KEY_PREFIX + userId);
+            String themeSet = themeIds == null ? "" : themeIds.stream()
+                    .filter(Objects::nonNull)
+                    .distinct()
+                    .sorted()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(","));
+            return CONTEXT_SNAPSHOT_KEY_PREFIX + userId + ":" + (version == null ? "0" : version)
+                    + ":" + DigestUtil.md5Hex(themeSet);
+        } catch (Exception e) {
+            log.warn("读取上下文版本失败，跳过快照缓存 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    private UserContextDto readSnapshot(String snapshotKey) {
+        if (snapshotKey == null) {
+            return null;
         }
-        UserContext userContext = userContextMapper.selectById(request.getInfoId());
-        if (userContext != null && userContext.getId() != null) {
-            return userContext;
+        try {
+            String cached = stringRedisTemplate.opsForValue().get(snapshotKey);
+            return cached == null ? null : objectMapper.readValue(cached, UserContextDto.class);
+        } catch (Exception e) {
+            log.warn("读取上下文快照失败 - 错误: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeSnapshot(String snapshotKey, UserContextDto dto, Duration ttl) {
+        if (snapshotKey == null || ttl.isZero() || ttl.isNegative()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(snapshotKey, objectMapper.writeValueAsString(dto), ttl);
+        } catch (Exception e) {
+            log.warn("写入上下文快照失败 - 错误: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 快照在最近一条上下文到期时失效，到期判断与 findAllByUserId 一致使用用户时区的当前时间
+     */
+    private Duration snapshotTtl(List<UserContext> contexts, String timeZone) {
+        Duration ttl = Duration.ofSeconds(snapshotMaxTtlSeconds);
+        LocalDateTime currentTime = timeUtil.getNowInTimezone(timeZone);
+        for (UserContext context : contexts) {
+            if (context.getExpireTime() == null) {
+                continue;
+            }
+            Duration remaining = Duration.between(currentTime, context.getExpireTime());
+            if (remaining.compareTo(ttl) < 0) {
+                ttl = remaining;
+            }
+        }
+        return ttl;
+    }
+
+    private void bumpContextVersion(Long userId) {
+        try {
+            stringRedisTemplate.opsForValue().increment(CONTEXT_VERSION_KEY_PREFIX + userId);
+        } catch (Exception e) {
+            log.warn("递增上下文版本失败 - 用户ID: {}, 错误: {}", userId, e.getMessage());
+        }
+    }
+
+    /**
+     * editContext 的唯一一次读取：本次返回范围内的有效上下文，以及请求中引用到的 infoId（仅限当前用户）
+     */
+    private List<UserContext> findForEdit(Long userId, List<Long> themeIds, List<Long> infoIds, LocalDateTime currentTime) {
+        LambdaQueryWrapper<UserContext> wrapper = new LambdaQueryWrapper<>();
+        wrapper.eq(UserContext::getUserId, userId);
+        wrapper.and(w -> {
+            w.nested(live -> applyVisibleCondition(live, themeIds, currentTime));
+            if (!infoIds.isEmpty()) {
+                w.or().in(UserContext::getId, infoIds);
+            }
+        });
+        return userContextMapper.selectList(wrapper);
+    }
+
+    /**
+     * 与 {@link #applyVisibleCondition} 相同的可见性判断，用于内存中的合并结果
+     */
+    private boolean isVisible(UserContext context, List<Long> themeIds, LocalDateTime currentTime) {
+        if (context.getExpireTime() != null && !context.getExpireTime().isAfter(currentTime)) {
+            return false;
         }
-        return new UserContext();
+        return themeIds.isEmpty()
+                || themeIds.contains(context.getThemeId())
+                || context.getContextType() == ContextType.COMMON_INFO;
     }
 
     private UserContext applyRequestToContext(UserContext userContext, EditContextRequest request, User user, LocalDateTime now) {
@@ -109,10 +251,14 @@ public class UserContextServiceImpl implements UserContextService {
         return userContext;
     }
 
-    private void initializeWorkflowContexts(User user, List<Long> themeIds) {
+    /**
+     * 批量初始化 workflow 上下文
+     * Redis 中记录已初始化的主题，全部命中时不访问数据库；否则一次查询已初始化主题、从内存目录取初始化内容、一次批量插入
+     */
+    private List<UserContext> initializeWorkflowContexts(User user, List<Long> themeIds) {
 
         if (user == null || user.getId() == null || themeIds == null || themeIds.isEmpty()) {
-            return;
+            return Collections.emptyList();
         }
 
         // 去重
@@ -120,52 +266,89 @@ public class UserContextServiceImpl implements UserContextService {
                 .filter(Objects::nonNull)
                 .distinct()
                 .toList();
+        if (distinctThemeIds.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-        for (Long themeId : distinctThemeIds) {
-
-            // ① 检查是否已有 WORKFLOW 记录
-            boolean exists = userContextMapper
-                    .existsByUserIdAndThemeIdAndContextType(
-                            user.getId(),
-                            themeId,
-                            ContextType.WORKFLOW
-                    ) > 0;
-
-            if (exists) {
-                continue; // 已存在则跳过
-            }
-
-            // ② 查询 workflow 初始化内容
-            List<WorkflowInit> initList =
-                    workflowInitMapper.findAllByThemeId(String.valueOf(themeId));
+        // ① Redis 短路：过滤掉已确认初始化的主题
+        String initializedKey = WORKFLOW_INITIALIZED_KEY_PREFIX + user.getId();
+        List<Long> pendingThemeIds = filterUninitializedThemes(initializedKey, distinctThemeIds);
+        if (pendingThemeIds.isEmpty()) {
+            return Collections.emptyList();
+        }
 
-            if (initList == null || initList.isEmpty()) {
-                continue;
-            }
+        // ② 一次查询已有 WORKFLOW 记录的主题
+        Set<Long> initialized = new HashSet<>(userContextMapper.findThemeIdsByUserIdAndContextType(
+                user.getId(), pendingThemeIds, ContextType.WORKFLOW));
+        List<Long> missingThemeIds = pendingThemeIds.stream()
+                .filter(themeId -> !initialized.contains(themeId))
+                .toList();
 
-            // ③ 遍历 info，过滤为空的
-            for (WorkflowInit init : initList) {
+        // ③ 从内存目录读取剩余主题的 workflow 初始化内容，过滤为空的
+        List<UserContext> workflowContexts = new ArrayList<>();
+        if (!missingThemeIds.isEmpty()) {
+            List<WorkflowInit> initList = contextCatalogService.getWorkflowInits(missingThemeIds);
+            LocalDateTime now = LocalDateTime.now();
+            for (WorkflowInit init : initList == null ? Collections.<WorkflowInit>emptyList() : initList) {
                 String info = init.getInfo();
-                if (info == null || info.isBlank()) {
+                Long themeId = parseThemeId(init.getThemeId());
+                if (info == null || info.isBlank() || themeId == null) {
                     continue;
                 }
+                workflowContexts.add(buildWorkflowContext(user, themeId, info, now));
+            }
+        }
+
+        // ④ 一次批量插入
+        if (!workflowContexts.isEmpty()) {
+            userContextMapper.insertBatch(workflowContexts);
+            bumpContextVersion(user.getId());
+            workflowContexts.forEach(context -> initialized.add(context.getThemeId()));
+            log.info("初始化 workflow 上下文 - 用户ID: {}, 条数: {}", user.getId(), workflowContexts.size());
+        }
 
-                // ④ 创建 workflow context
-                createWorkflowContext(user, themeId, info);
+        markThemesInitialized(initializedKey, initialized);
+        return workflowContexts;
+    }
+
+    private List<Long> filterUninitializedThemes(String initializedKey, List<Long> themeIds) {
+        try {
+            Map<Object, Boolean> members = stringRedisTemplate.opsForSet()
+                    .isMember(initializedKey, themeIds.stream().map(String::valueOf).toArray());
+            if (members == null) {
+                return themeIds;
             }
+            return themeIds.stream()
+                    .filter(themeId -> !Boolean.TRUE.equals(members.get(String.valueOf(themeId))))
+                    .toList();
+        } catch (Exception e) {
+            log.warn("读取 workflow 初始化缓存失败，回退到数据库 - 错误: {}", e.getMessage());
+            return themeIds;
         }
     }
 
-    private void createWorkflowContext(User user, Long themeId, String info) {
-        LocalDateTime now = LocalDateTime.now();
+    private void markThemesInitialized(String initializedKey, Collection<Long> themeIds) {
+        if (themeIds.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForSet().add(initializedKey, themeIds.stream().map(String::valueOf).toArray(String[]::new));
+            stringRedisTemplate.expire(initializedKey, WORKFLOW_INITIALIZED_TTL);
+        } catch (Exception e) {
+            log.warn("写入 workflow 初始化缓存失败 - 错误: {}", e.getMessage());
+        }
+    }
+
+    private UserContext buildWorkflowContext(User user, Long themeId, String info, LocalDateTime now) {
         UserContext workflowContext = new UserContext();
+        workflowContext.setId(IdWorker.getId());
         workflowContext.setUserId(user.getId());
         workflowContext.setThemeId(themeId);
         workflowContext.setContextType(ContextType.WORKFLOW);
         workflowContext.setInfo(info);
         workflowContext.setCreatedAt(now);
         workflowContext.setUpdatedAt(now);
-        userContextMapper.insert(workflowContext);
+        return workflowContext;
     }
 
     private UserContextDto buildUserContextDto(List<UserContext> userContexts) {
@@ -284,6 +467,14 @@ public class UserContextServiceImpl implements UserContextService {
 
         wrapper.eq(UserContext::getUserId, userId);
 
+        applyVisibleCondition(wrapper, themeIds, currentTime);
+
+        wrapper.orderByDesc(UserContext::getUpdatedAt);
+
+        return userContextMapper.selectList(wrapper);
+    }
+
+    private void applyVisibleCondition(LambdaQueryWrapper<UserContext> wrapper, List<Long> themeIds, LocalDateTime currentTime) {
         wrapper.and(w ->
                 w.isNull(UserContext::getExpireTime)
                         .or()
@@ -297,9 +488,5 @@ public class UserContextServiceImpl implements UserContextService {
                             .eq(UserContext::getContextType, ContextType.COMMON_INFO.getValue())
             );
         }
-
-        wrapper.orderByDesc(UserContext::getUpdatedAt);
-
-        return userContextMapper.selectList(wrapper);
     }
 }
@@ -1,11 +1,9 @@
 package com.logai.creem.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.logai.common.model.Result;
 import com.logai.creem.dto.CreateCheckoutRequest;
-import com.logai.creem.dto.CreemWebhookEvent;
-import com.logai.creem.service.CreemWebhookService;
+import com.logai.creem.service.CreemWebhookInboxService;
 import com.logai.creem.service.PaymentService;
 import com.logai.creem.util.CreemSignatureUtil;
 import com.logai.user.entity.User;
@@ -13,6 +11,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
@@ -28,8 +27,7 @@ import java.util.stream.Collectors;
 public class PaymentController {
 
     private final PaymentService paymentService;
-    private final CreemWebhookService creemWebhookService;
-    private final ObjectMapper objectMapper;
+    private final CreemWebhookInboxService creemWebhookInboxService;
 
     @Value("${creem.webhook.secret}")
     private String webhookSecret;
@@ -66,22 +64,19 @@ public class PaymentController {
 //                return ResponseEntity.status(HttpStatus.FORBIDDEN).body("invalid signature");
 //            }
 
-            // 4. 解析 JSON
-            CreemWebhookEvent event = objectMapper.readValue(rawBody, CreemWebhookEvent.class);
+            // 4. 解析并落库收件箱，重复事件直接忽略；实际处理异步进行
+            creemWebhookInboxService.receive(rawBody);
 
-            if (event.getObject() != null) {
-                event.getObject().buildTypedObject(objectMapper);
-            }
-
-            // 5. 处理事件
-            creemWebhookService.handleEvent(event);
-
-            // 6. 返回 success
+            // 5. 返回 success
             return ResponseEntity.ok("ok");
 
-        } catch (Exception e) {
+        } catch (IllegalArgumentException e) {
             log.error("Webhook 解析失败", e);
             return ResponseEntity.badRequest().body("invalid payload");
+        } catch (Exception e) {
+            // 落库失败返回 5xx，由 Creem 重试
+            log.error("Webhook 入库失败", e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("retry later");
         }
     }
 
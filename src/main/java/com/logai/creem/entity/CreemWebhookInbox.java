@@ -0,0 +1,62 @@
+package com.logai.creem.entity;
+
+import com.baomidou.mybatisplus.annotation.TableField;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+@Data
+@TableName("creem_webhook_inbox")
+public class CreemWebhookInbox {
+    @TableId("id")
+    private Long id;
+
+    @TableField("event_id")
+    private String eventId;
+
+    @TableField("event_type")
+    private String eventType;
+
+    @TableField("partition_key")
+    private String partitionKey;
+
+    @TableField("payload")
+    private String payload;
+
+    @TableField("status")
+    private Status status;
+
+    @TableField("attempts")
+    private Integer attempts;
+
+    @TableField("last_error")
+    private String lastError;
+
+    @TableField("next_attempt_at")
+    private LocalDateTime nextAttemptAt;
+
+    @TableField("lease_owner")
+    private String leaseOwner;
+
+    @TableField("lease_until")
+    private LocalDateTime leaseUntil;
+
+    @TableField("created_at")
+    private LocalDateTime createdAt;
+
+    @TableField("updated_at")
+    private LocalDateTime updatedAt;
+
+    @TableField("processed_at")
+    private LocalDateTime processedAt;
+
+    public enum Status {
+        RECEIVED, // 已落库，待处理
+        PROCESSING, // 已被 drain 抢占，处理中
+        DONE, // 处理完成
+        FAILED, // 处理失败，等待重试
+        DEAD // 超过最大重试次数，需人工处理
+    }
+}
@@ -0,0 +1,57 @@
+package com.logai.creem.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.logai.creem.entity.CreemWebhookInbox;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Mapper
+public interface CreemWebhookInboxMapper extends BaseMapper<CreemWebhookInbox> {
+
+    /**
+     * event_id 已存在时忽略，返回 0 表示重复推送
+     */
+    @Insert("INSERT IGNORE INTO creem_webhook_inbox (id, event_id, event_type, partition_key, payload, status, attempts, created_at, updated_at) " +
+            "VALUES (#{e.id}, #{e.eventId}, #{e.eventType}, #{e.partitionKey}, #{e.payload}, #{e.status}, #{e.attempts}, #{e.createdAt}, #{e.updatedAt})")
+    int insertIgnore(@Param("e") CreemWebhookInbox event);
+
+    /**
+     * 待处理事件：FAILED 事件需到达重试时间，PROCESSING 事件需租约已过期；
+     * 同一客户有更早的、未到重试时间的失败事件或正在处理的事件时不取出，保证顺序
+     */
+    @Select("SELECT * FROM creem_webhook_inbox i " +
+            "WHERE (i.status = 'RECEIVED' " +
+            "OR (i.status = 'FAILED' AND (i.next_attempt_at IS NULL OR i.next_attempt_at <= #{now})) " +
+            "OR (i.status = 'PROCESSING' AND i.lease_until < #{now})) " +
+            "AND NOT EXISTS (SELECT 1 FROM creem_webhook_inbox f " +
+            "WHERE f.partition_key = i.partition_key AND f.id < i.id " +
+            "AND ((f.status = 'FAILED' AND f.next_attempt_at > #{now}) OR (f.status = 'PROCESSING' AND f.lease_until >= #{now}))) " +
+            "ORDER BY i.id LIMIT #{limit}")
+    List<CreemWebhookInbox> findPending(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * 抢占事件，返回 0 表示已被其他 drain 处理或尚未到重试时间
+     */
+    @Update("UPDATE creem_webhook_inbox SET status = 'PROCESSING', lease_owner = #{owner}, lease_until = #{leaseUntil}, " +
+            "attempts = attempts + 1, updated_at = #{now} " +
+            "WHERE id = #{id} AND (status = 'RECEIVED' " +
+            "OR (status = 'FAILED' AND (next_attempt_at IS NULL OR next_attempt_at <= #{now})) " +
+            "OR (status = 'PROCESSING' AND lease_until < #{now}))")
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("leaseUntil") LocalDateTime leaseUntil, @Param("now") LocalDateTime now);
+
+    /**
+     * 结束本次处理（DONE / FAILED / DEAD）并释放租约，返回 0 表示租约已被其他 drain 接管
+     */
+    @Update("UPDATE creem_webhook_inbox SET status = #{e.status}, last_error = #{e.lastError}, " +
+            "next_attempt_at = #{e.nextAttemptAt}, processed_at = #{e.processedAt}, " +
+            "lease_owner = NULL, lease_until = NULL, updated_at = #{e.updatedAt} " +
+            "WHERE id = #{e.id} AND status = 'PROCESSING' AND lease_owner = #{owner}")
+    int release(@Param("e") CreemWebhookInbox event, @Param("owner") String owner);
+}
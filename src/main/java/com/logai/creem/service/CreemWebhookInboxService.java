@@ -0,0 +1,17 @@
+package com.logai.creem.service;
+
+public interface CreemWebhookInboxService {
+
+    /**
+     * 校验并落库 webhook 原始事件，随后异步处理
+     *
+     * @param rawBody 原始请求体
+     * @return false 表示该 event_id 已接收过（重复推送）
+     */
+    boolean receive(String rawBody);
+
+    /**
+     * 处理收件箱中待处理的事件：按接收顺序，同一客户的事件串行执行
+     */
+    void drain();
+}
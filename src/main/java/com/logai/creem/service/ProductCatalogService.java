@@ -0,0 +1,44 @@
+package com.logai.creem.service;
+
+import com.logai.creem.entity.Membership;
+import com.logai.creem.entity.Product;
+
+import java.util.Map;
+
+/**
+ * 产品 / 会员配置只读目录
+ * 两张表只在同步 Creem 产品或运营调整时变化，整体加载到内存，结账和 webhook 直接按 Creem 产品ID查找。
+ * 返回的实体是目录内共享的实例，调用方不要修改。
+ */
+public interface ProductCatalogService {
+
+    /**
+     * 按 Creem 产品ID查询产品，目录中没有时回查数据库
+     */
+    Product getProduct(String productId);
+
+    /**
+     * 按 Creem 产品ID查询对应的会员配置（带 product），目录中没有时回查数据库
+     */
+    Membership getMembershipByProductId(String productId);
+
+    /**
+     * 按主键查询会员配置，目录中没有时回查数据库
+     */
+    Membership getMembership(Long membershipId);
+
+    /**
+     * Creem 产品ID → 产品
+     */
+    Map<String, Product> products();
+
+    /**
+     * Creem 产品ID → 会员配置
+     */
+    Map<String, Membership> membershipsByProductId();
+
+    /**
+     * 重新从数据库加载目录，并递增 Redis 中的目录版本通知其他实例
+     */
+    void refresh();
+}
@@ -0,0 +1,280 @@
+package com.logai.creem.service.impl;
+
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.baomidou.mybatisplus.core.toolkit.IdWorker;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logai.creem.dto.CreemWebhookEvent;
+import com.logai.creem.dto.objects.Customer;
+import com.logai.creem.entity.CreemWebhookInbox;
+import com.logai.creem.mapper.CreemWebhookInboxMapper;
+import com.logai.creem.service.CreemWebhookInboxService;
+import com.logai.creem.service.CreemWebhookService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Creem webhook 收件箱
+ * <p>
+ * 回调只做解析和落库（event_id 唯一，重复推送直接忽略）后立即返回 200，避免处理慢导致 Creem 重试放大负载。
+ * 落库后的事件由集群内唯一的 drain 按 id（接收顺序）取出，按客户分组：同一客户的事件串行处理，组与组之间并行。
+ * 每个事件处理前先以条件 UPDATE 抢占为 PROCESSING 并带租约，drain 锁过期或同一实例内并发 drain 时也不会重复处理；
+ * 单次 drain 的耗时不超过锁 TTL 的一半。
+ * 处理失败的事件保留为 FAILED，并按指数退避设置下次重试时间；到达重试时间前该事件及同一客户的后续事件都不会被取出，
+ * 保证同一客户的顺序。
+ */
+@Slf4j
+@Service
+public class CreemWebhookInboxServiceImpl implements CreemWebhookInboxService {
+    private static final String DRAIN_LOCK_KEY = "creem:webhook:drain:lock";
+    private static final int BATCH_SIZE = 100;
+
+    private final CreemWebhookInboxMapper inboxMapper;
+    private final CreemWebhookService creemWebhookService;
+    private final ObjectMapper objectMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TaskExecutor webhookTaskExecutor;
+
+    /**
+     * 接收后触发 drain 的单线程调度器，队列长度 1：已有待执行的 drain 时新的触发直接合并
+     */
+    private final ThreadPoolExecutor dispatcher = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(1), runnable -> {
+        Thread thread = new Thread(runnable, "Creem-Webhook-Dispatcher");
+        thread.setDaemon(true);
+        return thread;
+    }, new ThreadPoolExecutor.DiscardPolicy());
+
+    @Value("${creem.webhook.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${creem.webhook.retry-backoff-base-seconds:60}")
+    private long retryBackoffBaseSeconds;
+
+    @Value("${creem.webhook.retry-backoff-max-seconds:3600}")
+    private long retryBackoffMaxSeconds;
+
+    @Value("${creem.webhook.drain-lock-ttl:120}")
+    private long drainLockTtlSeconds;
+
+    @Value("${creem.webhook.lease-seconds:300}")
+    private long leaseSeconds;
+
+    public CreemWebhookInboxServiceImpl(CreemWebhookInboxMapper inboxMapper,
+                                        CreemWebhookService creemWebhookService,
+                                        ObjectMapper objectMapper,
+                                        StringRedisTemplate stringRedisTemplate,
+                                        @Qualifier("creemWebhookTaskExecutor") TaskExecutor webhookTaskExecutor) {
+        this.inboxMapper = inboxMapper;
+        this.creemWebhookService = creemWebhookService;
+        this.objectMapper = objectMapper;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.webhookTaskExecutor = webhookTaskExecutor;
+    }
+
+    @Override
+    public boolean receive(String rawBody) {
+        // 解析失败直接抛出，由调用方返回 400
+        CreemWebhookEvent event = parse(rawBody);
+        LocalDateTime now = LocalDateTime.now();
+
+        CreemWebhookInbox record = new CreemWebhookInbox();
+        record.setId(IdWorker.getId());
+        // 缺少事件ID时以请求体摘要去重
+        record.setEventId(StringUtils.isNotBlank(event.getId()) ? event.getId() : "sha256:" + DigestUtil.sha256Hex(rawBody));
+        record.setEventType(event.getEventTypeRaw());
+        record.setPartitionKey(StringUtils.abbreviate(partitionKey(event, record.getEventId()), 255));
+        record.setPayload(rawBody);
+        record.setStatus(CreemWebhookInbox.Status.RECEIVED);
+        record.setAttempts(0);
+        record.setCreatedAt(now);
+        record.setUpdatedAt(now);
+
+        boolean inserted = inboxMapper.insertIgnore(record) > 0;
+        if (!inserted) {
+            log.info("🔁 重复的 Creem webhook，忽略 eventId={}", record.getEventId());
+            return false;
+        }
+        log.info("📥 Creem webhook 已入库 eventId={} type={}", record.getEventId(), record.getEventType());
+        dispatcher.execute(this::drainQuietly);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${creem.webhook.drain-interval-ms:5000}")
+    public void scheduledDrain() {
+        drainQuietly();
+    }
+
+    @Override
+    public void drain() {
+        String token = IdUtil.fastSimpleUUID();
+        Boolean locked = stringRedisTemplate.opsForValue()
+                .setIfAbsent(DRAIN_LOCK_KEY, token, Duration.ofSeconds(drainLockTtlSeconds));
+        if (!Boolean.TRUE.equals(locked)) {
+            return;
+        }
+        // 锁过期前结束本次 drain，剩余事件留给下一次
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(drainLockTtlSeconds) / 2;
+        try {
+            List<CreemWebhookInbox> batch;
+            int processed;
+            do {
+                // 本轮失败的事件已设置下次重试时间，不会被再次取出
+                batch = inboxMapper.findPending(LocalDateTime.now(), BATCH_SIZE);
+                processed = processBatch(batch, token);
+            } while (batch.size() == BATCH_SIZE && processed > 0 && System.nanoTime() - deadline < 0);
+        } finally {
+            releaseLock(token);
+        }
+    }
+
+    private int processBatch(List<CreemWebhookInbox> batch, String owner) {
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        Map<String, List<CreemWebhookInbox>> byPartition = new LinkedHashMap<>();
+        for (CreemWebhookInbox record : batch) {
+            byPartition.computeIfAbsent(record.getPartitionKey(), key -> new ArrayList<>()).add(record);
+        }
+        List<CompletableFuture<Integer>> futures = new ArrayList<>();
+        for (List<CreemWebhookInbox> group : byPartition.values()) {
+            futures.add(CompletableFuture.supplyAsync(() -> processGroup(group, owner), webhookTaskExecutor));
+        }
+        int processed = 0;
+        for (CompletableFuture<Integer> future : futures) {
+            try {
+                processed += future.get();
+            } catch (Exception e) {
+                log.error("Creem webhook 分组处理异常: {}", e.getMessage(), e);
+            }
+        }
+        return processed;
+    }
+
+    private int processGroup(List<CreemWebhookInbox> group, String owner) {
+        int processed = 0;
+        for (CreemWebhookInbox record : group) {
+            if (!process(record, owner)) {
+                // 保证同一客户顺序：失败或未抢占到时本轮不再处理该客户的后续事件
+                break;
+            }
+            processed++;
+        }
+        return processed;
+    }
+
+    private boolean process(CreemWebhookInbox record, String owner) {
+        LocalDateTime claimedAt = LocalDateTime.now();
+        if (inboxMapper.claim(record.getId(), owner, claimedAt.plusSeconds(leaseSeconds), claimedAt) == 0) {
+            log.info("Creem webhook 已被其他处理方抢占，跳过 eventId={}", record.getEventId());
+            return false;
+        }
+        // claim 已把 attempts 加 1
+        int attempts = (record.getAttempts() == null ? 0 : record.getAttempts()) + 1;
+        CreemWebhookInbox update = new CreemWebhookInbox();
+        update.setId(record.getId());
+        try {
+            creemWebhookService.handleEvent(parse(record.getPayload()));
+            LocalDateTime now = LocalDateTime.now();
+            update.setStatus(CreemWebhookInbox.Status.DONE);
+            update.setProcessedAt(now);
+            update.setUpdatedAt(now);
+            release(update, owner);
+            return true;
+        } catch (Exception e) {
+            LocalDateTime now = LocalDateTime.now();
+            boolean dead = attempts >= maxAttempts;
+            update.setStatus(dead ? CreemWebhookInbox.Status.DEAD : CreemWebhookInbox.Status.FAILED);
+            update.setLastError(StringUtils.abbreviate(e.getMessage(), 1000));
+            if (!dead) {
+                update.setNextAttemptAt(now.plusSeconds(retryBackoff(attempts)));
+            }
+            update.setUpdatedAt(now);
+            release(update, owner);
+            log.error("❌ Creem webhook 处理失败 eventId={} attempts={} status={}: {}",
+                    record.getEventId(), attempts, update.getStatus(), e.getMessage(), e);
+            // 进入 DEAD 的事件不再阻塞同一客户的后续事件
+            return dead;
+        }
+    }
+
+    private void release(CreemWebhookInbox update, String owner) {
+        if (inboxMapper.release(update, owner) == 0) {
+            log.warn("Creem webhook 租约已过期并被其他处理方接管 id={} status={}", update.getId(), update.getStatus());
+        }
+    }
+
+    /**
+     * 第 n 次失败后的重试间隔：base * 2^(n-1)，不超过上限
+     */
+    private long retryBackoff(int attempts) {
+        return Math.min(retryBackoffMaxSeconds, retryBackoffBaseSeconds << Math.min(attempts - 1, 20));
+    }
+
+    private CreemWebhookEvent parse(String rawBody) {
+        try {
+            CreemWebhookEvent event = objectMapper.readValue(rawBody, CreemWebhookEvent.class);
+            if (event.getObject() != null) {
+                event.getObject().buildTypedObject(objectMapper);
+            }
+            return event;
+        } catch (Exception e) {
+            throw new IllegalArgumentException("Invalid Creem webhook payload", e); // Creem webhook 请求体无效
+        }
+    }
+
+    /**
+     * 同一客户的事件放在同一分组：优先客户邮箱，其次对象ID
+     */
+    private String partitionKey(CreemWebhookEvent event, String eventId) {
+        CreemWebhookEvent.EventObject object = event.getObject();
+        if (object == null) {
+            return eventId;
+        }
+        Customer customer = null;
+        if (object.getCheckout() != null) {
+            customer = object.getCheckout().getCustomer();
+        } else if (object.getSubscription() != null) {
+            customer = object.getSubscription().getCustomer();
+        }
+        if (customer != null && StringUtils.isNotBlank(customer.getEmail())) {
+            return customer.getEmail().toLowerCase(Locale.ROOT);
+        }
+        return StringUtils.defaultIfBlank(object.getId(), eventId);
+    }
+
+    private void drainQuietly() {
+        try {
+            drain();
+        } catch (Exception e) {
+            log.error("Creem webhook 收件箱处理失败: {}", e.getMessage(), e);
+        }
+    }
+
+    private void releaseLock(String token) {
+        try {
+            if (Objects.equals(token, stringRedisTemplate.opsForValue().get(DRAIN_LOCK_KEY))) {
+                stringRedisTemplate.delete(DRAIN_LOCK_KEY);
+            }
+        } catch (Exception e) {
+            log.warn("释放 Creem webhook 处理锁失败 - 错误: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+    }
+}
@@ -11,11 +11,10 @@ import com.logai.creem.entity.Product;
 import com.logai.creem.entity.UserMembership;
 import com.logai.creem.enums.CreemEventType;
 import com.logai.creem.enums.OrderStatus;
-import com.logai.creem.mapper.MembershipMapper;
 import com.logai.creem.mapper.OrderMapper;
-import com.logai.creem.mapper.ProductMapper;
 import com.logai.creem.mapper.UserMembershipMapper;
 import com.logai.creem.service.CreemWebhookService;
+import com.logai.creem.service.ProductCatalogService;
 import com.logai.oauth2.service.OAuth2TokenService;
 import com.logai.security.service.TokenService;
 import com.logai.user.entity.User;
@@ -36,8 +35,7 @@ import java.util.Objects;
 @RequiredArgsConstructor
 public class CreemWebhookServiceImpl implements CreemWebhookService {
     private final OrderMapper orderMapper;
-    private final ProductMapper productMapper;
-    private final MembershipMapper membershipMapper;
+    private final ProductCatalogService productCatalogService;
     private final UserMembershipMapper userMembershipMapper;
     private final UserMapper userMapper;
     private final UserService userService;
@@ -233,7 +231,7 @@ public class CreemWebhookServiceImpl implements CreemWebhookService {
             orderMapper.updateById(order);
         } else {
             String productId = checkout.getProduct().getId();
-            Product p = productMapper.findByProductId(productId);
+            Product p = productCatalogService.getProduct(productId);
             if (p != null) {
                 order.setProductId(p.getId());
             }
@@ -252,7 +250,7 @@ public class CreemWebhookServiceImpl implements CreemWebhookService {
 
         try {
             // 1. 查询产品配置 (MyBatis-Plus)
-            Product product = productMapper.findByProductId(productId);
+            Product product = productCatalogService.getProduct(productId);
 
             if (product == null) {
                 // 对应 switchIfEmpty logic
@@ -289,14 +287,14 @@ public class CreemWebhookServiceImpl implements CreemWebhookService {
         existing.setUpdatedAt(now);
         existing.setSubscriptionId(subscriptionId);
         existing.setLastTransactionId(subscription.getLastTransactionId());
-        Membership oldMembership = membershipMapper.selectById(existing.getMembershipId());
+        Membership oldMembership = productCatalogService.getMembership(existing.getMembershipId());
         if (oldMembership == null) {
             // 这种情况通常不应发生，但为了逻辑完整性需处理
             log.error("未找到 ID 为 {} 的旧会员配置", existing.getMembershipId());
             return null;
         }
 
-        Membership newMembership = membershipMapper.findByProductId(product.getId());
+        Membership newMembership = productCatalogService.getMembershipByProductId(product.getProductId());
         if (newMembership == null) {
             log.warn("未找到产品ID为 {} 的会员配置，无法为用户 {} 更新会员信息", product.getId(), existing.getUserId());
             return null;
@@ -325,7 +323,7 @@ public class CreemWebhookServiceImpl implements CreemWebhookService {
     }
 
     private UserMembership createNewMembership(Long userId, SubscriptionObject subscription, Product product, String subscriptionId) {
-        Membership membership = membershipMapper.findByProductId(product.getId());
+        Membership membership = productCatalogService.getMembershipByProductId(product.getProductId());
         LocalDateTime now = LocalDateTime.now();
         UserMembership userMembership = new UserMembership();
         userMembership.setUserId(userId);
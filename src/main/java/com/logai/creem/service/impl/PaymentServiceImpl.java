@@ -1,9 +1,9 @@
 package com.logai.creem.service.impl;
 
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
+import com.logai.common.http.HttpResult;
+import com.logai.common.http.OutboundHttpClient;
 import com.logai.common.utils.GenerateRandomUtil;
 import com.logai.creem.dto.CreateCheckoutRequest;
 import com.logai.creem.dto.CreateCheckoutResponse;
@@ -12,16 +12,18 @@ import com.logai.creem.entity.Order;
 import com.logai.creem.entity.Product;
 import com.logai.creem.enums.OrderStatus;
 import com.logai.creem.mapper.OrderMapper;
-import com.logai.creem.mapper.ProductMapper;
 import com.logai.creem.service.PaymentService;
+import com.logai.creem.service.ProductCatalogService;
 import com.logai.user.entity.User;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.time.LocalDateTime;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -30,7 +32,8 @@ public class PaymentServiceImpl implements PaymentService {
 
     private final GenerateRandomUtil randomUtil;
     private final OrderMapper orderMapper;
-    private final ProductMapper productRepository;
+    private final ProductCatalogService productCatalogService;
+    private final OutboundHttpClient outboundHttpClient;
 
     @Value("${creem.api-key}")
     private String apiKey;
@@ -60,21 +63,17 @@ public class PaymentServiceImpl implements PaymentService {
         log.debug("请求 Creem 创建支付会话: path={}, request={}", checkoutPath, JSON.toJSONString(request));
 
         // ======== 1. 查询产品 ========
-        Product product = productRepository.findByProductId(request.getProductId());
+        Product product = productCatalogService.getProduct(request.getProductId());
         if (product == null) {
             throw new RuntimeException("Creem 产品不存在");
         }
 
-        // ======== 2. 使用 Hutool 发送一次 POST 请求 ========
+        // ======== 2. 发送一次 POST 请求（非幂等，仅在连接未建立时重试） ========
         String url = baseUrl + checkoutPath;
 
-        HttpResponse response;
+        HttpResult response;
         try {
-            response = HttpRequest.post(url)
-                    .header("x-api-key", apiKey)
-                    .header("Content-Type", "application/json")
-                    .body(JSON.toJSONString(request))
-                    .execute();
+            response = outboundHttpClient.post("creem", url, creemHeaders(), JSON.toJSONString(request));
         } catch (Exception e) {
             log.error("调用 Creem 创建 Checkout 接口失败: {}", e.getMessage(), e);
             throw new RuntimeException("Creem 支付接口调用失败");
@@ -84,9 +83,9 @@ public class PaymentServiceImpl implements PaymentService {
         String responseBody = response.body();
 
         // ======== 3. 模拟 WebClient.onStatus 行为 ========
-        if (response.getStatus() >= 400) {
-            log.error("创建 Creem 支付会话失败，状态码：{}，响应：{}", response.getStatus(), responseBody);
-            throw new RuntimeException("Creem 支付接口调用失败: " + response.getStatus());
+        if (response.status() >= 400) {
+            log.error("创建 Creem 支付会话失败，状态码：{}，响应：{}", response.status(), responseBody);
+            throw new RuntimeException("Creem 支付接口调用失败: " + response.status());
         }
 
         // ======== 4. JSON 解析 ========
@@ -166,11 +165,7 @@ public class PaymentServiceImpl implements PaymentService {
 
         try {
             // 发送 HTTP 请求
-            String responseStr = HttpRequest.get(baseUrl + url)
-                    .header("x-api-key", apiKey)
-                    .header("Content-Type", "application/json")
-                    .execute()
-                    .body();
+            String responseStr = outboundHttpClient.get("creem", baseUrl + url, creemHeaders()).body();
 
             if (StringUtils.isEmpty(responseStr)) {
                 log.error("Creem Get Checkout 返回空响应，checkoutId={}", checkoutId);
@@ -204,4 +199,8 @@ public class PaymentServiceImpl implements PaymentService {
         order.setUpdatedAt(LocalDateTime.now());
         return order;
     }
+
+    private Map<String, String> creemHeaders() {
+        return Map.of("x-api-key", apiKey, "Content-Type", MediaType.APPLICATION_JSON_VALUE);
+    }
 }
@@ -0,0 +1,177 @@
+package com.logai.creem.service.impl;
+
+import com.logai.creem.entity.Membership;
+import com.logai.creem.entity.Product;
+import com.logai.creem.mapper.MembershipMapper;
+import com.logai.creem.mapper.ProductMapper;
+import com.logai.common.metrics.CacheMetrics;
+import com.logai.creem.service.ProductCatalogService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * products / memberships 内存目录
+ * <p>
+ * 目录整体是不可变快照，{@link #refresh()} 构建新快照后整体替换引用，读路径无锁。
+ * 产品同步完成后调用 {@link #refresh()}，Redis 中的 {@code creem:catalog:version} 随之递增，
+ * 其他实例在下一次版本检查时重新加载；运营直接改表后也可手动 INCR 该键。另有兜底的定时全量刷新。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ProductCatalogServiceImpl implements ProductCatalogService {
+    private static final String VERSION_KEY = "creem:catalog:version";
+    private static final String CACHE_NAME = "product_catalog";
+
+    private final ProductMapper productMapper;
+    private final MembershipMapper membershipMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final CacheMetrics cacheMetrics;
+
+    @Value("${creem.catalog.max-age-ms:3600000}")
+    private long maxAgeMs;
+
+    private volatile Catalog catalog = Catalog.EMPTY;
+
+    @PostConstruct
+    public void load() {
+        reload(readVersion());
+    }
+
+    @Override
+    public Product getProduct(String productId) {
+        if (productId == null) {
+            return null;
+        }
+        Product product = catalog.productsByProductId().get(productId);
+        if (product != null) {
+            cacheMetrics.hit(CACHE_NAME);
+        } else {
+            // 其他实例刚同步、本实例还未刷新时回查数据库
+            cacheMetrics.miss(CACHE_NAME);
+            product = productMapper.findByProductId(productId);
+        }
+        return product;
+    }
+
+    @Override
+    public Membership getMembershipByProductId(String productId) {
+        if (productId == null) {
+            return null;
+        }
+        Membership membership = catalog.membershipsByProductId().get(productId);
+        if (membership == null) {
+            Product product = getProduct(productId);
+            membership = product == null ? null : membershipMapper.findByProductId(product.getId());
+        }
+        return membership;
+    }
+
+    @Override
+    public Membership getMembership(Long membershipId) {
+        if (membershipId == null) {
+            return null;
+        }
+        Membership membership = catalog.membershipsById().get(membershipId);
+        if (membership != null) {
+            cacheMetrics.hit(CACHE_NAME);
+            return membership;
+        }
+        cacheMetrics.miss(CACHE_NAME);
+        return membershipMapper.selectById(membershipId);
+    }
+
+    @Override
+    public Map<String, Product> products() {
+        return catalog.productsByProductId();
+    }
+
+    @Override
+    public Map<String, Membership> membershipsByProductId() {
+        return catalog.membershipsByProductId();
+    }
+
+    @Override
+    public void refresh() {
+        String version = null;
+        try {
+            Long next = stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+            version = next == null ? null : String.valueOf(next);
+        } catch (Exception e) {
+            log.warn("递增产品目录版本失败，仅刷新本实例 - 错误: {}", e.getMessage());
+        }
+        reload(version);
+    }
+
+    @Scheduled(fixedDelayString = "${creem.catalog.check-interval-ms:30000}",
+            initialDelayString = "${creem.catalog.check-interval-ms:30000}")
+    public void checkVersion() {
+        String version = readVersion();
+        Catalog current = catalog;
+        boolean versionChanged = !Objects.equals(version, current.version());
+        boolean expired = System.currentTimeMillis() - current.loadedAt() > maxAgeMs;
+        if (versionChanged || expired) {
+            reload(version);
+        }
+    }
+
+    private synchronized void reload(String version) {
+        try {
+            List<Product> products = productMapper.selectList(null);
+            List<Membership> memberships = membershipMapper.selectList(null);
+
+            Map<String, Product> productsByProductId = new HashMap<>();
+            Map<Long, Product> productsById = new HashMap<>();
+            for (Product product : products) {
+                if (product.getProductId() != null) {
+                    productsByProductId.put(product.getProductId(), product);
+                }
+                productsById.put(product.getId(), product);
+            }
+
+            // 与 MembershipMapper.findByProductId 保持一致：同一产品有多条配置时取 id 最小的一条
+            memberships.sort(Comparator.comparing(Membership::getId));
+            Map<String, Membership> membershipsByProductId = new HashMap<>();
+            Map<Long, Membership> membershipsById = new HashMap<>();
+            for (Membership membership : memberships) {
+                Product product = membership.getProductId() == null ? null : productsById.get(membership.getProductId());
+                membership.setProduct(product);
+                membershipsById.put(membership.getId(), membership);
+                if (product != null && product.getProductId() != null) {
+                    membershipsByProductId.putIfAbsent(product.getProductId(), membership);
+                }
+            }
+
+            catalog = new Catalog(version, System.currentTimeMillis(),
+                    Map.copyOf(productsByProductId), Map.copyOf(membershipsByProductId), Map.copyOf(membershipsById));
+            log.info("产品目录加载完成 - 版本: {}, 产品: {}, 会员配置: {}", version, products.size(), memberships.size());
+        } catch (Exception e) {
+            // 加载失败保留旧目录，下次检查时重试
+            log.error("产品目录加载失败 - 错误: {}", e.getMessage(), e);
+        }
+    }
+
+    private String readVersion() {
+        try {
+            return stringRedisTemplate.opsForValue().get(VERSION_KEY);
+        } catch (Exception e) {
+            log.warn("读取产品目录版本失败 - 错误: {}", e.getMessage());
+            return catalog.version();
+        }
+    }
+
+    private record Catalog(String version,
+                           long loadedAt,
+                           Map<String, Product> productsByProductId,
+                           Map<String, Membership> membershipsByProductId,
+                           Map<Long, Membership> membershipsById) {
+        static final Catalog EMPTY = new Catalog(null, 0L, Map.of(), Map.of(), Map.of());
+    }
+}
@@ -1,9 +1,10 @@
 package com.logai.creem.service.impl;
 
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
+import com.logai.common.http.HttpResult;
+import com.logai.common.http.OutboundHttpClient;
 import com.logai.creem.entity.Product;
 import com.logai.creem.mapper.ProductMapper;
+import com.logai.creem.service.ProductCatalogService;
 import com.logai.creem.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -17,6 +18,7 @@ import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -24,6 +26,8 @@ import java.util.List;
 public class ProductServiceImpl implements ProductService {
 
     private final ProductMapper productRepository;
+    private final OutboundHttpClient outboundHttpClient;
+    private final ProductCatalogService productCatalogService;
 
     @Value("${creem.api-key}")
     private String apiKey;
@@ -55,6 +59,8 @@ public class ProductServiceImpl implements ProductService {
             }
 
             log.info("成功同步 {} 个产品", persisted.size());
+            // 整体替换内存目录并通知其他实例
+            productCatalogService.refresh();
             return persisted;
 
         } catch (Exception ex) {
@@ -69,14 +75,13 @@ public class ProductServiceImpl implements ProductService {
     }
 
     private JSONObject fetchProductsFromCreem() {
-        try (HttpResponse response = HttpRequest.get(baseUrl + searchProductsPath)
-                .header("x-api-key", apiKey)
-                .execute()) {
+        try {
+            HttpResult response = outboundHttpClient.get("creem", baseUrl + searchProductsPath, Map.of("x-api-key", apiKey));
             if (response.isOk()) {
                 return new JSONObject(response.body());
             } else {
-                log.error("调用 Creem 产品搜索接口失败，状态码：{}，响应：{}", response.getStatus(), response.body());
-                throw new RuntimeException("Creem product API request failed: " + response.getStatus());
+                log.error("调用 Creem 产品搜索接口失败，状态码：{}，响应：{}", response.status(), response.body());
+                throw new RuntimeException("Creem product API request failed: " + response.status());
             }
         } catch (Exception ex) {
             log.error("调用 Creem 产品搜索接口失败: {}", ex.getMessage(), ex);
@@ -1,14 +1,14 @@
 package com.logai.creem.service.impl;
 
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
 import com.alibaba.fastjson.JSON;
 import com.alibaba.fastjson.JSONObject;
+import com.logai.common.http.HttpResult;
+import com.logai.common.http.OutboundHttpClient;
 import com.logai.creem.dto.UpgradeSubscriptionRequest;
 import com.logai.creem.entity.Product;
 import com.logai.creem.entity.UserMembership;
-import com.logai.creem.mapper.ProductMapper;
 import com.logai.creem.mapper.UserMembershipMapper;
+import com.logai.creem.service.ProductCatalogService;
 import com.logai.creem.service.SubscriptionService;
 import com.logai.user.entity.User;
 import lombok.RequiredArgsConstructor;
@@ -18,6 +18,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 
+import java.util.Map;
 import java.util.Objects;
 
 @Slf4j
@@ -26,7 +27,8 @@ import java.util.Objects;
 public class SubscriptionServiceImpl implements SubscriptionService {
 
     private final UserMembershipMapper userMembershipRepository;
-    private final ProductMapper productRepository;
+    private final ProductCatalogService productCatalogService;
+    private final OutboundHttpClient outboundHttpClient;
 
     @Value("${creem.api-key}")
     private String apiKey;
@@ -59,7 +61,7 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         if (request == null || StringUtils.isBlank(request.getProductId())) {
             throw new IllegalArgumentException("Product ID must not be blank"); // 产品 ID 不能为空
         }
-        Product product = productRepository.findByProductId(request.getProductId());
+        Product product = productCatalogService.getProduct(request.getProductId());
         if (product == null) {
             throw new IllegalArgumentException("Unconfigured product ID: " + request.getProductId());
         }
@@ -97,12 +99,9 @@ public class SubscriptionServiceImpl implements SubscriptionService {
         log.info("请求 Creem 取消订阅: subscriptionId={}, path={}", subscriptionId, path);
 
         try {
-            HttpResponse response = HttpRequest.post(url)
-                    .header("x-api-key", apiKey)
-                    .contentType(MediaType.APPLICATION_JSON_VALUE)
-                    .execute();
+            HttpResult response = outboundHttpClient.post("creem", url, creemHeaders(), null);
 
-            int status = response.getStatus();
+            int status = response.status();
             String body = response.body();
 
             if (status >= 400) {
@@ -126,13 +125,9 @@ public class SubscriptionServiceImpl implements SubscriptionService {
                 subscriptionId, path, JSON.toJSONString(request));
 
         try {
-            HttpResponse response = HttpRequest.post(url)
-                    .header("x-api-key", apiKey)
-                    .contentType(MediaType.APPLICATION_JSON_VALUE)
-                    .body(JSON.toJSONString(request))
-                    .execute();
+            HttpResult response = outboundHttpClient.post("creem", url, creemHeaders(), JSON.toJSONString(request));
 
-            int status = response.getStatus();
+            int status = response.status();
             String body = response.body();
 
             // 模拟 WebClient.onStatus 行为
@@ -148,4 +143,8 @@ public class SubscriptionServiceImpl implements SubscriptionService {
             throw new RuntimeException("Creem upgrade subscription API call failed", e);
         }
     }
-}
\ No newline at end of file
+
+    private Map<String, String> creemHeaders() {
+        return Map.of("x-api-key", apiKey, "Content-Type", MediaType.APPLICATION_JSON_VALUE);
+    }
+}
@@ -7,6 +7,7 @@ import com.logai.assint.util.TokenCounter;
 import com.logai.common.exception.BusinessException;
 import com.logai.mcp.meta.RecordMeta;
 import com.logai.mcp.meta.testmeta;
+import com.logai.mcp.service.WidgetTemplateService;
 import com.logai.security.annotation.MemberOnly;
 import com.logai.user.entity.User;
 import io.modelcontextprotocol.spec.McpSchema;
@@ -20,10 +21,6 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import reactor.core.publisher.Mono;
 
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.util.*;
 
 @Slf4j
@@ -34,6 +31,7 @@ public class AssintMcpService {
     private static final String OUTPUT_TEMPLATE_RESOURCE_URI = "ui://widget/logai-record-card.html";
 
     private final AssistService assistService;
+    private final WidgetTemplateService widgetTemplateService;
 
     @McpTool(description = """
               Records user-reported daily life events into their personal data log.
@@ -120,21 +118,7 @@ public class AssintMcpService {
     )
     public Mono<McpSchema.ReadResourceResult> getWidgetHtml() {
 
-        HttpRequest httpRequest = HttpRequest.newBuilder()
-                .GET()
-                .uri(URI.create(OUTPUT_TEMPLATE_SOURCE_URL))
-                .build();
-
-        return Mono.fromCompletionStage(HttpClient.newBuilder().build().sendAsync(httpRequest, HttpResponse.BodyHandlers.ofString()))
-                .map(HttpResponse::body)
-                .onErrorResume(err -> {
-                    // Fallback minimal template embedding the remote app
-                    String fallback = "<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>LogAI Record Card</title></head>" +
-                            "<body style=\"margin:0;padding:0;height:100vh\">" +
-                            "<iframe src=\"" + OUTPUT_TEMPLATE_SOURCE_URL + "\" style=\"border:0;width:100%;height:100%\"></iframe>" +
-                            "</body></html>";
-                    return Mono.just(fallback);
-                })
+        return Mono.fromSupplier(() -> widgetTemplateService.getHtml(OUTPUT_TEMPLATE_SOURCE_URL))
                 .map(html -> {
                     Map<String, Object> meta = Map.of(
                             "openai/widgetPrefersBorder", true,
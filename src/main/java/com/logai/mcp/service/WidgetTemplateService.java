@@ -0,0 +1,21 @@
+package com.logai.mcp.service;
+
+/**
+ * MCP UI 模板缓存
+ * 读取时总是直接返回内存中的模板（stale-while-revalidate），过期后在后台用 ETag 重新校验
+ */
+public interface WidgetTemplateService {
+
+    /**
+     * 获取模板 HTML，不会阻塞在远程请求上
+     * 尚未拉取成功时返回 classpath 中打包的副本
+     *
+     * @param sourceUrl 模板源地址
+     */
+    String getHtml(String sourceUrl);
+
+    /**
+     * 同步重新校验所有已登记的模板
+     */
+    void refreshAll();
+}
@@ -0,0 +1,139 @@
+package com.logai.mcp.service.impl;
+
+import com.logai.common.http.HttpResult;
+import com.logai.common.http.OutboundHttpClient;
+import com.logai.mcp.service.WidgetTemplateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.HtmlUtils;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * MCP UI 模板缓存
+ * <p>
+ * 每个模板地址对应一份不可变的缓存条目，读路径只读引用，不发起网络请求。
+ * 条目超过刷新间隔后，第一个读到它的请求在后台触发一次条件请求（If-None-Match / If-Modified-Since），
+ * 304 只更新校验时间，200 替换内容；请求失败时继续使用旧内容。
+ * 冷启动或从未拉取成功时使用 classpath 中打包的 mcp/widget.html，其中的 ${sourceUrl} 替换为转义后的模板地址，按地址缓存。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class WidgetTemplateServiceImpl implements WidgetTemplateService {
+    private static final String DOWNSTREAM = "mcp-widget";
+    private static final String BUNDLED_TEMPLATE = "mcp/widget.html";
+    private static final String SOURCE_URL_PLACEHOLDER = "${sourceUrl}";
+    private static final String FALLBACK_TEMPLATE = "<!DOCTYPE html><html><head><meta charset=\"utf-8\"><title>LogAI Record Card</title></head>" +
+            "<body style=\"margin:0;padding:0;height:100vh\">" +
+            "<iframe src=\"" + SOURCE_URL_PLACEHOLDER + "\" style=\"border:0;width:100%;height:100%\"></iframe>" +
+            "</body></html>";
+
+    private final OutboundHttpClient outboundHttpClient;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final Map<String, AtomicBoolean> revalidating = new ConcurrentHashMap<>();
+    private final Map<String, String> bundledHtml = new ConcurrentHashMap<>();
+    private volatile String bundledTemplate;
+
+    @Value("${mcp.widget.refresh-interval-ms:300000}")
+    private long refreshIntervalMs;
+
+    @Override
+    public String getHtml(String sourceUrl) {
+        Entry entry = entries.get(sourceUrl);
+        if (entry == null) {
+            // 首次读取：先返回打包副本，同时后台拉取
+            revalidateAsync(sourceUrl);
+            return bundled(sourceUrl);
+        }
+        if (System.currentTimeMillis() - entry.validatedAt() > refreshIntervalMs) {
+            revalidateAsync(sourceUrl);
+        }
+        return entry.html();
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${mcp.widget.refresh-interval-ms:300000}")
+    public void refreshAll() {
+        for (String sourceUrl : entries.keySet()) {
+            revalidate(sourceUrl);
+        }
+    }
+
+    private void revalidateAsync(String sourceUrl) {
+        AtomicBoolean running = revalidating.computeIfAbsent(sourceUrl, key -> new AtomicBoolean());
+        if (!running.compareAndSet(false, true)) {
+            return;
+        }
+        Schedulers.boundedElastic().schedule(() -> {
+            try {
+                revalidate(sourceUrl);
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    private void revalidate(String sourceUrl) {
+        Entry current = entries.get(sourceUrl);
+        Map<String, String> headers = new HashMap<>();
+        if (current != null && current.etag() != null) {
+            headers.put("If-None-Match", current.etag());
+        }
+        if (current != null && current.lastModified() != null) {
+            headers.put("If-Modified-Since", current.lastModified());
+        }
+        try {
+            HttpResult response = outboundHttpClient.get(DOWNSTREAM, sourceUrl, headers);
+            long now = System.currentTimeMillis();
+            if (response.status() == 304 && current != null) {
+                entries.put(sourceUrl, new Entry(current.html(), current.etag(), current.lastModified(), now));
+                log.debug("MCP 模板未变化: {}", sourceUrl);
+            } else if (response.isOk() && response.body() != null && !response.body().isBlank()) {
+                entries.put(sourceUrl, new Entry(response.body(),
+                        response.header("ETag").orElse(null),
+                        response.header("Last-Modified").orElse(null),
+                        now));
+                log.info("MCP 模板已更新: {}, 大小: {}", sourceUrl, response.body().length());
+            } else {
+                log.warn("MCP 模板拉取失败，继续使用旧内容 - 地址: {}, 状态码: {}", sourceUrl, response.status());
+            }
+        } catch (Exception e) {
+            log.warn("MCP 模板拉取异常，继续使用旧内容 - 地址: {}, 错误: {}", sourceUrl, e.getMessage());
+        }
+    }
+
+    private String bundled(String sourceUrl) {
+        return bundledHtml.computeIfAbsent(sourceUrl,
+                url -> bundledTemplate().replace(SOURCE_URL_PLACEHOLDER, HtmlUtils.htmlEscape(url)));
+    }
+
+    private String bundledTemplate() {
+        String template = bundledTemplate;
+        if (template != null) {
+            return template;
+        }
+        try (InputStream in = new ClassPathResource(BUNDLED_TEMPLATE).getInputStream()) {
+            template = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (Exception e) {
+            log.warn("读取打包的 MCP 模板失败，使用 iframe 兜底 - 错误: {}", e.getMessage());
+            template = FALLBACK_TEMPLATE;
+        }
+        bundledTemplate = template;
+        return template;
+    }
+
+    private record Entry(String html, String etag, String lastModified, long validatedAt) {
+    }
+}
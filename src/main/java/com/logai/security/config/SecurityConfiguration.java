@@ -1,6 +1,8 @@
 package com.logai.security.config;
 
 import com.logai.security.filter.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -16,6 +18,12 @@ import org.springframework.security.web.context.HttpSessionSecurityContextReposi
 @EnableMethodSecurity
 public class SecurityConfiguration {
 
+    /**
+     * actuator 独立端口，只在内网开放给 Prometheus 抓取，不经公网负载均衡
+     */
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http,
                                                    JwtAuthenticationFilter jwtAuthenticationFilter) throws Exception {
@@ -26,6 +34,9 @@ public class SecurityConfiguration {
                         context.securityContextRepository(new HttpSessionSecurityContextRepository())
                 )
                 .authorizeHttpRequests(auth -> auth
+                        // 长轮询等异步请求的二次分派沿用首次请求的鉴权结果
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                        .requestMatchers(request -> managementPort > 0 && request.getLocalPort() == managementPort).permitAll()
                         .requestMatchers(
                                 "/api/user/register",
                                 "/api/user/login",
@@ -36,7 +47,8 @@ public class SecurityConfiguration {
                                 "/api/creem/order/checkout/status/callback",
                                 "/mcp/**",
                                 "/.well-known/**",
-                                "/actuator/**",
+                                "/actuator/health",
+                                "/actuator/health/**",
                                 "/error/**",
                                 "/login"
                         ).permitAll()
@@ -3,8 +3,8 @@ package com.logai.security.filter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.logai.creem.entity.Membership;
 import com.logai.creem.entity.UserMembership;
-import com.logai.creem.mapper.MembershipMapper;
 import com.logai.creem.mapper.UserMembershipMapper;
+import com.logai.creem.service.ProductCatalogService;
 import com.logai.oauth2.service.OAuth2TokenService;
 import com.logai.security.dto.TokenInfo;
 import com.logai.security.service.TokenService;
@@ -42,7 +42,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final OAuth2TokenService oauth2TokenService;
     private final UserMapper userMapper;
     private final UserMembershipMapper userMembershipMapper;
-    private final MembershipMapper membershipMapper;
+    private final ProductCatalogService productCatalogService;
     private final ObjectMapper objectMapper;
 
     @Override
@@ -257,7 +257,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 user.setRole(0);
                 return new SimpleGrantedAuthority("ROLE_GUEST");
             }
-            Membership membership = membershipMapper.selectById(userMembership.getMembershipId());
+            Membership membership = productCatalogService.getMembership(userMembership.getMembershipId());
             user.setRole(membership.getId().intValue());
             return new SimpleGrantedAuthority(
                     Optional.ofNullable(membership.getRoleName()).orElse("ROLE_GUEST")
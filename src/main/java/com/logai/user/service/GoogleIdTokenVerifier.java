@@ -0,0 +1,19 @@
+package com.logai.user.service;
+
+import com.logai.user.dto.GoogleUserInfo;
+
+import java.util.Optional;
+
+/**
+ * 本地校验 Google ID Token（JWKS 签名 + iss / aud / exp）
+ */
+public interface GoogleIdTokenVerifier {
+
+    /**
+     * 校验 ID Token
+     *
+     * @return 校验通过的用户信息；本地没有可用公钥（JWKS 拉取失败或 kid 未知）时返回 empty，由调用方回退到 tokeninfo
+     * @throws io.jsonwebtoken.JwtException 签名、签发方、受众或有效期校验失败
+     */
+    Optional<GoogleUserInfo> verify(String idToken);
+}
@@ -0,0 +1,191 @@
+package com.logai.user.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logai.common.http.HttpResult;
+import com.logai.common.http.OutboundHttpClient;
+import com.logai.user.dto.GoogleUserInfo;
+import com.logai.user.service.GoogleIdTokenVerifier;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.IncorrectClaimException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigInteger;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Google ID Token 本地校验
+ * <p>
+ * 公钥来自 Google JWKS，按响应头 Cache-Control max-age 缓存，到期前由定时任务在后台刷新。
+ * 遇到未知 kid（Google 轮换密钥）时最多每 min-refresh-interval 同步刷新一次，仍找不到则交给调用方回退。
+ * jwks-uri 和 issuers 可配置，本地可用自己生成的 RSA 密钥对和 JWKS 代替 Google。
+ */
+@Slf4j
+@Service
+public class GoogleIdTokenVerifierImpl implements GoogleIdTokenVerifier {
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+
+    private final OutboundHttpClient outboundHttpClient;
+    private final ObjectMapper objectMapper;
+    private final JwtParser jwtParser;
+    private final String clientId;
+    private final Set<String> issuers;
+
+    @Value("${google.id-token.jwks-uri:https://www.googleapis.com/oauth2/v3/certs}")
+    private String jwksUri;
+
+    @Value("${google.id-token.default-max-age-seconds:3600}")
+    private long defaultMaxAgeSeconds;
+
+    @Value("${google.id-token.refresh-ahead-seconds:300}")
+    private long refreshAheadSeconds;
+
+    @Value("${google.id-token.min-refresh-interval-ms:60000}")
+    private long minRefreshIntervalMs;
+
+    private volatile KeySet keySet = KeySet.EMPTY;
+    private volatile long lastFetchAttempt;
+
+    public GoogleIdTokenVerifierImpl(OutboundHttpClient outboundHttpClient,
+                                     ObjectMapper objectMapper,
+                                     @Value("${spring.security.oauth2.client.registration.google.client-id}") String clientId,
+                                     @Value("${google.id-token.issuers:accounts.google.com,https://accounts.google.com}") List<String> issuers,
+                                     @Value("${google.id-token.clock-skew-seconds:60}") long clockSkewSeconds) {
+        this.outboundHttpClient = outboundHttpClient;
+        this.objectMapper = objectMapper;
+        this.clientId = clientId;
+        this.issuers = Set.copyOf(issuers);
+        this.jwtParser = Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header.getKeyId());
+                    }
+                })
+                .setAllowedClockSkewSeconds(clockSkewSeconds)
+                .build();
+    }
+
+    @Override
+    public Optional<GoogleUserInfo> verify(String idToken) {
+        Claims claims;
+        try {
+            // 签名和 exp / nbf 由 parser 校验
+            claims = jwtParser.parseClaimsJws(idToken).getBody();
+        } catch (KeyUnavailableException e) {
+            log.warn("本地无可用 Google 公钥，回退 tokeninfo - kid: {}", e.getMessage());
+            return Optional.empty();
+        }
+
+        if (!issuers.contains(claims.getIssuer())) {
+            throw new IncorrectClaimException(null, claims, "Unexpected issuer: " + claims.getIssuer()); // 签发方不是 Google
+        }
+        if (!clientId.equals(claims.getAudience())) {
+            throw new IncorrectClaimException(null, claims, "Unexpected audience: " + claims.getAudience()); // 受众不是本应用
+        }
+
+        GoogleUserInfo userInfo = new GoogleUserInfo();
+        userInfo.setSub(claims.getSubject());
+        userInfo.setAud(claims.getAudience());
+        userInfo.setEmail(claims.get("email", String.class));
+        userInfo.setEmail_verified(toBoolean(claims.get("email_verified")));
+        userInfo.setName(claims.get("name", String.class));
+        userInfo.setGiven_name(claims.get("given_name", String.class));
+        userInfo.setFamily_name(claims.get("family_name", String.class));
+        userInfo.setPicture(claims.get("picture", String.class));
+        userInfo.setLocale(claims.get("locale", String.class));
+        return Optional.of(userInfo);
+    }
+
+    /**
+     * 到期前后台刷新公钥，登录请求一般不会等在 JWKS 拉取上
+     */
+    @Scheduled(fixedDelayString = "${google.id-token.refresh-check-interval-ms:60000}", initialDelay = 0)
+    public void refreshIfNeeded() {
+        if (System.currentTimeMillis() >= keySet.expiresAt() - refreshAheadSeconds * 1000) {
+            refresh();
+        }
+    }
+
+    private Key resolveKey(String kid) {
+        KeySet current = keySet;
+        PublicKey key = kid == null ? null : current.keys().get(kid);
+        if (key == null && System.currentTimeMillis() - lastFetchAttempt >= minRefreshIntervalMs) {
+            refresh();
+            key = kid == null ? null : keySet.keys().get(kid);
+        }
+        if (key == null) {
+            throw new KeyUnavailableException(kid);
+        }
+        return key;
+    }
+
+    private synchronized void refresh() {
+        lastFetchAttempt = System.currentTimeMillis();
+        try {
+            HttpResult response = outboundHttpClient.get("google", jwksUri, Map.of());
+            if (!response.isOk()) {
+                log.warn("拉取 Google JWKS 失败，继续使用旧公钥 - 状态码: {}", response.status());
+                return;
+            }
+            Map<String, PublicKey> keys = parseKeys(response.body());
+            if (keys.isEmpty()) {
+                log.warn("Google JWKS 中没有可用的 RSA 公钥，继续使用旧公钥");
+                return;
+            }
+            long maxAgeSeconds = response.header("Cache-Control")
+                    .map(MAX_AGE::matcher)
+                    .filter(Matcher::find)
+                    .map(matcher -> Long.parseLong(matcher.group(1)))
+                    .orElse(defaultMaxAgeSeconds);
+            keySet = new KeySet(Map.copyOf(keys), System.currentTimeMillis() + maxAgeSeconds * 1000);
+            log.info("Google JWKS 已刷新 - 公钥数: {}, max-age: {}s", keys.size(), maxAgeSeconds);
+        } catch (Exception e) {
+            log.warn("拉取 Google JWKS 异常，继续使用旧公钥 - 错误: {}", e.getMessage());
+        }
+    }
+
+    private Map<String, PublicKey> parseKeys(String body) throws Exception {
+        Map<String, PublicKey> keys = new HashMap<>();
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        for (JsonNode jwk : objectMapper.readTree(body).path("keys")) {
+            if (!"RSA".equals(jwk.path("kty").asText()) || !jwk.hasNonNull("kid")) {
+                continue;
+            }
+            BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("e").asText()));
+            keys.put(jwk.path("kid").asText(), keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        return keys;
+    }
+
+    private Boolean toBoolean(Object value) {
+        if (value instanceof Boolean bool) {
+            return bool;
+        }
+        return value == null ? null : Boolean.valueOf(value.toString());
+    }
+
+    private record KeySet(Map<String, PublicKey> keys, long expiresAt) {
+        static final KeySet EMPTY = new KeySet(Map.of(), 0L);
+    }
+
+    private static class KeyUnavailableException extends RuntimeException {
+        KeyUnavailableException(String kid) {
+            super(kid);
+        }
+    }
+}
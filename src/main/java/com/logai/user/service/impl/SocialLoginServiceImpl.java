@@ -1,8 +1,8 @@
 package com.logai.user.service.impl;
 
-import cn.hutool.http.HttpRequest;
-import cn.hutool.http.HttpResponse;
 import com.alibaba.fastjson.JSON;
+import com.logai.common.http.HttpResult;
+import com.logai.common.http.OutboundHttpClient;
 import com.logai.security.dto.TokenResponse;
 import com.logai.security.service.TokenService;
 import com.logai.user.dto.GoogleUserInfo;
@@ -10,14 +10,18 @@ import com.logai.user.entity.SocialAccount;
 import com.logai.user.entity.User;
 import com.logai.user.mapper.SocialAccountMapper;
 import com.logai.user.mapper.UserMapper;
+import com.logai.user.service.GoogleIdTokenVerifier;
 import com.logai.user.service.SocialLoginService;
 import com.logai.user.service.UserService;
+import io.jsonwebtoken.JwtException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -33,6 +37,8 @@ public class SocialLoginServiceImpl implements SocialLoginService {
     private final SocialAccountMapper socialAccountMapper;
     private final TokenService tokenService;
     private final UserService userService;
+    private final OutboundHttpClient outboundHttpClient;
+    private final GoogleIdTokenVerifier googleIdTokenVerifier;
 
     private final String googleValidationUrl = "https://oauth2.googleapis.com/tokeninfo?id_token=";
 
@@ -71,16 +77,30 @@ public class SocialLoginServiceImpl implements SocialLoginService {
     }
 
     private GoogleUserInfo validateGoogleIdToken(String idToken) {
+        // 优先用缓存的 JWKS 本地校验；本地无可用公钥时才请求 tokeninfo
+        Optional<GoogleUserInfo> verified;
+        try {
+            verified = googleIdTokenVerifier.verify(idToken);
+        } catch (JwtException | IllegalArgumentException e) {
+            log.error("Google ID Token local validation failed: {}", e.getMessage());
+            throw new RuntimeException("Google ID Token validation failed", e);
+        }
+        if (verified.isPresent()) {
+            log.info("ID Token validated locally for user: {}", verified.get().getEmail());
+            return verified.get();
+        }
+        return validateGoogleIdTokenRemotely(idToken);
+    }
+
+    private GoogleUserInfo validateGoogleIdTokenRemotely(String idToken) {
 
         String validationUrl = googleValidationUrl + idToken;
 
         try {
             // === 1. 调用 Google 服务器解析 token ===
-            HttpResponse response = HttpRequest.get(validationUrl)
-                    .header("Content-Type", "application/json")
-                    .execute();
+            HttpResult response = outboundHttpClient.get("google", validationUrl, Map.of());
 
-            int status = response.getStatus();
+            int status = response.status();
             String body = response.body();
 
             // === 2. 模拟 WebClient.onStatus 行为 ===
@@ -0,0 +1,25 @@
+-- user_record_detail 冗余 user_id / data_type，记录检索不再联表 user_chat、attributes
+ALTER TABLE user_record_detail
+    ADD COLUMN user_id   BIGINT      NULL AFTER attribute_id,
+    ADD COLUMN data_type VARCHAR(16) NULL AFTER user_id;
+
+-- 回填历史数据
+UPDATE user_record_detail urd
+    JOIN user_record ur ON ur.id = urd.record_id
+    JOIN attributes a ON a.id = urd.attribute_id
+SET urd.user_id   = ur.user_id,
+    urd.data_type = a.data_type
+WHERE urd.user_id IS NULL
+   OR urd.data_type IS NULL;
+
+-- searchUserRecords / countUserRecords：按用户 + 主题 + 事件时间过滤排序
+CREATE INDEX idx_user_record_user_theme_event
+    ON user_record (user_id, theme_id, event_date, record_date);
+
+-- searchUserRecords?chatId=：按用户 + 对话定位记录
+CREATE INDEX idx_user_record_user_chat
+    ON user_record (user_id, chat_id);
+
+-- 明细回表与 EXISTS 搜索条件
+CREATE INDEX idx_user_record_detail_record_attr
+    ON user_record_detail (record_id, attribute_id, data_type);
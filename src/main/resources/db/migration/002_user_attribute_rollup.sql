@@ -0,0 +1,20 @@
+-- 数值属性汇总表：按 日/周/月 预聚合 NUMBER 类型明细，趋势分析不再扫描原始明细
+-- 时间口径为 COALESCE(event_date, record_date)，周从周一开始
+CREATE TABLE IF NOT EXISTS user_attribute_rollup
+(
+    user_id         BIGINT      NOT NULL,
+    theme_id        BIGINT      NOT NULL,
+    attribute_id    BIGINT      NOT NULL,
+    granularity     VARCHAR(8)  NOT NULL COMMENT 'DAY / WEEK / MONTH',
+    period_start    DATE        NOT NULL COMMENT '周期起始日期',
+    value_count     INT         NOT NULL,
+    value_sum       DOUBLE      NOT NULL,
+    min_value       DOUBLE      NOT NULL,
+    max_value       DOUBLE      NOT NULL,
+    last_value      DOUBLE      NULL COMMENT '周期内最后一次记录的值',
+    number_unit     VARCHAR(32) NULL,
+    last_event_time DATETIME    NULL,
+    updated_at      DATETIME    NOT NULL,
+    PRIMARY KEY (user_id, attribute_id, granularity, period_start),
+    KEY idx_user_attribute_rollup_theme (user_id, theme_id, granularity, period_start)
+);
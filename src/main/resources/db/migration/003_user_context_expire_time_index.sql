@@ -0,0 +1,7 @@
+-- 过期上下文清理：按 expire_time 范围分块删除
+CREATE INDEX idx_user_context_expire_time
+    ON user_context (expire_time);
+
+-- findAllByUserId：按用户读取未过期上下文
+CREATE INDEX idx_user_context_user_expire
+    ON user_context (user_id, expire_time);
@@ -0,0 +1,17 @@
+-- Creem webhook 收件箱：先落库再异步处理，event_id 唯一保证重复推送幂等
+CREATE TABLE IF NOT EXISTS creem_webhook_inbox
+(
+    id            BIGINT       NOT NULL PRIMARY KEY,
+    event_id      VARCHAR(128) NOT NULL,
+    event_type    VARCHAR(64)  NULL,
+    partition_key VARCHAR(255) NOT NULL COMMENT '同一客户的事件按接收顺序串行处理',
+    payload       MEDIUMTEXT   NOT NULL COMMENT '原始请求体',
+    status        VARCHAR(16)  NOT NULL COMMENT 'RECEIVED / DONE / FAILED / DEAD',
+    attempts      INT          NOT NULL DEFAULT 0,
+    last_error    VARCHAR(1000) NULL,
+    created_at    DATETIME     NOT NULL,
+    updated_at    DATETIME     NOT NULL,
+    processed_at  DATETIME     NULL,
+    UNIQUE KEY uk_creem_webhook_inbox_event (event_id),
+    KEY idx_creem_webhook_inbox_status (status, id)
+);
@@ -0,0 +1,41 @@
+-- token 用量流水：每次模型调用一行，只追加；由内存缓冲批量写入
+CREATE TABLE IF NOT EXISTS token_usage_event
+(
+    id                BIGINT      NOT NULL AUTO_INCREMENT,
+    user_id           BIGINT      NOT NULL,
+    chat_id           BIGINT      NULL,
+    client            VARCHAR(32) NOT NULL COMMENT 'ChatClient：intent / theme / attribute / analysis / analysisTheme / dateRange',
+    model             VARCHAR(64) NOT NULL,
+    prompt_tokens     INT         NOT NULL,
+    completion_tokens INT         NOT NULL,
+    usage_date        DATE        NOT NULL COMMENT '调用发生的日期',
+    created_at        DATETIME(3) NOT NULL COMMENT '写入时间，汇总只处理写入超过一定时间的流水',
+    PRIMARY KEY (id)
+);
+
+-- 按 用户 / 日 / 模型 / ChatClient 汇总，查询用量不再扫描流水或 user_chat
+CREATE TABLE IF NOT EXISTS token_usage_daily
+(
+    user_id           BIGINT      NOT NULL,
+    usage_date        DATE        NOT NULL,
+    model             VARCHAR(64) NOT NULL,
+    client            VARCHAR(32) NOT NULL,
+    call_count        INT         NOT NULL,
+    prompt_tokens     BIGINT      NOT NULL,
+    completion_tokens BIGINT      NOT NULL,
+    updated_at        DATETIME    NOT NULL,
+    PRIMARY KEY (user_id, usage_date, model, client),
+    KEY idx_token_usage_daily_date (usage_date)
+);
+
+-- 汇总进度：已汇总到的最大流水 id，汇总时 FOR UPDATE 锁定该行，多实例串行
+CREATE TABLE IF NOT EXISTS token_usage_rollup_cursor
+(
+    name          VARCHAR(32) NOT NULL,
+    last_event_id BIGINT      NOT NULL,
+    updated_at    DATETIME    NOT NULL,
+    PRIMARY KEY (name)
+);
+
+INSERT IGNORE INTO token_usage_rollup_cursor (name, last_event_id, updated_at)
+VALUES ('daily', 0, NOW());
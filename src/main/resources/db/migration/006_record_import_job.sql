@@ -0,0 +1,28 @@
+-- 批量导入任务：先落库原始文件再分批处理，游标与每批写入在同一事务内推进，中断后从游标继续
+CREATE TABLE IF NOT EXISTS record_import_job
+(
+    id                BIGINT       NOT NULL PRIMARY KEY,
+    user_id           BIGINT       NOT NULL,
+    chat_id           BIGINT       NOT NULL COMMENT '导入生成的记录归到同一条 user_chat，可按 chatId 检索',
+    format            VARCHAR(16)  NOT NULL COMMENT 'JSONL / CSV',
+    normalize         TINYINT(1)   NOT NULL DEFAULT 0 COMMENT '是否先用模型把主题、属性名映射到已有目录',
+    time_zone         VARCHAR(64)  NULL,
+    payload           MEDIUMTEXT   NOT NULL COMMENT '原始文件内容',
+    payload_hash      CHAR(64)     NOT NULL COMMENT '同一用户重复上传同一文件时返回已有任务',
+    status            VARCHAR(16)  NOT NULL COMMENT 'RECEIVED / RUNNING / DONE / FAILED',
+    total_entries     INT          NOT NULL DEFAULT 0,
+    next_entry        INT          NOT NULL DEFAULT 0 COMMENT '下一条待处理条目的下标',
+    imported_records  INT          NOT NULL DEFAULT 0,
+    skipped_entries   INT          NOT NULL DEFAULT 0,
+    attribute_mapping MEDIUMTEXT   NULL COMMENT '模型给出的主题/属性名映射（JSON），续传时沿用',
+    error_samples     TEXT         NULL COMMENT '被跳过条目的原因样例（JSON 数组）',
+    attempts          INT          NOT NULL DEFAULT 0,
+    last_error        VARCHAR(1000) NULL,
+    lease_owner       VARCHAR(64)  NULL,
+    lease_until       DATETIME     NULL COMMENT '处理实例的租约，过期后其他实例可接管',
+    created_at        DATETIME     NOT NULL,
+    updated_at        DATETIME     NOT NULL,
+    finished_at       DATETIME     NULL,
+    UNIQUE KEY uk_record_import_job_user_hash (user_id, payload_hash),
+    KEY idx_record_import_job_status (status, lease_until)
+);
@@ -0,0 +1,7 @@
+-- Creem webhook 收件箱失败重试退避：FAILED 事件在 next_attempt_at 之前不再取出，
+-- 同一客户存在未到重试时间的失败事件时，其后续事件也不取出，保证顺序
+ALTER TABLE creem_webhook_inbox
+    ADD COLUMN next_attempt_at DATETIME NULL COMMENT '失败后下次重试时间' AFTER last_error;
+
+CREATE INDEX idx_creem_webhook_inbox_partition
+    ON creem_webhook_inbox (partition_key, status, id);
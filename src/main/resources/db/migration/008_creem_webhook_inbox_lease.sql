@@ -0,0 +1,6 @@
+-- Creem webhook 收件箱事件租约：处理前以条件 UPDATE 抢占为 PROCESSING，
+-- 同一事件只会被一个 drain 处理；租约过期（处理实例中断）后可被重新取出
+ALTER TABLE creem_webhook_inbox
+    MODIFY COLUMN status VARCHAR(16) NOT NULL COMMENT 'RECEIVED / PROCESSING / DONE / FAILED / DEAD',
+    ADD COLUMN lease_owner VARCHAR(64) NULL AFTER next_attempt_at,
+    ADD COLUMN lease_until DATETIME    NULL COMMENT '处理中事件的租约' AFTER lease_owner;
@@ -0,0 +1,155 @@
+package com.logai.user.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.logai.common.http.HttpResult;
+import com.logai.common.http.OutboundHttpClient;
+import com.logai.user.dto.GoogleUserInfo;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.IncorrectClaimException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigInteger;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用本地生成的 RSA 密钥对和 JWKS 代替 Google，校验签名、iss、aud、exp 以及无可用公钥时的回退
+ */
+class GoogleIdTokenVerifierImplTest {
+    private static final String CLIENT_ID = "test-client-id.apps.googleusercontent.com";
+    private static final String ISSUER = "https://accounts.google.com";
+    private static final String KID = "test-kid";
+
+    private KeyPair keyPair;
+    private OutboundHttpClient outboundHttpClient;
+    private GoogleIdTokenVerifierImpl verifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        keyPair = generateKeyPair();
+        outboundHttpClient = mock(OutboundHttpClient.class);
+        when(outboundHttpClient.get(eq("google"), any(), any()))
+                .thenReturn(new HttpResult(200, jwks(KID, (RSAPublicKey) keyPair.getPublic()),
+                        Map.of("Cache-Control", List.of("public, max-age=3600"))));
+
+        verifier = new GoogleIdTokenVerifierImpl(outboundHttpClient, new ObjectMapper(), CLIENT_ID,
+                List.of("accounts.google.com", ISSUER), 60);
+        ReflectionTestUtils.setField(verifier, "jwksUri", "https://jwks.test/certs");
+        ReflectionTestUtils.setField(verifier, "defaultMaxAgeSeconds", 3600L);
+        ReflectionTestUtils.setField(verifier, "refreshAheadSeconds", 300L);
+        ReflectionTestUtils.setField(verifier, "minRefreshIntervalMs", 60000L);
+    }
+
+    @Test
+    void validTokenReturnsUserInfo() {
+        String token = token(KID, keyPair, ISSUER, CLIENT_ID, Instant.now().plusSeconds(600));
+
+        Optional<GoogleUserInfo> userInfo = verifier.verify(token);
+
+        assertTrue(userInfo.isPresent());
+        assertEquals("google-sub-1", userInfo.get().getSub());
+        assertEquals(CLIENT_ID, userInfo.get().getAud());
+        assertEquals("user@example.com", userInfo.get().getEmail());
+        assertEquals(Boolean.TRUE, userInfo.get().getEmail_verified());
+    }
+
+    @Test
+    void tokenSignedWithAnotherKeyIsRejected() throws Exception {
+        String token = token(KID, generateKeyPair(), ISSUER, CLIENT_ID, Instant.now().plusSeconds(600));
+
+        assertThrows(SignatureException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void wrongIssuerIsRejected() {
+        String token = token(KID, keyPair, "https://evil.example.com", CLIENT_ID, Instant.now().plusSeconds(600));
+
+        assertThrows(IncorrectClaimException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void wrongAudienceIsRejected() {
+        String token = token(KID, keyPair, ISSUER, "another-client-id", Instant.now().plusSeconds(600));
+
+        assertThrows(IncorrectClaimException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void expiredTokenIsRejected() {
+        // 超过 60 秒的时钟偏差容忍
+        String token = token(KID, keyPair, ISSUER, CLIENT_ID, Instant.now().minusSeconds(600));
+
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void unknownKeyIdFallsBackToTokenInfo() {
+        String token = token("rotated-kid", keyPair, ISSUER, CLIENT_ID, Instant.now().plusSeconds(600));
+
+        assertTrue(verifier.verify(token).isEmpty());
+    }
+
+    @Test
+    void jwksUnavailableFallsBackToTokenInfo() {
+        when(outboundHttpClient.get(eq("google"), any(), any())).thenReturn(new HttpResult(503, "", Map.of()));
+        String token = token(KID, keyPair, ISSUER, CLIENT_ID, Instant.now().plusSeconds(600));
+
+        assertTrue(verifier.verify(token).isEmpty());
+    }
+
+    private static KeyPair generateKeyPair() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private static String token(String kid, KeyPair signer, String issuer, String audience, Instant expiresAt) {
+        Instant issuedAt = expiresAt.minusSeconds(3600);
+        return Jwts.builder()
+                .setHeaderParam("kid", kid)
+                .setIssuer(issuer)
+                .setAudience(audience)
+                .setSubject("google-sub-1")
+                .setIssuedAt(Date.from(issuedAt))
+                .setExpiration(Date.from(expiresAt))
+                .claim("email", "user@example.com")
+                .claim("email_verified", true)
+                .claim("name", "Test User")
+                .signWith(signer.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    private static String jwks(String kid, RSAPublicKey publicKey) {
+        return """
+                {"keys":[{"kty":"RSA","alg":"RS256","use":"sig","kid":"%s","n":"%s","e":"%s"}]}
+                """.formatted(kid, base64Url(publicKey.getModulus()), base64Url(publicKey.getPublicExponent()));
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // 去掉符号位补的前导 0
+        if (bytes.length > 1 && bytes[0] == 0) {
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}